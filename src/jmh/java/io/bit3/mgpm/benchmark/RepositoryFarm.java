@@ -0,0 +1,231 @@
+package io.bit3.mgpm.benchmark;
+
+import io.bit3.mgpm.config.Config;
+import io.bit3.mgpm.config.RepositoryConfig;
+import io.bit3.mgpm.config.Strategy;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A reproducible farm of local bare "remote" repositories and the matching mgpm workspace.
+ */
+public class RepositoryFarm {
+  private static final long EPOCH = 1500000000L;
+
+  private final File baseDirectory;
+  private final File remotesDirectory;
+  private final File workspaceDirectory;
+  private final int repositories;
+  private final int branches;
+  private final int commits;
+  private final Random random;
+  private long clock = 0;
+
+  /**
+   * @param baseDirectory The directory to create the farm in.
+   * @param repositories  Amount of repositories.
+   * @param branches      Amount of branches per repository, including master.
+   * @param commits       Amount of commits per branch.
+   * @param seed          Seed for all random decisions, the same seed creates the same farm.
+   */
+  public RepositoryFarm(File baseDirectory, int repositories, int branches, int commits, long seed) {
+    this.baseDirectory = baseDirectory;
+    this.remotesDirectory = new File(baseDirectory, "remotes");
+    this.workspaceDirectory = new File(baseDirectory, "workspace");
+    this.repositories = repositories;
+    this.branches = Math.max(1, branches);
+    this.commits = Math.max(1, commits);
+    this.random = new Random(seed);
+  }
+
+  public File getWorkspaceDirectory() {
+    return workspaceDirectory;
+  }
+
+  /**
+   * Create all bare remotes and write the workspace mgpm.yml.
+   */
+  public void create() throws IOException, InterruptedException {
+    FileUtils.deleteDirectory(baseDirectory);
+    Files.createDirectories(remotesDirectory.toPath());
+    Files.createDirectories(workspaceDirectory.toPath());
+
+    for (int index = 0; index < repositories; index++) {
+      File remote = getRemoteDirectory(index);
+      run(remotesDirectory, null, "git", "init", "--quiet", "--bare", remote.getName());
+
+      StringBuilder stream = new StringBuilder();
+      for (int branch = 0; branch < branches; branch++) {
+        appendCommits(stream, branchName(branch), 0 == branch ? null : "refs/heads/master", commits);
+      }
+      fastImport(remote, stream);
+
+      run(remote, null, "git", "symbolic-ref", "HEAD", "refs/heads/master");
+    }
+
+    writeConfig();
+  }
+
+  /**
+   * Push new commits into the remotes, each branch receives a new commit with the given probability.
+   */
+  public int advanceRemotes(double commitRate) throws IOException, InterruptedException {
+    int newCommits = 0;
+
+    for (int index = 0; index < repositories; index++) {
+      StringBuilder stream = new StringBuilder();
+
+      for (int branch = 0; branch < branches; branch++) {
+        if (random.nextDouble() < commitRate) {
+          String ref = "refs/heads/" + branchName(branch);
+          appendCommits(stream, branchName(branch), ref + "^0", 1);
+          newCommits++;
+        }
+      }
+
+      if (0 < stream.length()) {
+        fastImport(getRemoteDirectory(index), stream);
+      }
+    }
+
+    return newCommits;
+  }
+
+  /**
+   * Modify a tracked file and add an untracked file in the given fraction of the cloned repositories.
+   */
+  public int dirtyWorkingTrees(double dirtyRate) throws IOException {
+    int dirty = 0;
+
+    for (int index = 0; index < repositories; index++) {
+      File directory = new File(workspaceDirectory, repositoryName(index));
+
+      if (!directory.isDirectory() || random.nextDouble() >= dirtyRate) {
+        continue;
+      }
+
+      Files.write(new File(directory, "master.txt").toPath(), "local change\n".getBytes(StandardCharsets.UTF_8));
+      Files.write(new File(directory, "untracked.txt").toPath(), "untracked\n".getBytes(StandardCharsets.UTF_8));
+      dirty++;
+    }
+
+    return dirty;
+  }
+
+  /**
+   * Build the configuration in memory, equivalent to the written mgpm.yml.
+   */
+  public Config createConfig() {
+    Config config = new Config();
+    config.getGitConfig().setBinary("git");
+
+    for (int index = 0; index < repositories; index++) {
+      String name = repositoryName(index);
+      config.getRepositories().add(new RepositoryConfig(
+          "",
+          name,
+          getRemoteDirectory(index).getAbsolutePath(),
+          Strategy.HEAD,
+          new File(workspaceDirectory, name)
+      ));
+    }
+
+    return config;
+  }
+
+  private void writeConfig() throws IOException {
+    File file = new File(workspaceDirectory, "mgpm.yml");
+
+    try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+      writer.write("repositories:\n");
+
+      for (int index = 0; index < repositories; index++) {
+        writer.write("  - type: git\n");
+        writer.write("    name: " + repositoryName(index) + "\n");
+        writer.write("    url: " + getRemoteDirectory(index).getAbsolutePath() + "\n");
+      }
+    }
+  }
+
+  private void appendCommits(StringBuilder stream, String branchName, String from, int amount) {
+    for (int commit = 0; commit < amount; commit++) {
+      String message = branchName + " commit " + (clock + 1);
+      String content = branchName + " " + random.nextLong() + "\n";
+
+      stream.append("commit refs/heads/").append(branchName).append('\n');
+      stream.append("committer mgpm <mgpm@example.com> ").append(EPOCH + clock++).append(" +0000\n");
+      appendData(stream, message);
+
+      if (0 == commit && null != from) {
+        stream.append("from ").append(from).append('\n');
+      }
+
+      stream.append("M 644 inline ").append(branchName.replace('/', '-')).append(".txt\n");
+      appendData(stream, content);
+      stream.append('\n');
+    }
+  }
+
+  private void appendData(StringBuilder stream, String data) {
+    stream.append("data ").append(data.getBytes(StandardCharsets.UTF_8).length).append('\n');
+    stream.append(data).append('\n');
+  }
+
+  private void fastImport(File remote, CharSequence stream) throws IOException, InterruptedException {
+    File input = File.createTempFile("mgpm-fast-import", ".txt", baseDirectory);
+
+    try {
+      Files.write(input.toPath(), stream.toString().getBytes(StandardCharsets.UTF_8));
+      run(remote, input, "git", "fast-import", "--quiet");
+    } finally {
+      Files.deleteIfExists(input.toPath());
+    }
+  }
+
+  private File getRemoteDirectory(int index) {
+    return new File(remotesDirectory, repositoryName(index) + ".git");
+  }
+
+  private static String repositoryName(int index) {
+    return String.format("repo%05d", index);
+  }
+
+  private static String branchName(int index) {
+    return 0 == index ? "master" : "feature/branch-" + index;
+  }
+
+  private static void run(File directory, File input, String... command) throws IOException, InterruptedException {
+    ProcessBuilder builder = new ProcessBuilder(command)
+        .directory(directory)
+        .redirectErrorStream(true)
+        .redirectOutput(ProcessBuilder.Redirect.INHERIT);
+
+    if (null != input) {
+      builder.redirectInput(input);
+    }
+
+    int exitCode = builder.start().waitFor();
+
+    if (0 != exitCode) {
+      throw new IOException(String.format("\"%s\" failed with exit code %d", String.join(" ", command), exitCode));
+    }
+  }
+
+  static List<String> describe(RepositoryFarm farm) {
+    List<String> lines = new LinkedList<>();
+    lines.add(String.format("repositories: %d", farm.repositories));
+    lines.add(String.format("branches:     %d", farm.branches));
+    lines.add(String.format("commits:      %d", farm.commits));
+    lines.add(String.format("workspace:    %s", farm.workspaceDirectory));
+    return lines;
+  }
+}
@@ -0,0 +1,162 @@
+package io.bit3.mgpm.benchmark;
+
+import io.bit3.mgpm.config.Config;
+import io.bit3.mgpm.config.RepositoryConfig;
+import io.bit3.mgpm.shard.ShardRing;
+import io.bit3.mgpm.snapshot.SnapshotHistory;
+import io.bit3.mgpm.snapshot.SnapshotReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Run a sharded fleet as local processes against a synthetic repository farm.
+ *
+ * <p>Reports how many repositories the shard ring moves when the fleet grows by one shard, then starts one mgpm
+ * process per shard on the same workspace and checks that their snapshots cover every repository exactly once.</p>
+ *
+ * <p>Options (all optional): {@code --repos=100 --shards=3 --seed=42 --dir=build/shard-benchmark}</p>
+ */
+public class ShardBenchmark {
+  private final Map<String, String> options;
+
+  private ShardBenchmark(Map<String, String> options) {
+    this.options = options;
+  }
+
+  public static void main(String[] arguments) throws IOException, InterruptedException {
+    Map<String, String> options = new HashMap<>();
+    for (String argument : arguments) {
+      String[] chunks = argument.replaceFirst("^--", "").split("=", 2);
+      options.put(chunks[0], 2 == chunks.length ? chunks[1] : "true");
+    }
+
+    if (!new ShardBenchmark(options).run()) {
+      System.exit(1);
+    }
+  }
+
+  private boolean run() throws IOException, InterruptedException {
+    File directory = Paths.get(option("dir", "build/shard-benchmark")).toAbsolutePath().toFile();
+    int shards = Integer.parseInt(option("shards", "3"));
+    long seed = Long.parseLong(option("seed", "42"));
+    RepositoryFarm farm = new RepositoryFarm(directory, Integer.parseInt(option("repos", "100")), 1, 1, seed);
+
+    farm.create();
+    Config config = farm.createConfig();
+    List<String> pathNames = config.getRepositories()
+        .stream()
+        .map(RepositoryConfig::getPathName)
+        .collect(Collectors.toList());
+
+    reportMovement(pathNames, Collections.emptyMap(), shards, "equal costs");
+    reportMovement(pathNames, createCosts(pathNames, seed), shards, "skewed costs");
+
+    File workspace = farm.getWorkspaceDirectory();
+    long start = System.nanoTime();
+    List<Process> processes = new ArrayList<>();
+
+    for (int shard = 1; shard <= shards; shard++) {
+      processes.add(new ProcessBuilder(
+          Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+          "-cp", System.getProperty("java.class.path"),
+          "io.bit3.mgpm.App", "--init", "--omit-superfluous-warnings", "--shard", shard + "/" + shards)
+          .directory(workspace)
+          .redirectErrorStream(true)
+          .redirectOutput(new File(directory, String.format("shard-%d-of-%d.log", shard, shards)))
+          .start());
+    }
+
+    boolean succeeded = true;
+    for (int shard = 1; shard <= shards; shard++) {
+      int exitCode = processes.get(shard - 1).waitFor();
+
+      if (0 != exitCode) {
+        System.out.printf("shard %d/%d exited with %d%n", shard, shards, exitCode);
+        succeeded = false;
+      }
+    }
+    System.out.printf("== %-20s wall %8.1f ms, count %d%n", "sharded init", (System.nanoTime() - start) / 1e6,
+        shards);
+
+    return verifyCoverage(workspace, pathNames, shards) && succeeded;
+  }
+
+  /**
+   * Compare the assignments of N and N + 1 shards, ideally only the 1/(N + 1) of the new shard move.
+   */
+  private void reportMovement(List<String> pathNames, Map<String, Long> costs, int shards, String label) {
+    Map<String, Integer> before = new ShardRing(shards).assign(pathNames, costs);
+    Map<String, Integer> after = new ShardRing(shards + 1).assign(pathNames, costs);
+    long moved = pathNames.stream().filter(pathName -> !before.get(pathName).equals(after.get(pathName))).count();
+
+    System.out.printf("%s: %d -> %d shards moved %d of %d repositories, ideally %d%n", label, shards, shards + 1,
+        moved, pathNames.size(), pathNames.size() / (shards + 1));
+  }
+
+  /**
+   * Log-normal costs, a few repositories dominate like in a real fleet.
+   */
+  private static Map<String, Long> createCosts(List<String> pathNames, long seed) {
+    Random random = new Random(seed);
+    Map<String, Long> costs = new HashMap<>();
+
+    for (String pathName : pathNames) {
+      costs.put(pathName, (long) Math.exp(8 + 1.5 * random.nextGaussian()));
+    }
+
+    return costs;
+  }
+
+  /**
+   * Every repository must be part of the latest snapshot of exactly one shard.
+   */
+  private static boolean verifyCoverage(File workspace, List<String> pathNames, int shards) throws IOException {
+    Set<String> covered = new HashSet<>();
+    int overlapping = 0;
+
+    for (int shard = 1; shard <= shards; shard++) {
+      Path runs = workspace.toPath()
+          .resolve(SnapshotHistory.DIRECTORY_NAME)
+          .resolve(String.format("runs-%d-of-%d", shard, shards));
+      List<Path> snapshots = new SnapshotHistory(runs).list();
+
+      if (snapshots.isEmpty()) {
+        System.out.printf("shard %d/%d wrote no snapshot%n", shard, shards);
+        continue;
+      }
+
+      try (SnapshotReader reader = new SnapshotReader(snapshots.get(snapshots.size() - 1))) {
+        System.out.printf("shard %d/%d processed %d repositories%n", shard, shards, reader.size());
+
+        for (int index = 0; index < reader.size(); index++) {
+          if (!covered.add(reader.getPathName(index))) {
+            overlapping++;
+          }
+        }
+      }
+    }
+
+    Set<String> missing = new HashSet<>(pathNames);
+    missing.removeAll(covered);
+    System.out.printf("covered %d of %d repositories, %d missing, %d processed twice%n", covered.size(),
+        pathNames.size(), missing.size(), overlapping);
+
+    return missing.isEmpty() && 0 == overlapping;
+  }
+
+  private String option(String name, String defaultValue) {
+    return options.getOrDefault(name, defaultValue);
+  }
+}
@@ -0,0 +1,134 @@
+package io.bit3.mgpm.benchmark;
+
+import io.bit3.mgpm.cli.CliApplication;
+import io.bit3.mgpm.cmd.Args;
+import io.bit3.mgpm.cmd.LogLevel;
+import io.bit3.mgpm.config.Config;
+import io.bit3.mgpm.worker.GitRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drive {@link CliApplication} through init, status and update against a synthetic repository farm.
+ *
+ * <p>Options (all optional): {@code --repos=100 --branches=5 --commits=10 --commit-rate=0.2 --dirty-rate=0.1
+ * --threads=<2 * cpus> --seed=42 --dir=build/workspace-benchmark}</p>
+ */
+public class WorkspaceBenchmark {
+  private final Map<String, String> options;
+
+  private WorkspaceBenchmark(Map<String, String> options) {
+    this.options = options;
+  }
+
+  public static void main(String[] arguments) throws IOException, InterruptedException {
+    System.setProperty("org.slf4j.simpleLogger.defaultLogLevel", LogLevel.ERROR.toString().toLowerCase());
+
+    Map<String, String> options = new HashMap<>();
+    for (String argument : arguments) {
+      String[] chunks = argument.replaceFirst("^--", "").split("=", 2);
+      options.put(chunks[0], 2 == chunks.length ? chunks[1] : "true");
+    }
+
+    new WorkspaceBenchmark(options).run();
+  }
+
+  private void run() throws IOException, InterruptedException {
+    RepositoryFarm farm = new RepositoryFarm(
+        Paths.get(option("dir", "build/workspace-benchmark")).toAbsolutePath().toFile(),
+        Integer.parseInt(option("repos", "100")),
+        Integer.parseInt(option("branches", "5")),
+        Integer.parseInt(option("commits", "10")),
+        Long.parseLong(option("seed", "42"))
+    );
+    double commitRate = Double.parseDouble(option("commit-rate", "0.2"));
+    double dirtyRate = Double.parseDouble(option("dirty-rate", "0.1"));
+
+    long start = System.nanoTime();
+    farm.create();
+    report("create farm", System.nanoTime() - start, 0);
+    RepositoryFarm.describe(farm).forEach(line -> System.out.println("  " + line));
+
+    Config config = farm.createConfig();
+
+    phase("init", config, args -> args.setDoInit(true));
+    report("dirty working trees", 0, farm.dirtyWorkingTrees(dirtyRate));
+    report("advance remotes", 0, farm.advanceRemotes(commitRate));
+    phase("status", config, args -> args.setShowStatus(true));
+    phase("update", config, args -> args.setDoUpdate(true));
+  }
+
+  private void phase(String name, Config config, ArgsCustomizer customizer) throws IOException {
+    Args args = new Args();
+    args.setLoggerLevel(LogLevel.ERROR);
+    args.setOmitSuperfluousWarnings(true);
+    args.setShowTimings(true);
+    if (options.containsKey("threads")) {
+      args.setThreads(Integer.parseInt(options.get("threads")));
+    }
+    customizer.customize(args);
+
+    CliApplication application = new CliApplication(args, config);
+
+    resetPeakRss();
+    long spawnsBefore = GitRunner.getSpawnedProcesses();
+    long start = System.nanoTime();
+
+    application.run();
+
+    long wallTime = System.nanoTime() - start;
+    long spawns = GitRunner.getSpawnedProcesses() - spawnsBefore;
+
+    report(name, wallTime, spawns);
+    System.out.printf("  peak rss (jvm): %s%n", readPeakRss());
+  }
+
+  private void report(String name, long wallTime, long count) {
+    System.out.printf("== %-20s wall %8.1f ms, count %d%n", name, wallTime / 1e6, count);
+  }
+
+  private String option(String name, String defaultValue) {
+    return options.getOrDefault(name, defaultValue);
+  }
+
+  /**
+   * Reset the peak resident set size, supported by linux only.
+   */
+  private static void resetPeakRss() {
+    File clearRefs = new File("/proc/self/clear_refs");
+
+    if (clearRefs.canWrite()) {
+      try {
+        Files.write(clearRefs.toPath(), "5".getBytes(StandardCharsets.US_ASCII));
+      } catch (IOException e) {
+        // not supported by this kernel
+      }
+    }
+  }
+
+  private static String readPeakRss() throws IOException {
+    File status = new File("/proc/self/status");
+
+    if (!status.isFile()) {
+      return "n/a";
+    }
+
+    List<String> lines = Files.readAllLines(status.toPath(), StandardCharsets.US_ASCII);
+    return lines.stream()
+        .filter(line -> line.startsWith("VmHWM:"))
+        .map(line -> line.substring(6).trim())
+        .findFirst()
+        .orElse("n/a");
+  }
+
+  private interface ArgsCustomizer {
+    void customize(Args args);
+  }
+}
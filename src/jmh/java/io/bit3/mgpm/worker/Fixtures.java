@@ -0,0 +1,159 @@
+package io.bit3.mgpm.worker;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Synthetic git outputs and on-disk fixtures shared by the benchmarks.
+ */
+final class Fixtures {
+  private static final String[] STATUS_CODES = new String[]{"M ", " M", "A ", "D ", "R ", "C ", "UU", "??"};
+
+  private Fixtures() {
+  }
+
+  /**
+   * Output of {@code git branch} with the given amount of branches, the first one is checked out.
+   */
+  static String localBranchesOutput(int branches) {
+    StringBuilder builder = new StringBuilder();
+
+    for (int index = 0; index < branches; index++) {
+      builder
+          .append(0 == index ? "* " : "  ")
+          .append(branchName(index))
+          .append('\n');
+    }
+
+    return builder.toString();
+  }
+
+  /**
+   * Output of {@code git branch -r} with the given amount of branches spread over the given remotes.
+   */
+  static String remoteBranchesOutput(int branches, int remotes) {
+    StringBuilder builder = new StringBuilder();
+
+    for (int remote = 0; remote < remotes; remote++) {
+      String remoteName = 0 == remote ? "origin" : "remote" + remote;
+      builder.append("  ").append(remoteName).append("/HEAD -> ").append(remoteName).append("/master\n");
+
+      for (int index = remote; index < branches; index += remotes) {
+        builder.append("  ").append(remoteName).append('/').append(branchName(index)).append('\n');
+      }
+    }
+
+    return builder.toString();
+  }
+
+  /**
+   * Output of {@code git status --porcelain} with the given amount of changed files.
+   */
+  static String statusOutput(int files) {
+    StringBuilder builder = new StringBuilder();
+
+    for (int index = 0; index < files; index++) {
+      builder
+          .append(STATUS_CODES[index % STATUS_CODES.length])
+          .append(" src/main/java/io/bit3/example/module")
+          .append(index % 17)
+          .append("/File")
+          .append(index)
+          .append(".java\n");
+    }
+
+    return builder.toString();
+  }
+
+  static String branchName(int index) {
+    switch (index % 4) {
+      case 0:
+        return 0 == index ? "master" : "feature/JIRA-" + index + "-some-description";
+      case 1:
+        return "bugfix/issue-" + index;
+      case 2:
+        return "release/" + (index / 100) + "." + (index % 100) + ".x";
+      default:
+        return "user/developer" + (index % 13) + "/topic-" + index;
+    }
+  }
+
+  static File createTempDirectory(String prefix) throws IOException {
+    return Files.createTempDirectory(prefix).toFile();
+  }
+
+  static void deleteQuietly(File directory) {
+    FileUtils.deleteQuietly(directory);
+  }
+
+  /**
+   * Create a fake git binary, that prints the given output regardless of its arguments.
+   */
+  static File createFakeGit(File directory, String output) throws IOException {
+    File outputFile = new File(directory, "canned-output.txt");
+    Files.write(outputFile.toPath(), output.getBytes(StandardCharsets.UTF_8));
+
+    File binary = new File(directory, "fake-git");
+    String script = "#!/bin/sh\nexec cat '" + outputFile.getAbsolutePath() + "'\n";
+    Files.write(binary.toPath(), script.getBytes(StandardCharsets.UTF_8));
+
+    if (!binary.setExecutable(true)) {
+      throw new IOException("could not make " + binary + " executable");
+    }
+
+    return binary;
+  }
+
+  /**
+   * Create a bare "remote" repository with the given amount of branches and a clone of it, that tracks every branch.
+   *
+   * @return The directory of the clone.
+   */
+  static File createFixtureRepository(File baseDirectory, String name, int branches, int commitsPerBranch)
+      throws GitProcessException {
+    GitRunner gitRunner = new GitRunner("git");
+
+    File remoteDirectory = new File(baseDirectory, name + ".git");
+    File seedDirectory = new File(baseDirectory, name + "-seed");
+    File cloneDirectory = new File(baseDirectory, name);
+
+    gitRunner.git(baseDirectory, "init", "--bare", "--quiet", remoteDirectory.getAbsolutePath());
+    gitRunner.git(baseDirectory, "init", "--quiet", seedDirectory.getAbsolutePath());
+    gitRunner.git(seedDirectory, "config", "user.name", "mgpm");
+    gitRunner.git(seedDirectory, "config", "user.email", "mgpm@example.com");
+    gitRunner.git(seedDirectory, "checkout", "--quiet", "-b", "master");
+    gitRunner.git(seedDirectory, "commit", "--quiet", "--allow-empty", "-m", "initial commit");
+
+    for (int index = 1; index < branches; index++) {
+      String branchName = branchName(index);
+      gitRunner.git(seedDirectory, "checkout", "--quiet", "-b", branchName, "master");
+
+      for (int commit = 0; commit < commitsPerBranch; commit++) {
+        gitRunner.git(seedDirectory, "commit", "--quiet", "--allow-empty", "-m", branchName + " #" + commit);
+      }
+    }
+
+    gitRunner.git(seedDirectory, "remote", "add", "origin", remoteDirectory.getAbsolutePath());
+    gitRunner.git(seedDirectory, "push", "--quiet", "origin", "--all");
+    gitRunner.git(remoteDirectory, "symbolic-ref", "HEAD", "refs/heads/master");
+
+    gitRunner.git(baseDirectory, "clone", "--quiet", remoteDirectory.getAbsolutePath(), cloneDirectory.getAbsolutePath());
+
+    List<String> command = new LinkedList<>(Arrays.asList("checkout", "--quiet", "--track"));
+    for (int index = 1; index < branches; index++) {
+      List<String> track = new LinkedList<>(command);
+      track.add("origin/" + branchName(index));
+      gitRunner.git(cloneDirectory, track);
+    }
+    gitRunner.git(cloneDirectory, "checkout", "--quiet", "master");
+
+    return cloneDirectory;
+  }
+}
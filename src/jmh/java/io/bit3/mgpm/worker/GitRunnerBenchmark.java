@@ -0,0 +1,55 @@
+package io.bit3.mgpm.worker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process handling of {@link GitRunner}, measured against a fake git binary that prints canned output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GitRunnerBenchmark {
+  /**
+   * Amount of remote branches in the canned output, 5000 branches are ~250 KiB.
+   */
+  @Param({"0", "300", "5000"})
+  public int branches;
+
+  private File directory;
+  private GitRunner gitRunner;
+
+  @Setup
+  public void setup() throws IOException {
+    directory = Fixtures.createTempDirectory("mgpm-bench-git");
+    File binary = Fixtures.createFakeGit(directory, Fixtures.remoteBranchesOutput(branches, 1));
+    gitRunner = new GitRunner(binary.getAbsolutePath());
+  }
+
+  @TearDown
+  public void tearDown() {
+    Fixtures.deleteQuietly(directory);
+  }
+
+  @Benchmark
+  public String git() throws GitProcessException {
+    return gitRunner.git(directory, "branch", "-r");
+  }
+}
@@ -0,0 +1,59 @@
+package io.bit3.mgpm.worker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of {@code git branch}, {@code git branch -r} and {@code git status --porcelain} outputs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkerParseBenchmark {
+  @Param({"10", "300", "5000"})
+  public int size;
+
+  private String localBranchesOutput;
+  private String remoteBranchesOutput;
+  private String statusOutput;
+
+  @Setup
+  public void setup() {
+    localBranchesOutput = Fixtures.localBranchesOutput(size);
+    remoteBranchesOutput = Fixtures.remoteBranchesOutput(size, 3);
+    statusOutput = Fixtures.statusOutput(size);
+  }
+
+  @Benchmark
+  public List<String> parseLocalBranches() {
+    return Worker.parseLocalBranches(localBranchesOutput);
+  }
+
+  @Benchmark
+  public Map<String, List<String>> parseRemoteBranches() {
+    return Worker.parseRemoteBranches(remoteBranchesOutput);
+  }
+
+  @Benchmark
+  public Worker.Stats parseStatus() {
+    Worker.Stats stats = new Worker.Stats();
+    Worker.parseStatus(statusOutput, stats);
+    return stats;
+  }
+}
@@ -0,0 +1,70 @@
+package io.bit3.mgpm.worker;
+
+import io.bit3.mgpm.config.Config;
+import io.bit3.mgpm.config.RepositoryConfig;
+import io.bit3.mgpm.config.Strategy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link Worker#run()} against a locally created fixture repository, requires a real git binary.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WorkerRunBenchmark {
+  @Param({"1", "20", "100"})
+  public int branches;
+
+  private File baseDirectory;
+  private Config config;
+  private RepositoryConfig repositoryConfig;
+
+  @Setup
+  public void setup() throws IOException, GitProcessException {
+    baseDirectory = Fixtures.createTempDirectory("mgpm-bench-run");
+    File directory = Fixtures.createFixtureRepository(baseDirectory, "fixture", branches, 2);
+
+    config = new Config();
+    config.getGitConfig().setBinary("git");
+    repositoryConfig = new RepositoryConfig("", directory.getName(), directory.getAbsolutePath() + ".git",
+        Strategy.HEAD, directory);
+  }
+
+  @TearDown
+  public void tearDown() {
+    Fixtures.deleteQuietly(baseDirectory);
+  }
+
+  @Benchmark
+  public Worker status() {
+    Worker worker = new Worker(config, repositoryConfig, false, false);
+    worker.run();
+    return worker;
+  }
+
+  @Benchmark
+  public Worker update() {
+    Worker worker = new Worker(config, repositoryConfig, false, true);
+    worker.run();
+    return worker;
+  }
+}
@@ -2,29 +2,57 @@ package io.bit3.mgpm;
 
 import io.bit3.mgpm.cli.AnsiOutput;
 import io.bit3.mgpm.cli.CliApplication;
+import io.bit3.mgpm.cli.DiffApplication;
+import io.bit3.mgpm.cli.MaintenanceApplication;
+import io.bit3.mgpm.cli.MergeApplication;
+import io.bit3.mgpm.cli.MirrorApplication;
 import io.bit3.mgpm.cmd.Args;
 import io.bit3.mgpm.cmd.ArgsLoader;
 import io.bit3.mgpm.cmd.LogLevel;
 import io.bit3.mgpm.config.Config;
+import io.bit3.mgpm.config.ConfigCache;
 import io.bit3.mgpm.config.ConfigLoader;
+import io.bit3.mgpm.config.RepositoryStream;
 import io.bit3.mgpm.gui.GuiApplication;
+import io.bit3.mgpm.metrics.MetricsFileWriter;
+import io.bit3.mgpm.metrics.MetricsRegistry;
+import io.bit3.mgpm.metrics.MetricsServer;
+import io.bit3.mgpm.metrics.MetricsWorkerObserver;
+import io.bit3.mgpm.snapshot.SnapshotHistory;
+import io.bit3.mgpm.worker.RemoteHostGuard;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 public class App {
   private static final Logger logger = LoggerFactory.getLogger(App.class);
   private final ConfigLoader loader;
   private final Args args;
   private final Config config = new Config();
+  private RepositoryStream repositoryStream;
 
   public App(ConfigLoader loader, Args args) throws FileNotFoundException {
+    this(loader, args, false);
+  }
+
+  /**
+   * @param streamRepositories Read the repositories in the background, the first run starts on them while the
+   *                           config is still read.
+   */
+  public App(ConfigLoader loader, Args args, boolean streamRepositories) throws FileNotFoundException {
     this.loader = loader;
     this.args = args;
 
-    this.init();
+    if (streamRepositories) {
+      this.initStream();
+    } else {
+      this.init();
+    }
   }
 
   public static void main(String[] cliArguments) {
@@ -40,11 +68,28 @@ public class App {
     System.setProperty("org.slf4j.simpleLogger.defaultLogLevel", args.getLoggerLevel().toString().toLowerCase());
     System.setProperty("org.slf4j.simpleLogger.log.io.bit3.mgpm", args.getLoggerLevel().toString().toLowerCase());
 
+    if (args.isDoDiff()) {
+      new DiffApplication(args).run();
+      return;
+    }
+
+    if (args.isDoMerge()) {
+      new MergeApplication(args).run();
+      return;
+    }
+
     ConfigLoader configLoader = new ConfigLoader();
+    if (args.isConfigCache()) {
+      configLoader.setCache(new ConfigCache(new File(SnapshotHistory.DIRECTORY_NAME, "config.cache"),
+          TimeUnit.SECONDS.toMillis(args.getConfigCacheTtl())));
+    }
+
     try {
-      App app = new App(configLoader, args);
+      App app = new App(configLoader, args, !args.isShowGui() && !args.isDoMirror());
 
-      if (args.isShowGui()) {
+      if (args.isDoMirror()) {
+        app.runMirror();
+      } else if (args.isShowGui()) {
         app.runGui();
       } else {
         app.runCli();
@@ -57,8 +102,7 @@ public class App {
   public void init() throws FileNotFoundException {
     AnsiOutput output = AnsiOutput.getInstance();
     output.addActiveWorker("MGPM", "loading configuration");
-    SpinnerRotator rotator = new SpinnerRotator(output);
-    rotator.start();
+    output.start();
 
     try {
       if (args.hasConfig()) {
@@ -67,8 +111,19 @@ public class App {
         loader.load(config);
       }
     } finally {
-      rotator.finish();
       output.removeActiveWorker("MGPM");
+      output.stop();
+    }
+  }
+
+  /**
+   * Load the settings only, the repositories are streamed into the first run.
+   */
+  public void initStream() throws FileNotFoundException {
+    if (args.hasConfig()) {
+      repositoryStream = loader.stream(config, args.getConfig());
+    } else {
+      repositoryStream = loader.stream(config);
     }
   }
 
@@ -77,44 +132,87 @@ public class App {
     guiApplication.run();
   }
 
-  public void runCli() {
-    CliApplication cliApplication = new CliApplication(args, config);
-    cliApplication.run();
-  }
+  public void runMirror() {
+    RemoteHostGuard remoteHostGuard = new RemoteHostGuard(config.getGitConfig().getRetries());
 
-  private class SpinnerRotator extends Thread {
-    private final AnsiOutput output;
-    private boolean running = true;
+    do {
+      new MirrorApplication(args, config, remoteHostGuard).run();
+    } while (args.isDaemon() && sleepUntilNextRun(false));
+  }
 
-    private SpinnerRotator(AnsiOutput output) {
-      this.output = output;
-      setDaemon(true);
+  public void runCli() {
+    MetricsRegistry metricsRegistry = new MetricsRegistry();
+    MetricsServer metricsServer = null;
+
+    if (args.hasMetricsPort()) {
+      metricsServer = new MetricsServer(metricsRegistry, args.getMetricsPort());
+      try {
+        metricsServer.start();
+      } catch (IOException e) {
+        logger.error("could not serve metrics: " + e.getMessage(), e);
+        metricsServer = null;
+      }
     }
 
-    @Override
-    public void run() {
-      while (running) {
-        output.rotateSpinner();
-        try {
-          Thread.sleep(200);
-        } catch (InterruptedException e) {
-          logger.error(e.getMessage(), e);
+    // keep the circuits of unavailable hosts open across daemon runs
+    RemoteHostGuard remoteHostGuard = new RemoteHostGuard(config.getGitConfig().getRetries());
+
+    try {
+      do {
+        CliApplication cliApplication = null == repositoryStream
+            ? new CliApplication(args, config, remoteHostGuard)
+            : new CliApplication(args, config, remoteHostGuard, repositoryStream);
+        repositoryStream = null;
+        cliApplication.registerObserver(new MetricsWorkerObserver(metricsRegistry));
+
+        long start = System.nanoTime();
+        metricsRegistry.runStarted();
+        cliApplication.run();
+        metricsRegistry.runFinished(System.nanoTime() - start);
+
+        writeMetricsFile(metricsRegistry);
+
+        if (args.isDoMaintenance() && !args.isDaemon()) {
+          new MaintenanceApplication(args, config).run();
         }
+      } while (args.isDaemon() && sleepUntilNextRun(args.isDoMaintenance()));
+    } finally {
+      if (null != metricsServer) {
+        metricsServer.stop();
       }
     }
+  }
+
+  private void writeMetricsFile(MetricsRegistry metricsRegistry) {
+    if (!args.hasMetricsFile()) {
+      return;
+    }
 
-    public void finish() {
-      running = false;
+    try {
+      new MetricsFileWriter(metricsRegistry, args.getMetricsFile(), args.getMetricsFormat()).write();
+    } catch (IOException e) {
+      logger.error("could not write metrics file: " + e.getMessage(), e);
+    }
+  }
 
-      while (isAlive()) {
-        try {
-          Thread.sleep(50);
-        } catch (InterruptedException e) {
-          logger.error(e.getMessage(), e);
-        }
-      }
+  /**
+   * Wait for the next daemon run, the interval includes the maintenance done in the meantime.
+   *
+   * @return False if the daemon was interrupted.
+   */
+  private boolean sleepUntilNextRun(boolean doMaintenance) {
+    long nextRun = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(args.getDaemonInterval());
+
+    // the workspace is idle until the next run
+    if (doMaintenance) {
+      new MaintenanceApplication(args, config).run();
+    }
 
-      output.deleteSpinner();
+    try {
+      Thread.sleep(Math.max(0, nextRun - System.currentTimeMillis()));
+      return true;
+    } catch (InterruptedException e) {
+      return false;
     }
   }
 }
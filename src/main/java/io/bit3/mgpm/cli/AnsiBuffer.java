@@ -0,0 +1,118 @@
+package io.bit3.mgpm.cli;
+
+/**
+ * A block of (optionally colored) terminal output, that is rendered at once by {@link AnsiOutput}.
+ *
+ * <p>A buffer is meant to be filled by a single thread and then passed to {@link AnsiOutput#write(AnsiBuffer)}.</p>
+ */
+public class AnsiBuffer {
+  private final static char ESCAPE = '\u001b';
+  private final StringBuilder buffer = new StringBuilder(256);
+  private final boolean decorated;
+
+  AnsiBuffer(boolean decorated) {
+    this.decorated = decorated;
+  }
+
+  public AnsiBuffer println() {
+    buffer.append(System.lineSeparator());
+
+    return this;
+  }
+
+  public AnsiBuffer println(String msg, Object... arguments) {
+    print(msg, arguments);
+    println();
+
+    return this;
+  }
+
+  public AnsiBuffer println(Color foregroundColor, String msg, Object... arguments) {
+    print(foregroundColor, msg, arguments);
+    println();
+
+    return this;
+  }
+
+  public AnsiBuffer print(String msg, Object... arguments) {
+    if (0 == arguments.length) {
+      buffer.append(msg);
+    } else {
+      buffer.append(String.format(msg, arguments));
+    }
+
+    return this;
+  }
+
+  public AnsiBuffer print(Color foregroundColor, String msg, Object... arguments) {
+    color(foregroundColor.foregroundCode, foregroundColor.foregroundIntensity);
+    print(msg, arguments);
+    reset();
+
+    return this;
+  }
+
+  public AnsiBuffer print(Color foregroundColor, Color backgroundColor,
+                          String msg, Object... arguments) {
+    color(foregroundColor.foregroundCode, foregroundColor.foregroundIntensity);
+    color(backgroundColor.backgroundCode, backgroundColor.backgroundIntensity);
+    print(msg, arguments);
+    reset();
+
+    return this;
+  }
+
+  public AnsiBuffer print(int integer) {
+    buffer.append(integer);
+
+    return this;
+  }
+
+  public AnsiBuffer print(Color foregroundColor, int integer) {
+    color(foregroundColor.foregroundCode, foregroundColor.foregroundIntensity);
+    print(integer);
+    reset();
+
+    return this;
+  }
+
+  public AnsiBuffer print(Color foregroundColor, Color backgroundColor, int integer) {
+    color(foregroundColor.foregroundCode, foregroundColor.foregroundIntensity);
+    color(backgroundColor.backgroundCode, backgroundColor.backgroundIntensity);
+    print(integer);
+    reset();
+
+    return this;
+  }
+
+  public boolean isEmpty() {
+    return 0 == buffer.length();
+  }
+
+  @Override
+  public String toString() {
+    return buffer.toString();
+  }
+
+  private void color(int code, int intensity) {
+    if (!decorated) {
+      return;
+    }
+
+    buffer
+        .append(ESCAPE)
+        .append('[')
+        .append(intensity)
+        .append(';')
+        .append(code)
+        .append('m');
+  }
+
+  private void reset() {
+    if (!decorated) {
+      return;
+    }
+
+    buffer.append(ESCAPE).append("[0m");
+  }
+}
@@ -1,20 +1,34 @@
 package io.bit3.mgpm.cli;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.PrintStream;
-import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.Map;
-import java.util.Set;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 import jnr.posix.POSIX;
 import jnr.posix.POSIXFactory;
 
+/**
+ * Asynchronous terminal renderer.
+ *
+ * <p>Producers fill {@link AnsiBuffer}s and enqueue them, or update the active workers map; neither ever touches
+ * stdout. A single render thread draws a frame every {@link #FRAME_MILLIS} ms: it erases the spinner, writes all
+ * pending blocks and redraws the spinner with one buffered write.</p>
+ */
 public class AnsiOutput {
   private final static char ESCAPE = '\u001b';
-  private final static char BACKSPACE = '\u0008';
-  private final static PrintStream out = System.out;
+  private final static long FRAME_MILLIS = 50;
+  private final static int FRAMES_PER_SPINNER_STEP = 4;
+  private final static PrintStream out =
+      new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 64 * 1024), false);
   private final static boolean DECORATED;
   private final static AnsiOutput instance;
   private final static String[] spinnerCharacters = new String[]{"|", "/", "-", "\\"};
@@ -34,9 +48,15 @@ public class AnsiOutput {
     instance = new AnsiOutput();
   }
 
-  private Map<String, String> activeWorkers = new LinkedHashMap<>();
+  private final Map<String, String> activeWorkers = new ConcurrentHashMap<>();
+  private final Queue<String> pendingBlocks = new ConcurrentLinkedQueue<>();
+  private volatile boolean activeWorkersChanged = false;
+  private volatile Thread renderThread;
+  private volatile boolean running = false;
+  // only accessed by the render thread
   private int spinnerIndex = 0;
   private int writtenLines = 0;
+  private long frame = 0;
 
   private AnsiOutput() {
   }
@@ -45,146 +65,137 @@ public class AnsiOutput {
     return instance;
   }
 
-  public AnsiOutput println() {
-    out.println();
-
-    return this;
+  /**
+   * Create a new buffer, that can be filled and passed to {@link #write(AnsiBuffer)}.
+   */
+  public AnsiBuffer block() {
+    return new AnsiBuffer(DECORATED);
   }
 
-  public AnsiOutput println(String msg, Object... arguments) {
-    print(msg, arguments);
-    out.println();
-
-    return this;
+  /**
+   * Enqueue a block, it is rendered by the next frame. Never blocks.
+   */
+  public void write(AnsiBuffer buffer) {
+    if (!buffer.isEmpty()) {
+      pendingBlocks.offer(buffer.toString());
+    }
   }
 
-  public AnsiOutput println(Color foregroundColor, String msg, Object... arguments) {
-    print(foregroundColor, msg, arguments);
-    out.println();
+  public void addActiveWorker(String label, String activity) {
+    activeWorkers.put(label, activity);
+    activeWorkersChanged = true;
+  }
 
-    return this;
+  public void removeActiveWorker(String label) {
+    activeWorkers.remove(label);
+    activeWorkersChanged = true;
   }
 
-  public AnsiOutput print(String msg, Object... arguments) {
-    out.printf(msg, arguments);
+  /**
+   * Start the render thread, if it is not already running.
+   */
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
 
-    return this;
+    running = true;
+    renderThread = new Thread(this::renderLoop, "mgpm-ansi-renderer");
+    renderThread.setDaemon(true);
+    renderThread.start();
   }
 
-  public AnsiOutput print(Color foregroundColor, String msg, Object... arguments) {
-    color(foregroundColor.foregroundCode, foregroundColor.foregroundIntensity);
-    print(msg, arguments);
-    reset();
+  /**
+   * Render all pending blocks, remove the spinner and stop the render thread.
+   */
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
 
-    return this;
-  }
+    running = false;
+    LockSupport.unpark(renderThread);
 
-  public AnsiOutput print(Color foregroundColor, Color backgroundColor,
-                          String msg, Object... arguments) {
-    color(foregroundColor.foregroundCode, foregroundColor.foregroundIntensity);
-    color(foregroundColor.backgroundCode, backgroundColor.backgroundIntensity);
-    print(msg, arguments);
-    reset();
+    try {
+      renderThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
 
-    return this;
+    renderThread = null;
   }
 
-  public AnsiOutput print(int integer) {
-    out.print(integer);
+  private void renderLoop() {
+    while (running) {
+      renderFrame(false);
+      LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(FRAME_MILLIS));
+    }
 
-    return this;
+    renderFrame(true);
   }
 
-  public AnsiOutput print(Color foregroundColor, int integer) {
-    color(foregroundColor.foregroundCode, foregroundColor.foregroundIntensity);
-    print(integer);
-    reset();
+  private void renderFrame(boolean last) {
+    boolean spinnerStep = 0 == frame++ % FRAMES_PER_SPINNER_STEP;
+    boolean redrawSpinner = DECORATED && (spinnerStep || activeWorkersChanged);
 
-    return this;
-  }
+    if (pendingBlocks.isEmpty() && !redrawSpinner && !last) {
+      return;
+    }
 
-  public AnsiOutput print(Color foregroundColor, Color backgroundColor, int integer) {
-    color(foregroundColor.foregroundCode, foregroundColor.foregroundIntensity);
-    color(backgroundColor.backgroundCode, backgroundColor.backgroundIntensity);
-    print(integer);
-    reset();
+    StringBuilder buffer = new StringBuilder();
+    deleteSpinner(buffer);
 
-    return this;
-  }
+    String block;
+    while (null != (block = pendingBlocks.poll())) {
+      buffer.append(block);
+    }
 
-  public synchronized void addActiveWorker(String label, String activity) {
-    activeWorkers.put(label, activity);
-  }
+    if (!last) {
+      drawSpinner(buffer, spinnerStep);
+    }
 
-  public synchronized void removeActiveWorker(String label) {
-    activeWorkers.remove(label);
+    out.print(buffer);
+    out.flush();
   }
 
-  public synchronized AnsiOutput rotateSpinner() {
-    deleteSpinner();
+  private void drawSpinner(StringBuilder buffer, boolean spinnerStep) {
+    activeWorkersChanged = false;
 
     if (!DECORATED || activeWorkers.isEmpty()) {
-      return this;
+      return;
     }
 
     int localSpinnerIndex = spinnerIndex;
-    for (Map.Entry<String, String> entry : activeWorkers.entrySet()) {
-      String label = entry.getKey();
-      String activity = entry.getValue();
-
-      out.print(" (");
-      out.print(spinnerCharacters[localSpinnerIndex]);
-      out.print(") ");
-      out.print(label);
-      out.print(": ");
-      out.println(activity);
+    for (Map.Entry<String, String> entry : new TreeMap<>(activeWorkers).entrySet()) {
+      buffer
+          .append(" (")
+          .append(spinnerCharacters[localSpinnerIndex])
+          .append(") ")
+          .append(entry.getKey())
+          .append(": ")
+          .append(entry.getValue())
+          .append(System.lineSeparator());
 
       localSpinnerIndex = (localSpinnerIndex + 1) % spinnerCharacters.length;
       writtenLines++;
     }
 
-    spinnerIndex = (spinnerIndex + 1) % spinnerCharacters.length;
-
-    return this;
+    if (spinnerStep) {
+      spinnerIndex = (spinnerIndex + 1) % spinnerCharacters.length;
+    }
   }
 
-  public synchronized AnsiOutput deleteSpinner() {
+  private void deleteSpinner(StringBuilder buffer) {
     if (!DECORATED || 0 == writtenLines) {
-      return this;
+      return;
     }
 
     // restore cursor position
-    out.print(ESCAPE);
-    out.print("[" + writtenLines + "A"); // cursor up
+    buffer.append(ESCAPE).append("[").append(writtenLines).append("A"); // cursor up
 
     // clear from cursor
-    out.print(ESCAPE);
-    out.print("[J"); // erase down
+    buffer.append(ESCAPE).append("[J"); // erase down
 
     writtenLines = 0;
-
-    return this;
-  }
-
-  private void color(int code, int intensity) {
-    if (!DECORATED) {
-      return;
-    }
-
-    out.print(ESCAPE);
-    out.print('[');
-    out.print(intensity);
-    out.print(';');
-    out.print(code);
-    out.print('m');
-  }
-
-  private void reset() {
-    if (!DECORATED) {
-      return;
-    }
-
-    out.print(ESCAPE);
-    out.print("[0m");
   }
 }
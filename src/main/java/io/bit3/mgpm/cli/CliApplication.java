@@ -1,109 +1,593 @@
 package io.bit3.mgpm.cli;
 
 import io.bit3.mgpm.cmd.Args;
+import io.bit3.mgpm.cmd.OutputFormat;
 import io.bit3.mgpm.config.Config;
+import io.bit3.mgpm.config.MirrorConfig;
 import io.bit3.mgpm.config.RepositoryConfig;
+import io.bit3.mgpm.config.SelectionConfig;
+import io.bit3.mgpm.journal.JournalRecovery;
+import io.bit3.mgpm.journal.JournalState;
+import io.bit3.mgpm.journal.JournalWorkerObserver;
+import io.bit3.mgpm.journal.ProgressJournal;
+import io.bit3.mgpm.json.JsonWriter;
+import io.bit3.mgpm.shard.ShardRing;
+import io.bit3.mgpm.snapshot.SnapshotHistory;
+import io.bit3.mgpm.snapshot.SnapshotMerger;
+import io.bit3.mgpm.snapshot.SnapshotReader;
+import io.bit3.mgpm.snapshot.SnapshotWriter;
 import io.bit3.mgpm.worker.AbstractWorkerObserver;
 import io.bit3.mgpm.worker.Activity;
+import io.bit3.mgpm.worker.BranchResult;
 import io.bit3.mgpm.worker.FromToIsh;
+import io.bit3.mgpm.worker.GitProcessException;
+import io.bit3.mgpm.worker.GitRunner;
 import io.bit3.mgpm.worker.LoggingWorkerObserver;
+import io.bit3.mgpm.worker.MirrorCache;
+import io.bit3.mgpm.worker.RemoteHostGuard;
+import io.bit3.mgpm.worker.RepositoryResult;
+import io.bit3.mgpm.worker.ResultSpool;
+import io.bit3.mgpm.worker.SubmoduleCache;
+import io.bit3.mgpm.worker.TagResult;
 import io.bit3.mgpm.worker.Update;
 import io.bit3.mgpm.worker.Upstream;
 import io.bit3.mgpm.worker.Worker;
+import io.bit3.mgpm.worker.WorkerObserver;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.net.URI;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 public class CliApplication {
+  private static final String JOURNAL_FILE_NAME = "journal";
+
   private final Logger logger = LoggerFactory.getLogger(CliApplication.class);
   private final Args args;
   private final Config config;
+  private final RemoteHostGuard remoteHostGuard;
+  private final Iterable<RepositoryConfig> repositories;
   private final AnsiOutput output;
+  private final List<WorkerObserver> observers = new LinkedList<>();
 
   public CliApplication(Args args, Config config) {
+    this(args, config, new RemoteHostGuard(config.getGitConfig().getRetries()));
+  }
+
+  public CliApplication(Args args, Config config, RemoteHostGuard remoteHostGuard) {
+    this(args, config, remoteHostGuard, config.getRepositories());
+  }
+
+  /**
+   * @param repositories The repositories to process, e.g. a {@link io.bit3.mgpm.config.RepositoryStream} still
+   *                     being read, workers are started as they become available.
+   */
+  public CliApplication(Args args, Config config, RemoteHostGuard remoteHostGuard,
+                        Iterable<RepositoryConfig> repositories) {
     this.args = args;
     this.config = config;
+    this.remoteHostGuard = remoteHostGuard;
+    this.repositories = repositories;
     this.output = AnsiOutput.getInstance();
   }
 
-  public void run() {
-    List<File> knownDirectories = new LinkedList<>();
+  /**
+   * Register an additional observer on every worker of the next run.
+   */
+  public void registerObserver(WorkerObserver observer) {
+    observers.add(observer);
+  }
+
+  public void unregisterObserver(WorkerObserver observer) {
+    observers.remove(observer);
+  }
 
+  /**
+   * The mirror cache of the config, null if mirrors are not configured.
+   */
+  static MirrorCache createMirrorCache(Config config) {
+    MirrorConfig mirrorConfig = config.getMirrorConfig();
+
+    if (!mirrorConfig.isEnabled()) {
+      return null;
+    }
+
+    return new MirrorCache(mirrorConfig.getDirectory(), mirrorConfig.getInterval());
+  }
+
+  public void run() {
     ExecutorService executor = Executors.newFixedThreadPool(args.getThreads());
+    boolean ndjson = OutputFormat.NDJSON == args.getOutputFormat();
+    NdjsonOutput ndjsonOutput = ndjson ? new NdjsonOutput(System.out) : null;
+    boolean showTimings = args.isShowTimings() && !ndjson;
+    boolean persistResults = args.hasSnapshotFile() || 0 < args.getHistorySize();
+    ResultSpool resultSpool = showTimings || persistResults ? createResultSpool() : null;
+    SubmoduleCache submoduleCache = new SubmoduleCache(
+        Paths.get(SnapshotHistory.DIRECTORY_NAME, "submodules").toAbsolutePath().toFile()
+    );
+    MirrorCache mirrorCache = createMirrorCache(config);
+    // bound the amount of workers alive at once, instead of queueing one worker per repository
+    Semaphore workerPermits = new Semaphore(2 * args.getThreads());
+
+    if (ndjson) {
+      ndjsonOutput.start();
+    } else {
+      output.start();
+    }
 
-    for (final RepositoryConfig repositoryConfig : config.getRepositories()) {
-      knownDirectories.add(repositoryConfig.getDirectory());
+    Path journalPath = Paths.get(SnapshotHistory.DIRECTORY_NAME, JOURNAL_FILE_NAME + shardSuffix());
+    JournalState journalState = readJournal(journalPath);
+    boolean resume = args.isResume() && journalState.isInterrupted();
+    Set<String> finishedPathNames = resume ? journalState.getFinishedPathNames() : Collections.emptySet();
+
+    Map<String, JournalState.RepositoryState> interruptedRepositories = journalState.getInterruptedRepositories()
+        .stream()
+        .collect(Collectors.toMap(JournalState.RepositoryState::getPathName, state -> state));
+    JournalRecovery recovery = new JournalRecovery(new GitRunner(config.getGitConfig().getBinary()));
+
+    ProgressJournal journal = openJournal(journalPath, resume);
+    RepositorySelection selection = createSelection();
+    int selectedRepositories = 0;
+    int knownRepositories = 0;
+    RuntimeException loadFailure = null;
+
+    try {
+      for (final RepositoryConfig repositoryConfig : selectRepositories()) {
+        JournalState.RepositoryState interruptedState = interruptedRepositories.get(repositoryConfig.getPathName());
+        if (null != interruptedState) {
+          recoverInterruptedRepository(recovery, repositoryConfig, interruptedState, ndjsonOutput);
+        }
+
+        knownRepositories++;
+        if (!selection.test(repositoryConfig)) {
+          continue;
+        }
+        selectedRepositories++;
 
-      Worker worker = new Worker(config, repositoryConfig, args.isDoInit(), args.isDoUpdate());
-      worker.registerObserver(new LoggingWorkerObserver(output));
-      worker.registerObserver(new CliWorkerObserver());
-      executor.submit(worker);
+        if (finishedPathNames.contains(repositoryConfig.getPathName())) {
+          continue;
+        }
+
+        try {
+          workerPermits.acquire();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+
+        Worker worker = new Worker(config, repositoryConfig, args.isDoInit(), args.isDoUpdate(), submoduleCache,
+            remoteHostGuard, mirrorCache);
+        if (ndjson) {
+          worker.registerObserver(new NdjsonWorkerObserver(ndjsonOutput));
+        } else {
+          worker.registerObserver(new LoggingWorkerObserver(output));
+          worker.registerObserver(new CliWorkerObserver());
+        }
+        observers.forEach(worker::registerObserver);
+        if (null != resultSpool) {
+          worker.registerObserver(new SpoolWorkerObserver(resultSpool));
+        }
+        if (null != journal) {
+          worker.registerObserver(new JournalWorkerObserver(journal));
+        }
+        executor.submit(() -> {
+          try {
+            worker.run();
+          } finally {
+            workerPermits.release();
+          }
+        });
+      }
+    } catch (RuntimeException e) {
+      // the config could not be read completely, the workers already started are finished first
+      loadFailure = e;
+    } finally {
+      closeSelection(selection);
+    }
+
+    if (selection.isActive()) {
+      logger.info("selected {} of {} repositories", selectedRepositories, knownRepositories);
+    }
+
+    // the scan only reads the workspace, it runs alongside the workers, once all repositories are known
+    CompletableFuture<List<String>> superfluousPaths = null;
+    if (args.isShowStatus() && !args.isOmitSuperfluousWarnings() && null == loadFailure) {
+      List<File> knownDirectories = config.getRepositories()
+          .stream()
+          .map(RepositoryConfig::getDirectory)
+          .collect(Collectors.toList());
+      SuperfluousScanner scanner = new SuperfluousScanner(knownDirectories, config.getIgnoredPaths());
+      superfluousPaths = CompletableFuture.supplyAsync(scanner::scan);
     }
+
     executor.shutdown();
 
-    while (!executor.isTerminated()) {
-      synchronized (output) {
-        output.rotateSpinner();
+    try {
+      while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+        // wait for all workers
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
 
-      try {
-        Thread.sleep(200);
-      } catch (InterruptedException e) {
-        break;
+    if (null != journal) {
+      closeJournal(journal, !Thread.currentThread().isInterrupted() && null == loadFailure);
+    }
+
+    TimingSummary timingSummary = showTimings ? new TimingSummary(10) : null;
+
+    if (null != resultSpool) {
+      // a resumed run only processed the repositories left over, its results are never complete
+      processResults(resultSpool, timingSummary, persistResults, selection.isActive() || resume);
+    }
+
+    if (ndjson) {
+      if (null != superfluousPaths) {
+        submitSuperfluousDirectories(ndjsonOutput, superfluousPaths.join());
       }
+
+      ndjsonOutput.close();
+
+      if (null != loadFailure) {
+        throw loadFailure;
+      }
+      return;
+    }
+
+    if (null != superfluousPaths) {
+      printSuperfluousDirectories(superfluousPaths.join());
+    }
+
+    if (null != timingSummary) {
+      timingSummary.print(output);
     }
 
-    output.deleteSpinner();
+    output.stop();
 
-    if (args.isShowStatus() && !args.isOmitSuperfluousWarnings()) {
-      printSuperfluousDirectories(knownDirectories);
+    if (null != loadFailure) {
+      throw loadFailure;
     }
   }
 
-  private void printSuperfluousDirectories(List<File> knownDirectories) {
-    Set<File> parentDirectories = knownDirectories
+  /**
+   * The repositories of this run, only those assigned to the shard of this node if sharded.
+   */
+  private Iterable<RepositoryConfig> selectRepositories() {
+    if (!args.isSharded()) {
+      return this.repositories;
+    }
+
+    // the assignment depends on all repositories
+    List<RepositoryConfig> repositories = new LinkedList<>();
+    this.repositories.forEach(repositories::add);
+
+    Map<String, Integer> assignment = new ShardRing(args.getShardCount()).assign(
+        repositories.stream().map(RepositoryConfig::getPathName).collect(Collectors.toList()),
+        readShardCosts()
+    );
+
+    List<RepositoryConfig> selected = repositories
         .stream()
-        .map(File::getParentFile)
-        .collect(Collectors.toCollection(TreeSet::new));
-    Set<File> seenFiles = new TreeSet<>();
+        .filter(repositoryConfig -> args.getShardIndex() == assignment.get(repositoryConfig.getPathName()))
+        .collect(Collectors.toList());
+
+    logger.info("shard {}/{} processes {} of {} repositories", args.getShardIndex(), args.getShardCount(),
+        selected.size(), repositories.size());
+
+    return selected;
+  }
+
+  /**
+   * The selection of the command line, each criterion given there replaces the one of the config.
+   */
+  private RepositorySelection createSelection() {
+    SelectionConfig configSelection = config.getSelectionConfig();
+    SelectionConfig selectionConfig = new SelectionConfig();
+    selectionConfig.setPaths(args.getSelectPaths().isEmpty() ? configSelection.getPaths() : args.getSelectPaths());
+    selectionConfig.setSources(
+        args.getSelectSources().isEmpty() ? configSelection.getSources() : args.getSelectSources());
+    selectionConfig.setLabels(
+        args.getSelectLabels().isEmpty() ? configSelection.getLabels() : args.getSelectLabels());
+    selectionConfig.setDirty(args.isSelectDirty() || configSelection.isDirty());
+    selectionConfig.setBehind(args.isSelectBehind() || configSelection.isBehind());
+
+    SnapshotReader status = null;
+    if (selectionConfig.isDirty() || selectionConfig.isBehind()) {
+      try {
+        List<Path> snapshots = createHistory().list();
+
+        if (snapshots.isEmpty()) {
+          logger.warn("no snapshot of a previous run, dirty and behind select all repositories");
+        } else {
+          status = new SnapshotReader(snapshots.get(snapshots.size() - 1));
+        }
+      } catch (IOException e) {
+        logger.error("could not read the last snapshot, dirty and behind select all repositories: "
+            + e.getMessage(), e);
+      }
+    }
+
+    return new RepositorySelection(selectionConfig, status);
+  }
+
+  private void closeSelection(RepositorySelection selection) {
+    try {
+      selection.close();
+    } catch (IOException e) {
+      logger.warn("could not close the last snapshot: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * The durations of the repositories in the cost snapshot, empty weights all repositories equally.
+   */
+  private Map<String, Long> readShardCosts() {
+    Map<String, Long> costs = new HashMap<>();
+
+    if (!args.hasShardCosts()) {
+      return costs;
+    }
+
+    try (SnapshotReader reader = new SnapshotReader(args.getShardCosts().toPath())) {
+      for (int index = 0; index < reader.size(); index++) {
+        costs.put(reader.getPathName(index), reader.read(index).getDurationNanos());
+      }
+    } catch (IOException e) {
+      // the assignment only matches the other nodes, if they fail alike
+      logger.error("could not read shard costs, weighting all repositories equally: " + e.getMessage(), e);
+      costs.clear();
+    }
+
+    return costs;
+  }
+
+  /**
+   * Shards of the same workspace keep separate histories, a partial run is no baseline for a full one.
+   */
+  private SnapshotHistory createHistory() {
+    return args.isSharded()
+        ? new SnapshotHistory(Paths.get(SnapshotHistory.DIRECTORY_NAME, "runs" + shardSuffix()).toAbsolutePath())
+        : new SnapshotHistory();
+  }
+
+  private String shardSuffix() {
+    return args.isSharded() ? String.format("-%d-of-%d", args.getShardIndex(), args.getShardCount()) : "";
+  }
+
+  private JournalState readJournal(Path journalPath) {
+    try {
+      return JournalState.read(journalPath);
+    } catch (IOException e) {
+      logger.error("could not read progress journal: " + e.getMessage(), e);
+      return new JournalState();
+    }
+  }
 
-    for (File parentDirectory : parentDirectories) {
-      File[] files = parentDirectory.listFiles();
-      if (null != files)
-        Collections.addAll(seenFiles, files);
+  private ProgressJournal openJournal(Path journalPath, boolean resume) {
+    try {
+      return new ProgressJournal(journalPath, resume);
+    } catch (IOException e) {
+      logger.error("could not open progress journal: " + e.getMessage(), e);
+      return null;
     }
+  }
 
-    // remove known directories (=> directories with managed repositories) from seen files
-    seenFiles.removeAll(knownDirectories);
+  private void closeJournal(ProgressJournal journal, boolean finished) {
+    try (ProgressJournal closing = journal) {
+      if (finished) {
+        closing.finish();
+      }
+    } catch (IOException e) {
+      logger.error("could not close progress journal: " + e.getMessage(), e);
+    }
+  }
 
-    // remove mgpm.yml from seen files
-    seenFiles = seenFiles.stream().filter(f -> !"mgpm.yml".equals(f.getName())).collect(Collectors.toSet());
+  /**
+   * Undo the half done work of a repository the interrupted run never finished.
+   */
+  private void recoverInterruptedRepository(JournalRecovery recovery, RepositoryConfig repositoryConfig,
+                                            JournalState.RepositoryState state, NdjsonOutput ndjsonOutput) {
+    List<String> steps;
+    try {
+      steps = recovery.recover(repositoryConfig, state);
+    } catch (GitProcessException e) {
+      logger.error("[{}] could not recover interrupted run: {}", state.getPathName(), e.getMessage());
+      return;
+    }
 
-    URI workingDirectory = Paths.get(".").toAbsolutePath().normalize().toUri();
-    for (File file : seenFiles) {
-      String relativePath = workingDirectory.relativize(file.toURI()).getPath();
-      relativePath = relativePath.replaceFirst("/$", "");
-      output
+    if (steps.isEmpty()) {
+      return;
+    }
+
+    if (null != ndjsonOutput) {
+      submitRecovery(ndjsonOutput, state.getPathName(), steps);
+    } else {
+      output.write(output.block()
+          .print(" * ")
+          .print(Color.YELLOW, state.getPathName())
+          .print(" ")
+          .print(Color.RED, "recovered")
+          .print(": ")
+          .print(String.join(", ", steps))
+          .println());
+    }
+  }
+
+  private void submitRecovery(NdjsonOutput ndjsonOutput, String pathName, List<String> steps) {
+    StringWriter buffer = new StringWriter();
+
+    try {
+      JsonWriter json = new JsonWriter(buffer)
+          .beginObject()
+          .name("type").value("recovery")
+          .name("repository").value(pathName)
+          .name("steps").beginArray();
+      for (String step : steps) {
+        json.value(step);
+      }
+      json.endArray().endObject();
+    } catch (IOException e) {
+      logger.error(e.getMessage(), e);
+      return;
+    }
+
+    ndjsonOutput.submit(buffer.toString());
+  }
+
+  private ResultSpool createResultSpool() {
+    try {
+      return new ResultSpool();
+    } catch (IOException e) {
+      logger.error("could not create result spool: " + e.getMessage(), e);
+      return null;
+    }
+  }
+
+  /**
+   * Stream the spooled results once into the timing summary and the snapshot, whichever is requested.
+   */
+  private void processResults(ResultSpool resultSpool, TimingSummary timingSummary, boolean persistResults,
+                              boolean selective) {
+    SnapshotHistory history = createHistory();
+    Path snapshotPath = null;
+    Path previousSnapshotPath = null;
+
+    if (persistResults) {
+      snapshotPath = 0 < args.getHistorySize() ? history.createPath() : args.getSnapshotFile().toPath();
+    }
+
+    // a selective run only covers some repositories, the others keep their last results
+    if (null != snapshotPath && selective && 0 < args.getHistorySize()) {
+      try {
+        List<Path> snapshots = history.list();
+        previousSnapshotPath = snapshots.isEmpty() ? null : snapshots.get(snapshots.size() - 1);
+      } catch (IOException e) {
+        logger.error("could not list the snapshot history: " + e.getMessage(), e);
+      }
+    }
+
+    Path writePath = null == previousSnapshotPath
+        ? snapshotPath
+        : snapshotPath.resolveSibling(snapshotPath.getFileName() + ".partial");
+
+    try (ResultSpool spool = resultSpool;
+         SnapshotWriter snapshotWriter = null == writePath ? null : new SnapshotWriter(writePath)) {
+      spool.forEach(result -> {
+        if (null != timingSummary) {
+          timingSummary.add(result);
+        }
+
+        if (null != snapshotWriter) {
+          try {
+            snapshotWriter.write(result);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+      });
+
+      if (null != snapshotWriter) {
+        snapshotWriter.complete();
+      }
+    } catch (IOException | UncheckedIOException e) {
+      logger.error("could not process run results: " + e.getMessage(), e);
+      return;
+    }
+
+    if (null == snapshotPath) {
+      return;
+    }
+
+    try {
+      if (null != previousSnapshotPath) {
+        new SnapshotMerger(Arrays.asList(previousSnapshotPath, writePath)).merge(snapshotPath);
+        Files.delete(writePath);
+      }
+
+      if (args.hasSnapshotFile() && 0 < args.getHistorySize()) {
+        Files.copy(snapshotPath, args.getSnapshotFile().toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+
+      history.prune(args.getHistorySize());
+    } catch (IOException e) {
+      logger.error("could not persist run snapshot: " + e.getMessage(), e);
+    }
+  }
+
+  private void printSuperfluousDirectories(List<String> superfluousPaths) {
+    AnsiBuffer buffer = output.block();
+
+    for (String relativePath : superfluousPaths) {
+      buffer
           .print(" * ")
           .print(Color.YELLOW, relativePath)
           .print(" ")
           .print(Color.RED, "superfluous")
           .println();
     }
+
+    output.write(buffer);
+  }
+
+  private void submitSuperfluousDirectories(NdjsonOutput ndjsonOutput, List<String> superfluousPaths) {
+    for (String relativePath : superfluousPaths) {
+      StringWriter buffer = new StringWriter();
+
+      try {
+        new JsonWriter(buffer)
+            .beginObject()
+            .name("type").value("superfluous")
+            .name("path").value(relativePath)
+            .endObject();
+      } catch (IOException e) {
+        logger.error(e.getMessage(), e);
+        continue;
+      }
+
+      ndjsonOutput.submit(buffer.toString());
+    }
+  }
+
+  private static class SpoolWorkerObserver extends AbstractWorkerObserver {
+    private final Logger logger = LoggerFactory.getLogger(SpoolWorkerObserver.class);
+    private final ResultSpool resultSpool;
+
+    private SpoolWorkerObserver(ResultSpool resultSpool) {
+      this.resultSpool = resultSpool;
+    }
+
+    @Override
+    public void end(Worker worker) {
+      // the following observers, e.g. the journal, must still see the end of the repository
+      try {
+        resultSpool.append(worker.getResult());
+      } catch (UncheckedIOException e) {
+        logger.error(String.format("[%s] could not spool the result: %s", worker.getRepositoryConfig().getPathName(),
+            e.getMessage()), e);
+      }
+    }
   }
 
   private class CliWorkerObserver extends AbstractWorkerObserver {
@@ -122,102 +606,118 @@ public class CliApplication {
       output.removeActiveWorker(worker.getRepositoryConfig().getPathName());
 
       try {
-        List<String> localBranchNames = worker.getLocalBranchNames();
-        Map<String, List<String>> remoteBranchNames = worker.getRemoteBranchNames();
+        RepositoryResult result = worker.getResult();
+        List<BranchResult> branches = result.getBranches();
+        Map<String, List<String>> remoteBranchNames = result.getRemoteBranchNames();
 
-        if (localBranchNames.isEmpty() && (!args.isShowStatus() || remoteBranchNames.isEmpty())) {
+        if (branches.isEmpty() && (!args.isShowStatus() || remoteBranchNames.isEmpty())) {
           return;
         }
 
-        Map<String, List<String>> addedRemoteBranchNames = worker.getAddedRemoteBranchNames();
-        Map<String, List<String>> deletedRemoteBranchNames = worker.getDeletedRemoteBranchNames();
-        Map<String, Upstream> branchUpstreamMap = worker.getBranchUpstreamMap();
-        Map<String, Update> branchUpdateStatus = worker.getBranchUpdateStatus();
-        Map<String, FromToIsh> branchUpdateIsh = worker.getBranchUpdateIsh();
-        Map<String, Worker.Stats> branchStats = worker.getBranchStats();
+        Map<String, List<String>> addedRemoteBranchNames = result.getAddedRemoteBranchNames();
+        Map<String, List<String>> deletedRemoteBranchNames = result.getDeletedRemoteBranchNames();
         Map<String, List<String>> remoteBranchesUsedAsUpstream = new HashMap<>();
 
-        int padding = localBranchNames.stream().mapToInt(String::length).max().orElseGet(() -> 1);
+        int padding = branches.stream().map(BranchResult::getName).mapToInt(String::length).max().orElseGet(() -> 1);
         String pattern = "%-" + padding + "s";
         boolean printDetails = true;
 
         if (!logger.isInfoEnabled()) {
           printDetails = !addedRemoteBranchNames.isEmpty()
                   || !deletedRemoteBranchNames.isEmpty()
-                  || !branchStats.values().stream().map(Worker.Stats::isEmpty).reduce(true, (a, b) -> a && b);
+                  || (null != result.getTag() && result.getTag().isCheckedOut())
+                  || !branches.stream().map(BranchResult::getStats).filter(Objects::nonNull)
+                      .map(Worker.Stats::isEmpty).reduce(true, (a, b) -> a && b);
         } else if (!logger.isWarnEnabled()) {
           // be quiet
           return;
         }
 
-        synchronized (output) {
-          if (!printDetails) {
-            return;
-          }
+        if (!printDetails) {
+          return;
+        }
 
-          output.deleteSpinner();
+        AnsiBuffer buffer = output.block();
 
-          output
-              .print(" * ")
-              .print(Color.YELLOW, worker.getRepositoryConfig().getPathName())
-              .println();
+        buffer
+            .print(" * ")
+            .print(Color.YELLOW, result.getPathName())
+            .println();
 
-          for (String branchName : localBranchNames) {
-            Upstream upstream = branchUpstreamMap.get(branchName);
-            Update update = branchUpdateStatus.get(branchName);
-            Worker.Stats stats = branchStats.get(branchName);
-            String headSymbolicRef = worker.getHeadSymbolicRef();
+        printTag(buffer, result.getTag());
 
-            if (null != upstream) {
-              List<String> branches = remoteBranchesUsedAsUpstream.get(upstream.getRemoteName());
+        for (BranchResult branch : branches) {
+          Upstream upstream = branch.getUpstream();
 
-              if (null == branches) {
-                branches = new LinkedList<>();
-                remoteBranchesUsedAsUpstream.put(upstream.getRemoteName(), branches);
-              }
+          if (null != upstream) {
+            List<String> upstreamBranches = remoteBranchesUsedAsUpstream.get(upstream.getRemoteName());
 
-              branches.add(upstream.getRemoteBranch());
+            if (null == upstreamBranches) {
+              upstreamBranches = new LinkedList<>();
+              remoteBranchesUsedAsUpstream.put(upstream.getRemoteName(), upstreamBranches);
             }
 
-            printBranchName(pattern, branchName, headSymbolicRef);
-            printBranchUpstream(remoteBranchNames, upstream);
-            printBranchUpdate(branchName, update, branchUpdateIsh);
-            printBranchStats(stats);
-
-            output.println();
+            upstreamBranches.add(upstream.getRemoteBranch());
           }
 
-          if (args.isShowStatus()) {
-            printRemoteBranches(pattern, remoteBranchNames, addedRemoteBranchNames, deletedRemoteBranchNames, remoteBranchesUsedAsUpstream);
-          }
+          printBranchName(buffer, pattern, branch.getName(), result.getHeadSymbolicRef());
+          printBranchUpstream(buffer, upstream);
+          printBranchUpdate(buffer, branch.getUpdate(), branch.getUpdateIsh());
+          printBranchStats(buffer, branch.getStats());
+
+          buffer.println();
+        }
 
-          output.println();
+        if (args.isShowStatus()) {
+          printRemoteBranches(buffer, pattern, remoteBranchNames, addedRemoteBranchNames, deletedRemoteBranchNames, remoteBranchesUsedAsUpstream);
         }
+
+        buffer.println();
+        output.write(buffer);
       } catch (Exception exception) {
         logger.error(exception.getMessage(), exception);
       }
     }
 
-    private void printBranchName(String pattern, String branchName, String headSymbolicRef) {
-      output.print("   ");
+    private void printTag(AnsiBuffer buffer, TagResult tag) {
+      if (null == tag) {
+        return;
+      }
+
+      buffer
+          .print("   ")
+          .print(Color.BLUE, "# ")
+          .print(tag.getName());
+
+      if (tag.isCheckedOut()) {
+        buffer.print(Color.GREEN, " checked out");
+      } else {
+        buffer.print(Color.DARK_GRAY, " up to date");
+      }
+
+      buffer.println();
+    }
+
+    private void printBranchName(AnsiBuffer buffer, String pattern, String branchName, String headSymbolicRef) {
+      buffer.print("   ");
 
       boolean isHead = branchName.equals(headSymbolicRef);
       if (isHead) {
-        output.print(Color.BLUE, "> ");
+        buffer.print(Color.BLUE, "> ");
       } else {
-        output.print("  ");
+        buffer.print("  ");
       }
 
-      output.print(pattern, branchName);
+      buffer.print(pattern, branchName);
     }
 
-    private void printBranchUpstream(Map<String, List<String>> remoteBranchNames, Upstream upstream) {
+    private void printBranchUpstream(AnsiBuffer buffer, Upstream upstream) {
       if (null != upstream) {
-        output.print(Color.DARK_GRAY, " → %s", upstream.getRemoteRef());
+        buffer.print(Color.DARK_GRAY, " → %s", upstream.getRemoteRef());
       }
     }
 
-    private void printBranchUpdate(String branchName, Update update, Map<String, FromToIsh> branchUpdateIsh) {
+    private void printBranchUpdate(AnsiBuffer buffer, Update update, FromToIsh fromToIsh) {
       if (null != update) {
         Color color = Color.YELLOW;
         switch (update) {
@@ -236,15 +736,14 @@ public class CliApplication {
             break;
         }
 
-        output
+        buffer
             .print(" ")
             .print(color, update.toString().toLowerCase().replace('_', ' '));
 
         switch (update) {
           case MERGED_FAST_FORWARD:
           case REBASED:
-            FromToIsh fromToIsh = branchUpdateIsh.get(branchName);
-            output
+            buffer
                 .print(" ")
                 .print(fromToIsh.getFrom().substring(0, 8))
                 .print("..")
@@ -253,55 +752,55 @@ public class CliApplication {
       }
     }
 
-    private void printBranchStats(Worker.Stats stats) {
+    private void printBranchStats(AnsiBuffer buffer, Worker.Stats stats) {
       if (null != stats) {
         if (0 == stats.getCommitsBehind() && 0 == stats.getCommitsAhead() && stats.isClean()) {
-          output.print(Color.GREEN, "  ✔");
+          buffer.print(Color.GREEN, "  ✔");
         }
 
         if (stats.getCommitsBehind() > 0) {
-          output.print(Color.CYAN, "  ↓");
-          output.print(Color.CYAN, stats.getCommitsBehind());
+          buffer.print(Color.CYAN, "  ↓");
+          buffer.print(Color.CYAN, stats.getCommitsBehind());
         }
 
         if (stats.getCommitsAhead() > 0) {
-          output.print(Color.CYAN, "  ↑");
-          output.print(Color.CYAN, stats.getCommitsAhead());
+          buffer.print(Color.CYAN, "  ↑");
+          buffer.print(Color.CYAN, stats.getCommitsAhead());
         }
 
         if (stats.getAdded() > 0) {
-          output.print(Color.RED, "  +");
-          output.print(Color.RED, stats.getAdded());
+          buffer.print(Color.RED, "  +");
+          buffer.print(Color.RED, stats.getAdded());
         }
 
         if (stats.getModified() > 0) {
-          output.print(Color.YELLOW, "  ★");
-          output.print(Color.YELLOW, stats.getModified());
+          buffer.print(Color.YELLOW, "  ★");
+          buffer.print(Color.YELLOW, stats.getModified());
         }
 
         if (stats.getRenamed() > 0) {
-          output.print(Color.MAGENTA, "  ⇄");
-          output.print(Color.MAGENTA, stats.getRenamed());
+          buffer.print(Color.MAGENTA, "  ⇄");
+          buffer.print(Color.MAGENTA, stats.getRenamed());
         }
 
         if (stats.getCopied() > 0) {
-          output.print(Color.MAGENTA, "  ↷");
-          output.print(Color.MAGENTA, stats.getCopied());
+          buffer.print(Color.MAGENTA, "  ↷");
+          buffer.print(Color.MAGENTA, stats.getCopied());
         }
 
         if (stats.getDeleted() > 0) {
-          output.print(Color.MAGENTA, "  -");
-          output.print(Color.MAGENTA, stats.getDeleted());
+          buffer.print(Color.MAGENTA, "  -");
+          buffer.print(Color.MAGENTA, stats.getDeleted());
         }
 
         if (stats.getUnmerged() > 0) {
-          output.print(Color.RED, "  ☠");
-          output.print(Color.RED, stats.getUnmerged());
+          buffer.print(Color.RED, "  ☠");
+          buffer.print(Color.RED, stats.getUnmerged());
         }
       }
     }
 
-    private void printRemoteBranches(String pattern, Map<String, List<String>> remoteBranchNames, Map<String, List<String>> addedRemoteBranchNames, Map<String, List<String>> deletedRemoteBranchNames, Map<String, List<String>> remoteBranchesUsedAsUpstream) {
+    private void printRemoteBranches(AnsiBuffer buffer, String pattern, Map<String, List<String>> remoteBranchNames, Map<String, List<String>> addedRemoteBranchNames, Map<String, List<String>> deletedRemoteBranchNames, Map<String, List<String>> remoteBranchesUsedAsUpstream) {
       for (Map.Entry<String, List<String>> entry : remoteBranchNames.entrySet()) {
         String remoteName = entry.getKey();
         List<String> currentBranchNames = entry.getValue();
@@ -325,7 +824,7 @@ public class CliApplication {
             continue;
           }
 
-          output
+          buffer
               .print("   ")
               .print(Color.DARK_GRAY, pattern, remoteName + "/" + remoteBranch);
 
@@ -336,12 +835,12 @@ public class CliApplication {
               && deletedBranchNames.contains(remoteBranch);
 
           if (wasAdded) {
-            output.print(Color.GREEN, " (added)");
+            buffer.print(Color.GREEN, " (added)");
           } else if (wasDeleted) {
-            output.print(Color.RED, " (removed)");
+            buffer.print(Color.RED, " (removed)");
           }
 
-          output.println();
+          buffer.println();
         }
       }
     }
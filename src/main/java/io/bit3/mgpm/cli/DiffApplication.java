@@ -0,0 +1,202 @@
+package io.bit3.mgpm.cli;
+
+import io.bit3.mgpm.cmd.Args;
+import io.bit3.mgpm.cmd.OutputFormat;
+import io.bit3.mgpm.json.JsonWriter;
+import io.bit3.mgpm.snapshot.RepositoryDiff;
+import io.bit3.mgpm.snapshot.SnapshotDiff;
+import io.bit3.mgpm.snapshot.SnapshotHistory;
+import io.bit3.mgpm.snapshot.SnapshotReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Report the changes between two run snapshots, without touching any repository.
+ */
+public class DiffApplication {
+  private final Logger logger = LoggerFactory.getLogger(DiffApplication.class);
+  private final Args args;
+
+  public DiffApplication(Args args) {
+    this.args = args;
+  }
+
+  public void run() {
+    List<Path> snapshots;
+
+    try {
+      snapshots = resolveSnapshots();
+    } catch (IOException e) {
+      logger.error("could not list run history: " + e.getMessage(), e);
+      return;
+    }
+
+    if (2 > snapshots.size()) {
+      System.err.println("There are less than two runs in the history, nothing to compare.");
+      return;
+    }
+
+    try (SnapshotReader from = new SnapshotReader(snapshots.get(0));
+         SnapshotReader to = new SnapshotReader(snapshots.get(1))) {
+      SnapshotDiff diff = new SnapshotDiff(from, to);
+
+      if (OutputFormat.NDJSON == args.getOutputFormat()) {
+        writeNdjson(diff);
+      } else {
+        print(diff);
+      }
+    } catch (IOException | UncheckedIOException e) {
+      logger.error("could not compare snapshots: " + e.getMessage(), e);
+    }
+  }
+
+  private List<Path> resolveSnapshots() throws IOException {
+    if (!args.getDiffSnapshots().isEmpty()) {
+      return args.getDiffSnapshots().stream().map(file -> file.toPath()).collect(Collectors.toList());
+    }
+
+    List<Path> history = new SnapshotHistory().list();
+    return history.subList(Math.max(0, history.size() - 2), history.size());
+  }
+
+  private void print(SnapshotDiff diff) {
+    AnsiOutput output = AnsiOutput.getInstance();
+    output.start();
+
+    try {
+      diff.forEach(repositoryDiff -> {
+        AnsiBuffer buffer = output.block();
+        printRepository(buffer, repositoryDiff);
+        output.write(buffer);
+      });
+    } finally {
+      output.stop();
+    }
+  }
+
+  private void printRepository(AnsiBuffer buffer, RepositoryDiff diff) {
+    buffer.print(Color.YELLOW, diff.getPathName());
+
+    switch (diff.getChange()) {
+      case ADDED:
+        buffer.print(" ").print(Color.GREEN, "new repository").println();
+        return;
+      case REMOVED:
+        buffer.print(" ").print(Color.RED, "repository gone").println();
+        return;
+      default:
+        buffer.println();
+    }
+
+    for (String branchName : diff.getAddedBranches()) {
+      buffer.print("   ").print(Color.CYAN, branchName).print(" ").print(Color.GREEN, "(added)").println();
+    }
+
+    for (String branchName : diff.getRemovedBranches()) {
+      buffer.print("   ").print(Color.CYAN, branchName).print(" ").print(Color.RED, "(removed)").println();
+    }
+
+    for (RepositoryDiff.BehindChange behindChange : diff.getBehindChanges()) {
+      buffer
+          .print("   ")
+          .print(Color.CYAN, behindChange.getBranchName())
+          .print(" behind ")
+          .print(behindChange.getBefore())
+          .print(" -> ")
+          .print(Color.RED, behindChange.getAfter())
+          .println();
+    }
+
+    for (String branchName : diff.getConflictingBranches()) {
+      buffer.print("   ").print(Color.CYAN, branchName).print(" ").print(Color.RED, "conflicting").println();
+    }
+
+    printRemoteBranches(buffer, diff.getAddedRemoteBranches(), Color.GREEN, "(added)");
+    printRemoteBranches(buffer, diff.getRemovedRemoteBranches(), Color.RED, "(removed)");
+  }
+
+  private void printRemoteBranches(AnsiBuffer buffer, Map<String, List<String>> remoteBranchNames, Color color,
+                                   String label) {
+    for (Map.Entry<String, List<String>> entry : remoteBranchNames.entrySet()) {
+      for (String branchName : entry.getValue()) {
+        buffer
+            .print("   ")
+            .print(Color.DARK_GRAY, entry.getKey() + "/" + branchName)
+            .print(" ")
+            .print(color, label)
+            .println();
+      }
+    }
+  }
+
+  private void writeNdjson(SnapshotDiff diff) throws IOException {
+    Writer writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+
+    diff.forEach(repositoryDiff -> {
+      try {
+        writeRepository(new JsonWriter(writer), repositoryDiff);
+        writer.write('\n');
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+
+    writer.flush();
+  }
+
+  private void writeRepository(JsonWriter json, RepositoryDiff diff) throws IOException {
+    json
+        .beginObject()
+        .name("type").value("diff")
+        .name("path").value(diff.getPathName())
+        .name("change").value(diff.getChange().name().toLowerCase());
+
+    writeStrings(json, "addedBranches", diff.getAddedBranches());
+    writeStrings(json, "removedBranches", diff.getRemovedBranches());
+    writeStrings(json, "conflictingBranches", diff.getConflictingBranches());
+
+    json.name("behind").beginArray();
+    for (RepositoryDiff.BehindChange behindChange : diff.getBehindChanges()) {
+      json
+          .beginObject()
+          .name("branch").value(behindChange.getBranchName())
+          .name("before").value(behindChange.getBefore())
+          .name("after").value(behindChange.getAfter())
+          .endObject();
+    }
+    json.endArray();
+
+    writeRemoteBranches(json, "addedRemoteBranches", diff.getAddedRemoteBranches());
+    writeRemoteBranches(json, "removedRemoteBranches", diff.getRemovedRemoteBranches());
+
+    json.endObject().flush();
+  }
+
+  private void writeStrings(JsonWriter json, String name, List<String> values) throws IOException {
+    json.name(name).beginArray();
+    for (String value : values) {
+      json.value(value);
+    }
+    json.endArray();
+  }
+
+  private void writeRemoteBranches(JsonWriter json, String name, Map<String, List<String>> remoteBranchNames)
+      throws IOException {
+    json.name(name).beginObject();
+    for (Map.Entry<String, List<String>> entry : remoteBranchNames.entrySet()) {
+      writeStrings(json, entry.getKey(), entry.getValue());
+    }
+    json.endObject();
+  }
+}
@@ -0,0 +1,106 @@
+package io.bit3.mgpm.cli;
+
+import io.bit3.mgpm.cmd.Args;
+import io.bit3.mgpm.cmd.OutputFormat;
+import io.bit3.mgpm.config.Config;
+import io.bit3.mgpm.json.JsonWriter;
+import io.bit3.mgpm.maintenance.MaintenanceResult;
+import io.bit3.mgpm.maintenance.MaintenanceTask;
+import io.bit3.mgpm.maintenance.Maintainer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.stream.Collectors;
+
+/**
+ * Maintain the object databases of all repositories and report the due tasks and reclaimed space.
+ */
+public class MaintenanceApplication {
+  private final Logger logger = LoggerFactory.getLogger(MaintenanceApplication.class);
+  private final Args args;
+  private final Config config;
+  private int maintainedRepositories = 0;
+  private long reclaimedBytes = 0;
+
+  public MaintenanceApplication(Args args, Config config) {
+    this.args = args;
+    this.config = config;
+  }
+
+  public void run() {
+    if (OutputFormat.NDJSON == args.getOutputFormat()) {
+      NdjsonOutput output = new NdjsonOutput(System.out);
+      output.start();
+      new Maintainer(config).run(result -> submit(output, result));
+      output.close();
+      return;
+    }
+
+    AnsiOutput output = AnsiOutput.getInstance();
+    output.start();
+
+    new Maintainer(config).run(result -> print(output, result));
+
+    if (0 < maintainedRepositories) {
+      output.write(output.block()
+          .println(" maintained %d repositories, reclaimed %d KiB", maintainedRepositories, reclaimedBytes / 1024));
+    }
+
+    output.stop();
+  }
+
+  private void print(AnsiOutput output, MaintenanceResult result) {
+    if (result.getTasks().isEmpty() && result.isSucceed()) {
+      return;
+    }
+
+    maintainedRepositories++;
+    reclaimedBytes += result.getReclaimedBytes();
+
+    AnsiBuffer buffer = output.block()
+        .print(" * ")
+        .print(Color.YELLOW, result.getPathName())
+        .print(" ")
+        .print(Color.CYAN, result.getTasks()
+            .stream()
+            .map(MaintenanceTask::toString)
+            .map(String::toLowerCase)
+            .collect(Collectors.joining(", ")));
+
+    if (result.isSucceed()) {
+      buffer.print(" reclaimed %d KiB in %d ms", result.getReclaimedBytes() / 1024, result.getDurationNanos() / 1000000);
+    } else {
+      buffer.print(" ").print(Color.RED, result.getError());
+    }
+
+    output.write(buffer.println());
+  }
+
+  private void submit(NdjsonOutput output, MaintenanceResult result) {
+    StringWriter buffer = new StringWriter();
+
+    try {
+      JsonWriter json = new JsonWriter(buffer)
+          .beginObject()
+          .name("type").value("maintenance")
+          .name("repository").value(result.getPathName())
+          .name("tasks").beginArray();
+      for (MaintenanceTask task : result.getTasks()) {
+        json.value(task.toString().toLowerCase());
+      }
+      json.endArray()
+          .name("reclaimedBytes").value(result.getReclaimedBytes())
+          .name("durationMillis").value(result.getDurationNanos() / 1e6)
+          .name("error").value(result.getError())
+          .endObject();
+    } catch (IOException e) {
+      logger.error(e.getMessage(), e);
+      return;
+    }
+
+    output.submit(buffer.toString());
+  }
+}
@@ -0,0 +1,40 @@
+package io.bit3.mgpm.cli;
+
+import io.bit3.mgpm.cmd.Args;
+import io.bit3.mgpm.snapshot.SnapshotMerger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.stream.Collectors;
+
+/**
+ * Merge the snapshots of the shards of a run, e.g. on the coordinator of a sync fleet.
+ *
+ * <p>The merged snapshot can be compared with {@code mgpm diff} and passed back to the nodes by
+ * {@code --shard-costs}.</p>
+ */
+public class MergeApplication {
+  private final Logger logger = LoggerFactory.getLogger(MergeApplication.class);
+  private final Args args;
+
+  public MergeApplication(Args args) {
+    this.args = args;
+  }
+
+  public void run() {
+    SnapshotMerger merger = new SnapshotMerger(args.getMergeSnapshots()
+        .stream()
+        .map(File::toPath)
+        .collect(Collectors.toList()));
+
+    try {
+      int count = merger.merge(args.getMergeTarget().toPath());
+      System.out.println(String.format("Merged %d repositories into %s.", count, args.getMergeTarget()));
+    } catch (IOException e) {
+      logger.error("could not merge snapshots: " + e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,169 @@
+package io.bit3.mgpm.cli;
+
+import io.bit3.mgpm.cmd.Args;
+import io.bit3.mgpm.cmd.OutputFormat;
+import io.bit3.mgpm.config.Config;
+import io.bit3.mgpm.config.RepositoryConfig;
+import io.bit3.mgpm.json.JsonWriter;
+import io.bit3.mgpm.worker.GitProcessException;
+import io.bit3.mgpm.worker.GitRunner;
+import io.bit3.mgpm.worker.HostUnavailableException;
+import io.bit3.mgpm.worker.MirrorCache;
+import io.bit3.mgpm.worker.RemoteHostGuard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keep the bare mirrors of all repositories and their configured remotes in the shared mirror directory current.
+ *
+ * <p>Mirrors fetched within the interval, by this or any other workspace, are left alone.</p>
+ */
+public class MirrorApplication {
+  private final Logger logger = LoggerFactory.getLogger(MirrorApplication.class);
+  private final Args args;
+  private final Config config;
+  private final RemoteHostGuard remoteHostGuard;
+  private final GitRunner gitRunner;
+  private int fetchedMirrors = 0;
+  private int freshMirrors = 0;
+
+  public MirrorApplication(Args args, Config config, RemoteHostGuard remoteHostGuard) {
+    this.args = args;
+    this.config = config;
+    this.remoteHostGuard = remoteHostGuard;
+    this.gitRunner = new GitRunner(config.getGitConfig().getBinary());
+  }
+
+  public void run() {
+    MirrorCache mirrorCache = CliApplication.createMirrorCache(config);
+
+    if (null == mirrorCache) {
+      System.err.println("No mirror.directory is configured.");
+      return;
+    }
+
+    if (OutputFormat.NDJSON == args.getOutputFormat()) {
+      NdjsonOutput output = new NdjsonOutput(System.out);
+      output.start();
+      refresh(mirrorCache, (url, pathName, fetched, durationNanos, error) ->
+          submit(output, url, pathName, fetched, durationNanos, error));
+      output.close();
+      return;
+    }
+
+    AnsiOutput output = AnsiOutput.getInstance();
+    output.start();
+
+    refresh(mirrorCache, (url, pathName, fetched, durationNanos, error) ->
+        print(output, url, pathName, fetched, durationNanos, error));
+
+    output.write(output.block()
+        .println(" fetched %d mirrors, %d were fresh", fetchedMirrors, freshMirrors));
+
+    output.stop();
+  }
+
+  private void refresh(MirrorCache mirrorCache, MirrorListener listener) {
+    // repositories and remotes sharing an url share one mirror
+    Map<String, String> urls = new LinkedHashMap<>();
+    for (RepositoryConfig repositoryConfig : config.getRepositories()) {
+      urls.putIfAbsent(repositoryConfig.getUrl(), repositoryConfig.getPathName());
+
+      for (Map.Entry<String, String> remote : repositoryConfig.getRemotes().entrySet()) {
+        urls.putIfAbsent(remote.getValue(), repositoryConfig.getPathName() + " " + remote.getKey());
+      }
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(args.getThreads());
+
+    for (Map.Entry<String, String> entry : urls.entrySet()) {
+      String url = entry.getKey();
+      String pathName = entry.getValue();
+
+      executor.submit(() -> {
+        long start = System.nanoTime();
+        boolean fetched = false;
+        String error = null;
+
+        try {
+          fetched = remoteHostGuard.run(url, () -> mirrorCache.refresh(url, gitRunner), (retry, delayMillis, cause) ->
+              logger.warn("[{}] transient failure, retry {} in {} ms: {}", pathName, retry, delayMillis,
+                  cause.getMessage()));
+        } catch (GitProcessException | HostUnavailableException e) {
+          error = e.getMessage();
+        }
+
+        synchronized (listener) {
+          listener.mirrored(url, pathName, fetched, System.nanoTime() - start, error);
+        }
+      });
+    }
+    executor.shutdown();
+
+    try {
+      while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+        // wait for all mirrors
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void print(AnsiOutput output, String url, String pathName, boolean fetched, long durationNanos,
+                     String error) {
+    if (null == error && !fetched) {
+      freshMirrors++;
+      return;
+    }
+
+    AnsiBuffer buffer = output.block()
+        .print(" * ")
+        .print(Color.YELLOW, pathName)
+        .print(" ");
+
+    if (null == error) {
+      fetchedMirrors++;
+      buffer.print(Color.CYAN, url).print(" fetched in %d ms", durationNanos / 1000000);
+    } else {
+      buffer.print(Color.RED, error);
+    }
+
+    output.write(buffer.println());
+  }
+
+  private void submit(NdjsonOutput output, String url, String pathName, boolean fetched, long durationNanos,
+                      String error) {
+    StringWriter buffer = new StringWriter();
+
+    try {
+      new JsonWriter(buffer)
+          .beginObject()
+          .name("type").value("mirror")
+          .name("repository").value(pathName)
+          .name("url").value(url)
+          .name("fetched").value(fetched)
+          .name("durationMillis").value(durationNanos / 1e6)
+          .name("error").value(error)
+          .endObject();
+    } catch (IOException e) {
+      logger.error(e.getMessage(), e);
+      return;
+    }
+
+    output.submit(buffer.toString());
+  }
+
+  private interface MirrorListener {
+    void mirrored(String url, String pathName, boolean fetched, long durationNanos, String error);
+  }
+}
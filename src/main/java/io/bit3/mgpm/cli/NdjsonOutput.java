@@ -0,0 +1,90 @@
+package io.bit3.mgpm.cli;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single writer thread for newline delimited JSON records.
+ *
+ * <p>Producers only enqueue into a lock-free queue and never touch the output stream, so a slow consumer of
+ * stdout never stalls a worker.</p>
+ */
+public class NdjsonOutput {
+  private final Logger logger = LoggerFactory.getLogger(NdjsonOutput.class);
+  private final Queue<String> records = new ConcurrentLinkedQueue<>();
+  private final Writer writer;
+  private final Thread thread;
+  private volatile boolean closed = false;
+
+  public NdjsonOutput(OutputStream outputStream) {
+    this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+    this.thread = new Thread(this::writeLoop, "mgpm-ndjson-writer");
+    this.thread.setDaemon(true);
+  }
+
+  public void start() {
+    thread.start();
+  }
+
+  /**
+   * Enqueue a single JSON record, must not contain line breaks.
+   */
+  public void submit(String record) {
+    records.offer(record);
+    LockSupport.unpark(thread);
+  }
+
+  /**
+   * Write all pending records and stop the writer thread.
+   */
+  public void close() {
+    closed = true;
+    LockSupport.unpark(thread);
+
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void writeLoop() {
+    try {
+      while (true) {
+        boolean wrote = false;
+        String record;
+
+        while (null != (record = records.poll())) {
+          writer.write(record);
+          writer.write('\n');
+          wrote = true;
+        }
+
+        if (wrote) {
+          writer.flush();
+        }
+
+        if (closed && records.isEmpty()) {
+          break;
+        }
+
+        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+      }
+
+      writer.flush();
+    } catch (IOException e) {
+      logger.error(e.getMessage(), e);
+    }
+  }
+}
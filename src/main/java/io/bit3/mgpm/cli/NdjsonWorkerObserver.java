@@ -0,0 +1,183 @@
+package io.bit3.mgpm.cli;
+
+import io.bit3.mgpm.json.JsonWriter;
+import io.bit3.mgpm.worker.AbstractWorkerObserver;
+import io.bit3.mgpm.worker.BranchResult;
+import io.bit3.mgpm.worker.FromToIsh;
+import io.bit3.mgpm.worker.PhaseTiming;
+import io.bit3.mgpm.worker.RepositoryResult;
+import io.bit3.mgpm.worker.TagResult;
+import io.bit3.mgpm.worker.Update;
+import io.bit3.mgpm.worker.Upstream;
+import io.bit3.mgpm.worker.Worker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Render one JSON record per repository as soon as its worker ends.
+ */
+public class NdjsonWorkerObserver extends AbstractWorkerObserver {
+  private final Logger logger = LoggerFactory.getLogger(NdjsonWorkerObserver.class);
+  private final NdjsonOutput output;
+
+  public NdjsonWorkerObserver(NdjsonOutput output) {
+    this.output = output;
+  }
+
+  @Override
+  public void end(Worker worker) {
+    RepositoryResult result = worker.getResult();
+    StringWriter buffer = new StringWriter(1024);
+    JsonWriter json = new JsonWriter(buffer);
+
+    try {
+      json.beginObject()
+          .name("type").value("repository")
+          .name("repository").value(result.getPathName())
+          .name("directory").value(result.getDirectory().getPath())
+          .name("succeed").value(result.isSucceed())
+          .name("skipped").value(result.isSkipped())
+          .name("head").value(result.getHeadSymbolicRef())
+          .name("headCommit").value(result.getHeadCommitRef());
+
+      writeTag(json, result.getTag());
+
+      writeBranches(json, result);
+
+      json.name("remoteBranches");
+      writeBranchNames(json, result.getRemoteBranchNames());
+      json.name("addedRemoteBranches");
+      writeBranchNames(json, result.getAddedRemoteBranchNames());
+      json.name("deletedRemoteBranches");
+      writeBranchNames(json, result.getDeletedRemoteBranchNames());
+
+      writeTimings(json, result);
+      writeErrors(json, result);
+
+      json.endObject();
+    } catch (IOException e) {
+      logger.error(e.getMessage(), e);
+      return;
+    }
+
+    output.submit(buffer.toString());
+  }
+
+  private void writeBranches(JsonWriter json, RepositoryResult result) throws IOException {
+    json.name("branches").beginArray();
+
+    for (BranchResult branch : result.getBranches()) {
+      Upstream upstream = branch.getUpstream();
+      Update update = branch.getUpdate();
+      FromToIsh fromToIsh = branch.getUpdateIsh();
+      Worker.Stats stats = branch.getStats();
+
+      json.beginObject()
+          .name("name").value(branch.getName())
+          .name("head").value(branch.getName().equals(result.getHeadSymbolicRef()));
+
+      if (null != upstream) {
+        json.name("upstream").beginObject()
+            .name("remote").value(upstream.getRemoteName())
+            .name("branch").value(upstream.getRemoteBranch())
+            .name("ref").value(upstream.getRemoteRef())
+            .name("rebase").value(upstream.isRebase())
+            .endObject();
+      }
+
+      if (null != update) {
+        json.name("update").value(update.toString().toLowerCase());
+      }
+
+      if (null != fromToIsh) {
+        json.name("from").value(fromToIsh.getFrom())
+            .name("to").value(fromToIsh.getTo());
+      }
+
+      if (null != stats) {
+        json.name("stats").beginObject()
+            .name("behind").value(stats.getCommitsBehind())
+            .name("ahead").value(stats.getCommitsAhead())
+            .name("added").value(stats.getAdded())
+            .name("modified").value(stats.getModified())
+            .name("renamed").value(stats.getRenamed())
+            .name("copied").value(stats.getCopied())
+            .name("deleted").value(stats.getDeleted())
+            .name("unmerged").value(stats.getUnmerged())
+            .endObject();
+      }
+
+      json.endObject();
+    }
+
+    json.endArray();
+  }
+
+  private void writeBranchNames(JsonWriter json, Map<String, List<String>> branchNames) throws IOException {
+    json.beginObject();
+
+    for (Map.Entry<String, List<String>> entry : branchNames.entrySet()) {
+      json.name(entry.getKey()).beginArray();
+      for (String branchName : entry.getValue()) {
+        json.value(branchName);
+      }
+      json.endArray();
+    }
+
+    json.endObject();
+  }
+
+  private void writeTimings(JsonWriter json, RepositoryResult result) throws IOException {
+    json.name("timings").beginObject()
+        .name("durationMillis").value(result.getDurationNanos() / 1e6)
+        .name("phases").beginObject();
+
+    for (PhaseTiming timing : result.getTimings()) {
+      json.name(timing.getPhase().toString().toLowerCase()).beginObject()
+          .name("durationMillis").value(timing.getDurationNanos() / 1e6)
+          .name("spawns").value(timing.getSpawns())
+          .endObject();
+    }
+
+    json.endObject().name("remotes").beginObject();
+
+    for (Map.Entry<String, Long> entry : result.getRemoteFetchNanos().entrySet()) {
+      json.name(entry.getKey()).beginObject()
+          .name("durationMillis").value(entry.getValue() / 1e6)
+          .endObject();
+    }
+
+    json.endObject().endObject();
+  }
+
+  private void writeTag(JsonWriter json, TagResult tag) throws IOException {
+    json.name("tag");
+
+    if (null == tag) {
+      json.nullValue();
+      return;
+    }
+
+    json.beginObject()
+        .name("name").value(tag.getName())
+        .name("commit").value(tag.getCommit())
+        .name("checkedOut").value(tag.isCheckedOut())
+        .endObject();
+  }
+
+  private void writeErrors(JsonWriter json, RepositoryResult result) throws IOException {
+    json.name("errors").beginArray();
+
+    for (String error : result.getErrors()) {
+      json.value(error);
+    }
+
+    json.endArray();
+  }
+}
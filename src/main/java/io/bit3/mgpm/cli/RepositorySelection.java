@@ -0,0 +1,150 @@
+package io.bit3.mgpm.cli;
+
+import io.bit3.mgpm.config.RepositoryConfig;
+import io.bit3.mgpm.config.SelectionConfig;
+import io.bit3.mgpm.snapshot.SnapshotReader;
+import io.bit3.mgpm.worker.BranchResult;
+import io.bit3.mgpm.worker.RepositoryResult;
+import io.bit3.mgpm.worker.Update;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Decide which repositories a run processes, before any worker is created for them.
+ *
+ * <p>A repository is selected if it matches one of the paths, one of the sources and one of the labels, an empty
+ * criterion matches all. Dirty and behind are answered from the snapshot of the last run instead of asking git, a
+ * repository not part of it is never dirty but always behind, as it was not synced yet. The stats of the snapshot
+ * are taken before the update, a branch that was fast-forwarded or rebased by that run is not behind.</p>
+ */
+class RepositorySelection implements Predicate<RepositoryConfig>, AutoCloseable {
+  private final List<PathMatcher> pathMatchers = new ArrayList<>();
+  private final List<String> pathPrefixes = new ArrayList<>();
+  private final Set<String> sources;
+  private final Set<String> labels;
+  private final boolean dirty;
+  private final boolean behind;
+  private final SnapshotReader status;
+
+  /**
+   * @param status The snapshot of the last run, null if there is none. Dirty and behind are ignored without it.
+   */
+  RepositorySelection(SelectionConfig selectionConfig, SnapshotReader status) {
+    for (String path : selectionConfig.getPaths()) {
+      if (path.chars().anyMatch(character -> -1 != "*?[{".indexOf(character))) {
+        pathMatchers.add(FileSystems.getDefault().getPathMatcher("glob:" + path));
+      } else {
+        pathPrefixes.add(path.replaceAll("/+$", ""));
+      }
+    }
+
+    this.sources = new HashSet<>(selectionConfig.getSources());
+    this.labels = new HashSet<>(selectionConfig.getLabels());
+    this.dirty = selectionConfig.isDirty() && null != status;
+    this.behind = selectionConfig.isBehind() && null != status;
+    this.status = status;
+  }
+
+  /**
+   * Whether any repository may be skipped by this selection.
+   */
+  boolean isActive() {
+    return !pathMatchers.isEmpty() || !pathPrefixes.isEmpty() || !sources.isEmpty() || !labels.isEmpty() || dirty
+        || behind;
+  }
+
+  @Override
+  public boolean test(RepositoryConfig repositoryConfig) {
+    String pathName = repositoryConfig.getPathName();
+
+    if ((!pathMatchers.isEmpty() || !pathPrefixes.isEmpty()) && !matchesPath(pathName)) {
+      return false;
+    }
+
+    if (!sources.isEmpty() && !sources.contains(repositoryConfig.getSource())) {
+      return false;
+    }
+
+    if (!labels.isEmpty() && repositoryConfig.getLabels().stream().noneMatch(labels::contains)) {
+      return false;
+    }
+
+    if (dirty || behind) {
+      RepositoryResult result = status.find(pathName);
+
+      if (dirty && !isDirty(result)) {
+        return false;
+      }
+
+      if (behind && !isBehind(result)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private boolean matchesPath(String pathName) {
+    for (String pathPrefix : pathPrefixes) {
+      if (pathName.equals(pathPrefix) || pathName.startsWith(pathPrefix + "/")) {
+        return true;
+      }
+    }
+
+    for (PathMatcher pathMatcher : pathMatchers) {
+      if (pathMatcher.matches(Paths.get(pathName))) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static boolean isDirty(RepositoryResult result) {
+    if (null == result) {
+      return false;
+    }
+
+    for (BranchResult branch : result.getBranches()) {
+      if (null != branch.getStats() && !branch.getStats().isClean()) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static boolean isBehind(RepositoryResult result) {
+    if (null == result) {
+      return true;
+    }
+
+    for (BranchResult branch : result.getBranches()) {
+      // the stats are taken before the update, a fast-forwarded or rebased branch caught up afterwards
+      if (Update.MERGED_FAST_FORWARD == branch.getUpdate() || Update.REBASED == branch.getUpdate()) {
+        continue;
+      }
+
+      if (null != branch.getStats() && 0 < branch.getStats().getCommitsBehind()) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (null != status) {
+      status.close();
+    }
+  }
+}
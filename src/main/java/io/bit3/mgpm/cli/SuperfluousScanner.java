@@ -0,0 +1,156 @@
+package io.bit3.mgpm.cli;
+
+import io.bit3.mgpm.snapshot.SnapshotHistory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Find files and directories in the workspace that do not belong to a managed repository.
+ *
+ * <p>Only the directories on the way to a repository are walked, everything else below them is superfluous. The
+ * repositories themselves are never entered.</p>
+ */
+public class SuperfluousScanner {
+  private static final String CONFIG_FILE_NAME = "mgpm.yml";
+
+  private final Logger logger = LoggerFactory.getLogger(SuperfluousScanner.class);
+  private final Path workingDirectory;
+  private final Set<Path> knownDirectories = new HashSet<>();
+  private final Set<Path> intermediateDirectories = new HashSet<>();
+  private final Set<Path> roots = new TreeSet<>();
+  private final List<PathMatcher> ignoreMatchers = new ArrayList<>();
+
+  /**
+   * @param knownDirectories The directories of all managed repositories.
+   * @param ignoredPaths     Glob patterns, relative to the working directory, never reported as superfluous.
+   */
+  public SuperfluousScanner(Collection<File> knownDirectories, Collection<String> ignoredPaths) {
+    workingDirectory = Paths.get(".").toAbsolutePath().normalize();
+
+    for (File knownDirectory : knownDirectories) {
+      Path path = knownDirectory.toPath().toAbsolutePath().normalize();
+      this.knownDirectories.add(path);
+
+      // repositories outside of the workspace only have their siblings checked
+      Path root = path.startsWith(workingDirectory) ? workingDirectory : path.getParent();
+      roots.add(root);
+
+      for (Path parent = path.getParent(); null != parent && parent.startsWith(root); parent = parent.getParent()) {
+        intermediateDirectories.add(parent);
+      }
+    }
+
+    for (String ignoredPath : ignoredPaths) {
+      ignoreMatchers.add(FileSystems.getDefault().getPathMatcher("glob:" + ignoredPath));
+    }
+  }
+
+  /**
+   * Walk all roots once and return the sorted paths of all superfluous files and directories.
+   */
+  public List<String> scan() {
+    Set<String> superfluousPaths = new TreeSet<>();
+
+    for (Path root : roots) {
+      try {
+        Files.walkFileTree(root, new Visitor(root, superfluousPaths));
+      } catch (IOException e) {
+        logger.error("could not scan \"{}\": {}", root, e.getMessage());
+      }
+    }
+
+    return new ArrayList<>(superfluousPaths);
+  }
+
+  private boolean isIgnored(Path path) {
+    Path relativePath = workingDirectory.relativize(path);
+
+    if (workingDirectory.equals(path.getParent())) {
+      String name = path.getFileName().toString();
+
+      if (CONFIG_FILE_NAME.equals(name) || SnapshotHistory.DIRECTORY_NAME.equals(name)) {
+        return true;
+      }
+    }
+
+    for (PathMatcher ignoreMatcher : ignoreMatchers) {
+      if (ignoreMatcher.matches(relativePath)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private String toDisplayPath(Path path) {
+    if (path.startsWith(workingDirectory)) {
+      path = workingDirectory.relativize(path);
+    }
+
+    return path.toString().replace(File.separatorChar, '/');
+  }
+
+  private class Visitor extends SimpleFileVisitor<Path> {
+    private final Path root;
+    private final Set<String> superfluousPaths;
+
+    private Visitor(Path root, Set<String> superfluousPaths) {
+      this.root = root;
+      this.superfluousPaths = superfluousPaths;
+    }
+
+    @Override
+    public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+      if (root.equals(directory)) {
+        return FileVisitResult.CONTINUE;
+      }
+
+      if (knownDirectories.contains(directory)) {
+        return FileVisitResult.SKIP_SUBTREE;
+      }
+
+      if (intermediateDirectories.contains(directory)) {
+        return FileVisitResult.CONTINUE;
+      }
+
+      if (!isIgnored(directory)) {
+        superfluousPaths.add(toDisplayPath(directory));
+      }
+
+      return FileVisitResult.SKIP_SUBTREE;
+    }
+
+    @Override
+    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+      if (!isIgnored(file)) {
+        superfluousPaths.add(toDisplayPath(file));
+      }
+
+      return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFileFailed(Path file, IOException e) {
+      logger.warn("could not scan \"{}\": {}", file, e.getMessage());
+      return FileVisitResult.CONTINUE;
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package io.bit3.mgpm.cli;
+
+import io.bit3.mgpm.worker.Phase;
+import io.bit3.mgpm.worker.PhaseTiming;
+import io.bit3.mgpm.worker.RepositoryResult;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Summarize phase timings of all repositories as percentiles and slowest repositories.
+ *
+ * <p>Results are aggregated into fixed size histograms, so the memory does not grow with the amount of
+ * repositories.</p>
+ */
+public class TimingSummary {
+  private final int slowestLimit;
+  private final Map<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+  private final PriorityQueue<RepositoryDuration> slowest =
+      new PriorityQueue<>(Comparator.comparingLong(RepositoryDuration::getDurationNanos));
+  private long repositories = 0;
+  private long spawns = 0;
+  private long bytesRead = 0;
+
+  public TimingSummary(int slowestLimit) {
+    this.slowestLimit = slowestLimit;
+
+    for (Phase phase : Phase.values()) {
+      histograms.put(phase, new LatencyHistogram());
+    }
+  }
+
+  public void add(RepositoryResult result) {
+    repositories++;
+
+    for (PhaseTiming timing : result.getTimings()) {
+      histograms.get(timing.getPhase()).add(timing.getDurationNanos(), timing.getSpawns());
+      spawns += timing.getSpawns();
+      bytesRead += timing.getBytesRead();
+    }
+
+    slowest.add(new RepositoryDuration(result.getPathName(), result.getDurationNanos()));
+
+    if (slowest.size() > slowestLimit) {
+      slowest.poll();
+    }
+  }
+
+  public void print(AnsiOutput output) {
+    AnsiBuffer buffer = output.block()
+        .println()
+        .print(" * ")
+        .print(Color.YELLOW, "timings")
+        .println(" %d repositories, %d git processes, %d KiB read", repositories, spawns, bytesRead / 1024)
+        .println(Color.DARK_GRAY, "   %-40s %9s %9s %9s %9s %8s", "phase", "p50 ms", "p95 ms", "p99 ms", "max ms", "spawns");
+
+    for (Map.Entry<Phase, LatencyHistogram> entry : histograms.entrySet()) {
+      LatencyHistogram histogram = entry.getValue();
+
+      if (0 == histogram.count) {
+        continue;
+      }
+
+      buffer.println(
+          "   %-40s %9.1f %9.1f %9.1f %9.1f %8d",
+          entry.getKey().toString().toLowerCase().replace('_', ' '),
+          histogram.percentile(50) / 1e6,
+          histogram.percentile(95) / 1e6,
+          histogram.percentile(99) / 1e6,
+          histogram.max / 1e6,
+          histogram.spawns
+      );
+    }
+
+    List<RepositoryDuration> slowestRepositories = new ArrayList<>(slowest);
+    slowestRepositories.sort(Comparator.comparingLong(RepositoryDuration::getDurationNanos).reversed());
+
+    buffer.println(Color.DARK_GRAY, "   slowest repositories");
+    for (RepositoryDuration repository : slowestRepositories) {
+      buffer.println("   %-40s %9.1f", repository.getPathName(), repository.getDurationNanos() / 1e6);
+    }
+
+    output.write(buffer);
+  }
+
+  /**
+   * Log-linear histogram with microsecond resolution, each power of two is split into 16 buckets, which bounds the
+   * relative error of a percentile to 1/16.
+   */
+  private static class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[64 * SUB_BUCKETS];
+    private long count = 0;
+    private long max = 0;
+    private long spawns = 0;
+
+    private void add(long nanos, int spawns) {
+      long micros = Math.max(1, nanos / 1000);
+      int exponent = 63 - Long.numberOfLeadingZeros(micros);
+      int subBucket = (int) (((micros - (1L << exponent)) << SUB_BUCKET_BITS) >>> exponent);
+
+      counts[exponent * SUB_BUCKETS + subBucket]++;
+      count++;
+      max = Math.max(max, nanos);
+      this.spawns += spawns;
+    }
+
+    /**
+     * Nearest-rank percentile, reported as the upper bound of the matching bucket in nanoseconds.
+     */
+    private long percentile(int percentile) {
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+      long seen = 0;
+
+      for (int index = 0; index < counts.length; index++) {
+        seen += counts[index];
+
+        if (seen >= rank) {
+          int exponent = index / SUB_BUCKETS;
+          int subBucket = index % SUB_BUCKETS;
+          long upperMicros = (1L << exponent) + (((long) subBucket + 1) << exponent >>> SUB_BUCKET_BITS);
+          return Math.min(upperMicros * 1000, max);
+        }
+      }
+
+      return max;
+    }
+  }
+
+  private static class RepositoryDuration {
+    private final String pathName;
+    private final long durationNanos;
+
+    private RepositoryDuration(String pathName, long durationNanos) {
+      this.pathName = pathName;
+      this.durationNanos = durationNanos;
+    }
+
+    private String getPathName() {
+      return pathName;
+    }
+
+    private long getDurationNanos() {
+      return durationNanos;
+    }
+  }
+}
@@ -1,6 +1,10 @@
 package io.bit3.mgpm.cmd;
 
+import io.bit3.mgpm.metrics.MetricsFormat;
+
 import java.io.File;
+import java.util.LinkedList;
+import java.util.List;
 
 public class Args {
   private File config = null;
@@ -9,6 +13,32 @@ public class Args {
   private boolean showStatus = false;
   private boolean showGui = false;
   private boolean omitSuperfluousWarnings = false;
+  private boolean showTimings = false;
+  private OutputFormat outputFormat = OutputFormat.TEXT;
+  private int daemonInterval = 0;
+  private File metricsFile = null;
+  private MetricsFormat metricsFormat = MetricsFormat.PROMETHEUS;
+  private int metricsPort = 0;
+  private File snapshotFile = null;
+  private int historySize = 10;
+  private boolean resume = true;
+  private boolean doMaintenance = false;
+  private boolean doDiff = false;
+  private boolean doMirror = false;
+  private boolean doMerge = false;
+  private File mergeTarget = null;
+  private List<File> mergeSnapshots = new LinkedList<>();
+  private int shardIndex = 1;
+  private int shardCount = 1;
+  private File shardCosts = null;
+  private boolean configCache = true;
+  private int configCacheTtl = 3600;
+  private List<String> selectPaths = new LinkedList<>();
+  private List<String> selectSources = new LinkedList<>();
+  private List<String> selectLabels = new LinkedList<>();
+  private boolean selectDirty = false;
+  private boolean selectBehind = false;
+  private List<File> diffSnapshots = new LinkedList<>();
   private int threads = 2 * Runtime.getRuntime().availableProcessors();
   private LogLevel loggerLevel = LogLevel.TRACE;
 
@@ -64,6 +94,268 @@ public class Args {
     this.omitSuperfluousWarnings = omitSuperfluousWarnings;
   }
 
+  public boolean isShowTimings() {
+    return showTimings;
+  }
+
+  public void setShowTimings(boolean showTimings) {
+    this.showTimings = showTimings;
+  }
+
+  public OutputFormat getOutputFormat() {
+    return outputFormat;
+  }
+
+  public void setOutputFormat(OutputFormat outputFormat) {
+    this.outputFormat = outputFormat;
+  }
+
+  public boolean isDaemon() {
+    return 0 < daemonInterval;
+  }
+
+  public int getDaemonInterval() {
+    return daemonInterval;
+  }
+
+  public void setDaemonInterval(int daemonInterval) {
+    this.daemonInterval = daemonInterval;
+  }
+
+  public boolean hasMetricsFile() {
+    return null != metricsFile;
+  }
+
+  public File getMetricsFile() {
+    return metricsFile;
+  }
+
+  public void setMetricsFile(File metricsFile) {
+    this.metricsFile = metricsFile;
+  }
+
+  public MetricsFormat getMetricsFormat() {
+    return metricsFormat;
+  }
+
+  public void setMetricsFormat(MetricsFormat metricsFormat) {
+    this.metricsFormat = metricsFormat;
+  }
+
+  public boolean hasMetricsPort() {
+    return 0 < metricsPort;
+  }
+
+  public int getMetricsPort() {
+    return metricsPort;
+  }
+
+  public void setMetricsPort(int metricsPort) {
+    this.metricsPort = metricsPort;
+  }
+
+  public boolean hasSnapshotFile() {
+    return null != snapshotFile;
+  }
+
+  public File getSnapshotFile() {
+    return snapshotFile;
+  }
+
+  public void setSnapshotFile(File snapshotFile) {
+    this.snapshotFile = snapshotFile;
+  }
+
+  public int getHistorySize() {
+    return historySize;
+  }
+
+  public void setHistorySize(int historySize) {
+    this.historySize = historySize;
+  }
+
+  /**
+   * Process only the repositories not finished by an interrupted run.
+   */
+  public boolean isResume() {
+    return resume;
+  }
+
+  public void setResume(boolean resume) {
+    this.resume = resume;
+  }
+
+  public boolean isDoMaintenance() {
+    return doMaintenance;
+  }
+
+  public void setDoMaintenance(boolean doMaintenance) {
+    this.doMaintenance = doMaintenance;
+  }
+
+  public boolean isDoDiff() {
+    return doDiff;
+  }
+
+  public void setDoDiff(boolean doDiff) {
+    this.doDiff = doDiff;
+  }
+
+  public boolean isDoMirror() {
+    return doMirror;
+  }
+
+  public void setDoMirror(boolean doMirror) {
+    this.doMirror = doMirror;
+  }
+
+  public boolean isDoMerge() {
+    return doMerge;
+  }
+
+  public void setDoMerge(boolean doMerge) {
+    this.doMerge = doMerge;
+  }
+
+  public File getMergeTarget() {
+    return mergeTarget;
+  }
+
+  public void setMergeTarget(File mergeTarget) {
+    this.mergeTarget = mergeTarget;
+  }
+
+  /**
+   * The shard snapshots to merge into the target.
+   */
+  public List<File> getMergeSnapshots() {
+    return mergeSnapshots;
+  }
+
+  public void setMergeSnapshots(List<File> mergeSnapshots) {
+    this.mergeSnapshots = mergeSnapshots;
+  }
+
+  public boolean isSharded() {
+    return 1 < shardCount;
+  }
+
+  /**
+   * Number of the shard this node processes, from 1 to {@link #getShardCount()}.
+   */
+  public int getShardIndex() {
+    return shardIndex;
+  }
+
+  public void setShardIndex(int shardIndex) {
+    this.shardIndex = shardIndex;
+  }
+
+  public int getShardCount() {
+    return shardCount;
+  }
+
+  public void setShardCount(int shardCount) {
+    this.shardCount = shardCount;
+  }
+
+  public boolean hasShardCosts() {
+    return null != shardCosts;
+  }
+
+  /**
+   * Snapshot of a previous, usually merged, run the repository costs of the shard assignment are taken from.
+   */
+  public File getShardCosts() {
+    return shardCosts;
+  }
+
+  public void setShardCosts(File shardCosts) {
+    this.shardCosts = shardCosts;
+  }
+
+  /**
+   * Read the config from the compiled config cache, as long as the config files are unchanged.
+   */
+  public boolean isConfigCache() {
+    return configCache;
+  }
+
+  public void setConfigCache(boolean configCache) {
+    this.configCache = configCache;
+  }
+
+  /**
+   * Seconds a config cache built from remote sources is used, before their repositories are discovered again.
+   */
+  public int getConfigCacheTtl() {
+    return configCacheTtl;
+  }
+
+  public void setConfigCacheTtl(int configCacheTtl) {
+    this.configCacheTtl = configCacheTtl;
+  }
+
+  /**
+   * Path globs of the repositories to process, replace the paths of the config selection if not empty.
+   */
+  public List<String> getSelectPaths() {
+    return selectPaths;
+  }
+
+  public void setSelectPaths(List<String> selectPaths) {
+    this.selectPaths = selectPaths;
+  }
+
+  /**
+   * Sources of the repositories to process, replace the sources of the config selection if not empty.
+   */
+  public List<String> getSelectSources() {
+    return selectSources;
+  }
+
+  public void setSelectSources(List<String> selectSources) {
+    this.selectSources = selectSources;
+  }
+
+  /**
+   * Labels of the repositories to process, replace the labels of the config selection if not empty.
+   */
+  public List<String> getSelectLabels() {
+    return selectLabels;
+  }
+
+  public void setSelectLabels(List<String> selectLabels) {
+    this.selectLabels = selectLabels;
+  }
+
+  public boolean isSelectDirty() {
+    return selectDirty;
+  }
+
+  public void setSelectDirty(boolean selectDirty) {
+    this.selectDirty = selectDirty;
+  }
+
+  public boolean isSelectBehind() {
+    return selectBehind;
+  }
+
+  public void setSelectBehind(boolean selectBehind) {
+    this.selectBehind = selectBehind;
+  }
+
+  /**
+   * Explicit snapshots to compare, the last two runs of the history are used if empty.
+   */
+  public List<File> getDiffSnapshots() {
+    return diffSnapshots;
+  }
+
+  public void setDiffSnapshots(List<File> diffSnapshots) {
+    this.diffSnapshots = diffSnapshots;
+  }
+
   public int getThreads() {
     return threads;
   }
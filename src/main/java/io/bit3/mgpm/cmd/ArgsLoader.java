@@ -6,9 +6,18 @@ import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 
+import io.bit3.mgpm.metrics.MetricsFormat;
+
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 public class ArgsLoader {
+  public static final String DIFF_COMMAND = "diff";
+  public static final String MIRROR_COMMAND = "mirror";
+  public static final String MERGE_COMMAND = "merge";
+
   private final OptionsFactory optionsFactory;
 
   public ArgsLoader() {
@@ -29,7 +38,7 @@ public class ArgsLoader {
 
       if (cmd.hasOption(OptionsFactory.HELP_OPT)) {
         HelpFormatter formatter = new HelpFormatter();
-        formatter.printHelp("mgpm", options, true);
+        formatter.printHelp("mgpm [diff [<from> <to>] | mirror | merge <target> <snapshot>...]", options, true);
         return null;
       }
 
@@ -70,6 +79,160 @@ public class ArgsLoader {
         args.setShowGui(true);
       }
 
+      if (cmd.hasOption(OptionsFactory.TIMINGS_LONG_OPT)) {
+        args.setShowTimings(true);
+      }
+
+      if (cmd.hasOption(OptionsFactory.FORMAT_LONG_OPT)) {
+        String value = cmd.getOptionValue(OptionsFactory.FORMAT_LONG_OPT);
+        try {
+          args.setOutputFormat(OutputFormat.valueOf(value.toUpperCase()));
+        } catch (IllegalArgumentException e) {
+          System.err.println("Option --format must be text or ndjson, skipping.");
+        }
+      }
+
+      if (cmd.hasOption(OptionsFactory.DAEMON_LONG_OPT)) {
+        String value = cmd.getOptionValue(OptionsFactory.DAEMON_LONG_OPT);
+        if (!value.matches("\\d*[1-9]\\d*")) {
+          System.err.println("Option --daemon must be a positive number, skipping.");
+        } else {
+          args.setDaemonInterval(Integer.parseInt(value));
+        }
+      }
+
+      if (cmd.hasOption(OptionsFactory.METRICS_FILE_LONG_OPT)) {
+        args.setMetricsFile(new File(cmd.getOptionValue(OptionsFactory.METRICS_FILE_LONG_OPT)));
+      }
+
+      if (cmd.hasOption(OptionsFactory.SNAPSHOT_LONG_OPT)) {
+        args.setSnapshotFile(new File(cmd.getOptionValue(OptionsFactory.SNAPSHOT_LONG_OPT)));
+      }
+
+      if (cmd.hasOption(OptionsFactory.HISTORY_LONG_OPT)) {
+        String value = cmd.getOptionValue(OptionsFactory.HISTORY_LONG_OPT);
+        if (!value.matches("\\d+")) {
+          System.err.println("Option --history must be a number, skipping.");
+        } else {
+          args.setHistorySize(Integer.parseInt(value));
+        }
+      }
+
+      if (cmd.hasOption(OptionsFactory.NO_RESUME_LONG_OPT)) {
+        args.setResume(false);
+      }
+
+      if (cmd.hasOption(OptionsFactory.MAINTENANCE_LONG_OPT)) {
+        args.setDoMaintenance(true);
+      }
+
+      if (cmd.hasOption(OptionsFactory.SHARD_LONG_OPT)) {
+        String value = cmd.getOptionValue(OptionsFactory.SHARD_LONG_OPT);
+        String[] parts = value.split("/");
+        if (2 != parts.length || !parts[0].matches("\\d*[1-9]\\d*") || !parts[1].matches("\\d*[1-9]\\d*")
+            || Integer.parseInt(parts[0]) > Integer.parseInt(parts[1])) {
+          System.err.println("Option --shard must be i/N with 1 <= i <= N, skipping.");
+        } else {
+          args.setShardIndex(Integer.parseInt(parts[0]));
+          args.setShardCount(Integer.parseInt(parts[1]));
+        }
+      }
+
+      if (cmd.hasOption(OptionsFactory.SHARD_COSTS_LONG_OPT)) {
+        args.setShardCosts(new File(cmd.getOptionValue(OptionsFactory.SHARD_COSTS_LONG_OPT)));
+      }
+
+      if (cmd.hasOption(OptionsFactory.NO_CONFIG_CACHE_LONG_OPT)) {
+        args.setConfigCache(false);
+      }
+
+      if (cmd.hasOption(OptionsFactory.CONFIG_CACHE_TTL_LONG_OPT)) {
+        String value = cmd.getOptionValue(OptionsFactory.CONFIG_CACHE_TTL_LONG_OPT);
+        if (!value.matches("\\d+")) {
+          System.err.println("Option --config-cache-ttl must be a number, skipping.");
+        } else {
+          args.setConfigCacheTtl(Integer.parseInt(value));
+        }
+      }
+
+      if (cmd.hasOption(OptionsFactory.PATH_LONG_OPT)) {
+        args.setSelectPaths(Arrays.asList(cmd.getOptionValues(OptionsFactory.PATH_LONG_OPT)));
+      }
+
+      if (cmd.hasOption(OptionsFactory.SOURCE_LONG_OPT)) {
+        args.setSelectSources(Arrays.asList(cmd.getOptionValues(OptionsFactory.SOURCE_LONG_OPT)));
+      }
+
+      if (cmd.hasOption(OptionsFactory.LABEL_LONG_OPT)) {
+        args.setSelectLabels(Arrays.asList(cmd.getOptionValues(OptionsFactory.LABEL_LONG_OPT)));
+      }
+
+      if (cmd.hasOption(OptionsFactory.DIRTY_LONG_OPT)) {
+        args.setSelectDirty(true);
+      }
+
+      if (cmd.hasOption(OptionsFactory.BEHIND_LONG_OPT)) {
+        args.setSelectBehind(true);
+      }
+
+      if (cmd.hasOption(OptionsFactory.METRICS_FORMAT_LONG_OPT)) {
+        String value = cmd.getOptionValue(OptionsFactory.METRICS_FORMAT_LONG_OPT);
+        try {
+          args.setMetricsFormat(MetricsFormat.valueOf(value.toUpperCase()));
+        } catch (IllegalArgumentException e) {
+          System.err.println("Option --metrics-format must be prometheus or json, skipping.");
+        }
+      }
+
+      if (cmd.hasOption(OptionsFactory.METRICS_PORT_LONG_OPT)) {
+        String value = cmd.getOptionValue(OptionsFactory.METRICS_PORT_LONG_OPT);
+        if (!value.matches("\\d*[1-9]\\d*")) {
+          System.err.println("Option --metrics-port must be a positive number, skipping.");
+        } else {
+          args.setMetricsPort(Integer.parseInt(value));
+        }
+      }
+
+      List<String> commandArguments = cmd.getArgList();
+      if (!commandArguments.isEmpty() && MIRROR_COMMAND.equals(commandArguments.get(0))) {
+        if (1 != commandArguments.size()) {
+          System.err.println("Command mirror expects no arguments.");
+          return null;
+        }
+
+        args.setDoMirror(true);
+      } else if (!commandArguments.isEmpty() && MERGE_COMMAND.equals(commandArguments.get(0))) {
+        if (3 > commandArguments.size()) {
+          System.err.println("Command merge expects a target and at least one snapshot file.");
+          return null;
+        }
+
+        args.setDoMerge(true);
+        args.setMergeTarget(new File(commandArguments.get(1)));
+        args.setMergeSnapshots(commandArguments
+            .subList(2, commandArguments.size())
+            .stream()
+            .map(File::new)
+            .collect(Collectors.toList()));
+      } else if (!commandArguments.isEmpty()) {
+        if (!DIFF_COMMAND.equals(commandArguments.get(0))) {
+          System.err.println(String.format("Unknown command \"%s\".", commandArguments.get(0)));
+          return null;
+        }
+
+        if (3 != commandArguments.size() && 1 != commandArguments.size()) {
+          System.err.println("Command diff expects none or two snapshot files.");
+          return null;
+        }
+
+        args.setDoDiff(true);
+        args.setDiffSnapshots(commandArguments
+            .subList(1, commandArguments.size())
+            .stream()
+            .map(File::new)
+            .collect(Collectors.toList()));
+      }
+
       if (cmd.hasOption(OptionsFactory.VERY_VERBOSE_OPT)) {
         args.setLoggerLevel(LogLevel.DEBUG);
       } else if (cmd.hasOption(OptionsFactory.VERBOSE_OPT)) {
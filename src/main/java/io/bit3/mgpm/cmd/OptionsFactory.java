@@ -31,6 +31,44 @@ public class OptionsFactory {
   public static final char GUI_OPT = 'g';
   public static final String GUI_LONG_OPT = "gui";
 
+  public static final String TIMINGS_LONG_OPT = "timings";
+
+  public static final String FORMAT_LONG_OPT = "format";
+
+  public static final String DAEMON_LONG_OPT = "daemon";
+
+  public static final String METRICS_FILE_LONG_OPT = "metrics-file";
+
+  public static final String METRICS_FORMAT_LONG_OPT = "metrics-format";
+
+  public static final String METRICS_PORT_LONG_OPT = "metrics-port";
+
+  public static final String SNAPSHOT_LONG_OPT = "snapshot";
+
+  public static final String HISTORY_LONG_OPT = "history";
+
+  public static final String NO_RESUME_LONG_OPT = "no-resume";
+
+  public static final String MAINTENANCE_LONG_OPT = "maintenance";
+
+  public static final String SHARD_LONG_OPT = "shard";
+
+  public static final String SHARD_COSTS_LONG_OPT = "shard-costs";
+
+  public static final String NO_CONFIG_CACHE_LONG_OPT = "no-config-cache";
+
+  public static final String CONFIG_CACHE_TTL_LONG_OPT = "config-cache-ttl";
+
+  public static final String PATH_LONG_OPT = "path";
+
+  public static final String SOURCE_LONG_OPT = "source";
+
+  public static final String LABEL_LONG_OPT = "label";
+
+  public static final String DIRTY_LONG_OPT = "dirty";
+
+  public static final String BEHIND_LONG_OPT = "behind";
+
   public static final char QUIET_OPT = 'q';
 
   public static final char VERBOSE_OPT = 'v';
@@ -49,6 +87,25 @@ public class OptionsFactory {
     options.addOption(createThreadsOption());
     options.addOption(createNoThreadsOption());
     options.addOption(createGuiOption());
+    options.addOption(createTimingsOption());
+    options.addOption(createFormatOption());
+    options.addOption(createDaemonOption());
+    options.addOption(createMetricsFileOption());
+    options.addOption(createMetricsFormatOption());
+    options.addOption(createMetricsPortOption());
+    options.addOption(createSnapshotOption());
+    options.addOption(createHistoryOption());
+    options.addOption(createNoResumeOption());
+    options.addOption(createMaintenanceOption());
+    options.addOption(createShardOption());
+    options.addOption(createShardCostsOption());
+    options.addOption(createNoConfigCacheOption());
+    options.addOption(createConfigCacheTtlOption());
+    options.addOption(createPathOption());
+    options.addOption(createSourceOption());
+    options.addOption(createLabelOption());
+    options.addOption(createDirtyOption());
+    options.addOption(createBehindOption());
     options.addOption(createQuietOption());
     options.addOption(createVerboseOption());
     options.addOption(createVeryVerboseOption());
@@ -142,6 +199,206 @@ public class OptionsFactory {
     );
   }
 
+  private Option createTimingsOption() {
+    return new Option(
+        null,
+        TIMINGS_LONG_OPT,
+        false,
+        "Print phase timings and the slowest repositories at the end of the run."
+    );
+  }
+
+  private Option createFormatOption() {
+    Option option = new Option(
+        null,
+        FORMAT_LONG_OPT,
+        true,
+        "Output format, text or ndjson (one JSON record per repository, default: text)."
+    );
+    option.setArgName("format");
+    return option;
+  }
+
+  private Option createDaemonOption() {
+    Option option = new Option(
+        null,
+        DAEMON_LONG_OPT,
+        true,
+        "Keep running and repeat the run every given number of seconds."
+    );
+    option.setArgName("seconds");
+    return option;
+  }
+
+  private Option createMetricsFileOption() {
+    Option option = new Option(
+        null,
+        METRICS_FILE_LONG_OPT,
+        true,
+        "Write metrics into the given file after each run (e.g. for the node exporter textfile collector)."
+    );
+    option.setArgName("path");
+    return option;
+  }
+
+  private Option createMetricsFormatOption() {
+    Option option = new Option(
+        null,
+        METRICS_FORMAT_LONG_OPT,
+        true,
+        "Format of the metrics file, prometheus or json (default: prometheus)."
+    );
+    option.setArgName("format");
+    return option;
+  }
+
+  private Option createMetricsPortOption() {
+    Option option = new Option(
+        null,
+        METRICS_PORT_LONG_OPT,
+        true,
+        "Serve metrics on http://localhost:<port>/metrics and /metrics.json."
+    );
+    option.setArgName("port");
+    return option;
+  }
+
+  private Option createSnapshotOption() {
+    Option option = new Option(
+        null,
+        SNAPSHOT_LONG_OPT,
+        true,
+        "Write a binary snapshot of the run results into the given file."
+    );
+    option.setArgName("path");
+    return option;
+  }
+
+  private Option createHistoryOption() {
+    Option option = new Option(
+        null,
+        HISTORY_LONG_OPT,
+        true,
+        "Keep the snapshots of the given number of runs for `mgpm diff` (default: 10, 0 disables)."
+    );
+    option.setArgName("runs");
+    return option;
+  }
+
+  private Option createNoResumeOption() {
+    return new Option(
+        null,
+        NO_RESUME_LONG_OPT,
+        false,
+        "Process all repositories, even if the last run was interrupted."
+    );
+  }
+
+  private Option createMaintenanceOption() {
+    return new Option(
+        null,
+        MAINTENANCE_LONG_OPT,
+        false,
+        "Garbage collect and write commit-graphs where the maintenance thresholds are exceeded, in daemon mode "
+            + "between the runs."
+    );
+  }
+
+  private Option createShardOption() {
+    Option option = new Option(
+        null,
+        SHARD_LONG_OPT,
+        true,
+        "Process only the repositories of shard i of N, assigned by consistent hashing over the path names."
+    );
+    option.setArgName("i/N");
+    return option;
+  }
+
+  private Option createShardCostsOption() {
+    Option option = new Option(
+        null,
+        SHARD_COSTS_LONG_OPT,
+        true,
+        "Balance the shards by the repository durations of the given snapshot, all nodes must use the same one."
+    );
+    option.setArgName("path");
+    return option;
+  }
+
+  private Option createNoConfigCacheOption() {
+    return new Option(
+        null,
+        NO_CONFIG_CACHE_LONG_OPT,
+        false,
+        "Parse the config and discover the repositories of the sources again, instead of using the config cache."
+    );
+  }
+
+  private Option createConfigCacheTtlOption() {
+    Option option = new Option(
+        null,
+        CONFIG_CACHE_TTL_LONG_OPT,
+        true,
+        "Ask the github, gitlab and cgit sources for their repositories again after the given seconds, even if the "
+            + "config is unchanged (default: 3600)."
+    );
+    option.setArgName("seconds");
+    return option;
+  }
+
+  private Option createPathOption() {
+    Option option = new Option(
+        null,
+        PATH_LONG_OPT,
+        true,
+        "Process only the repositories whose path name matches the glob, or is below the path, may be repeated."
+    );
+    option.setArgName("glob");
+    return option;
+  }
+
+  private Option createSourceOption() {
+    Option option = new Option(
+        null,
+        SOURCE_LONG_OPT,
+        true,
+        "Process only the repositories of the given source (the source key of an entry, else its type), may be "
+            + "repeated."
+    );
+    option.setArgName("source");
+    return option;
+  }
+
+  private Option createLabelOption() {
+    Option option = new Option(
+        null,
+        LABEL_LONG_OPT,
+        true,
+        "Process only the repositories with the given label, may be repeated."
+    );
+    option.setArgName("label");
+    return option;
+  }
+
+  private Option createDirtyOption() {
+    return new Option(
+        null,
+        DIRTY_LONG_OPT,
+        false,
+        "Process only the repositories with uncommitted changes in the last run."
+    );
+  }
+
+  private Option createBehindOption() {
+    return new Option(
+        null,
+        BEHIND_LONG_OPT,
+        false,
+        "Process only the repositories with a branch behind its upstream in the last run, or not run yet."
+    );
+  }
+
   private Option createQuietOption() {
     return new Option(
         Character.toString(QUIET_OPT),
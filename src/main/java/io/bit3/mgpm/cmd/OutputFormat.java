@@ -0,0 +1,6 @@
+package io.bit3.mgpm.cmd;
+
+public enum OutputFormat {
+  TEXT,
+  NDJSON
+}
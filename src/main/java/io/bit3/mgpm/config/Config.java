@@ -6,12 +6,20 @@ import java.util.List;
 public class Config {
   private final GitConfig gitConfig;
   private final GithubConfig githubConfig;
+  private final MaintenanceConfig maintenanceConfig;
+  private final MirrorConfig mirrorConfig;
+  private final SelectionConfig selectionConfig;
   private final List<RepositoryConfig> repositories;
+  private final List<String> ignoredPaths;
 
   public Config() {
     gitConfig = new GitConfig();
     githubConfig = new GithubConfig();
+    maintenanceConfig = new MaintenanceConfig();
+    mirrorConfig = new MirrorConfig();
+    selectionConfig = new SelectionConfig();
     repositories = new LinkedList<>();
+    ignoredPaths = new LinkedList<>();
   }
 
   public GitConfig getGitConfig() {
@@ -22,7 +30,29 @@ public class Config {
     return githubConfig;
   }
 
+  public MaintenanceConfig getMaintenanceConfig() {
+    return maintenanceConfig;
+  }
+
+  public MirrorConfig getMirrorConfig() {
+    return mirrorConfig;
+  }
+
+  /**
+   * The default selection of the repositories to process, overridden by the command line.
+   */
+  public SelectionConfig getSelectionConfig() {
+    return selectionConfig;
+  }
+
   public List<RepositoryConfig> getRepositories() {
     return repositories;
   }
+
+  /**
+   * Glob patterns of paths, relative to the working directory, that are never reported as superfluous.
+   */
+  public List<String> getIgnoredPaths() {
+    return ignoredPaths;
+  }
 }
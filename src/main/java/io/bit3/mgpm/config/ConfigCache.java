@@ -0,0 +1,298 @@
+package io.bit3.mgpm.config;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The compiled config: all settings and the resolved repositories, together with the inputs they were built from.
+ *
+ * <p>As long as no input changed, a config is read from the cache without parsing any YAML. The repositories of
+ * remote sources, e.g. github, may change without any input changing, a cache that asked them expires after the
+ * remote ttl. The cache belongs to one working directory and one config file.</p>
+ *
+ * <p>Secrets are not stored: the github token is only needed to discover the repositories, which the cache saves.
+ * Repository urls may carry credentials nonetheless, the file is only readable by its owner.</p>
+ */
+public class ConfigCache {
+  private static final int MAGIC = 0x4d474343;
+  private static final int VERSION = 3;
+
+  private final File file;
+  private final long remoteTtlMillis;
+
+  /**
+   * @param remoteTtlMillis How long a cache is valid, that asked remote sources for their repositories.
+   */
+  public ConfigCache(File file, long remoteTtlMillis) {
+    this.file = file;
+    this.remoteTtlMillis = remoteTtlMillis;
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Fill the config from the cache, if it is still valid for the config file.
+   *
+   * @return Whether the config was read from the cache, the config is left untouched otherwise.
+   */
+  public boolean read(Config config, File configFile) {
+    if (!file.isFile()) {
+      return false;
+    }
+
+    Config cachedConfig = new Config();
+    ConfigInputs inputs = new ConfigInputs();
+
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+      if (MAGIC != input.readInt() || VERSION != input.readInt()) {
+        return false;
+      }
+
+      if (!workingDirectory().equals(input.readUTF()) || !canonicalPath(configFile).equals(input.readUTF())) {
+        return false;
+      }
+
+      long createdAt = input.readLong();
+      if (input.readBoolean() && System.currentTimeMillis() - createdAt >= remoteTtlMillis) {
+        return false;
+      }
+
+      for (int count = input.readInt(); 0 < count; count--) {
+        inputs.addFile(Paths.get(input.readUTF()), input.readUTF());
+      }
+      for (int count = input.readInt(); 0 < count; count--) {
+        inputs.addDirectory(Paths.get(input.readUTF()), input.readLong());
+      }
+
+      if (!inputs.isUnchanged()) {
+        return false;
+      }
+
+      readSettings(input, cachedConfig);
+
+      for (int count = input.readInt(); 0 < count; count--) {
+        cachedConfig.getRepositories().add(readRepository(input));
+      }
+    } catch (IOException | RuntimeException e) {
+      // a broken or foreign cache is rebuilt
+      return false;
+    }
+
+    copy(cachedConfig, config);
+    return true;
+  }
+
+  /**
+   * Store the loaded config, replacing the cache atomically.
+   */
+  public void write(Config config, File configFile, ConfigInputs inputs) throws IOException {
+    Path target = file.toPath().toAbsolutePath();
+    Path temporary = target.resolveSibling("." + target.getFileName() + ".tmp");
+    Files.createDirectories(target.getParent());
+    Files.deleteIfExists(temporary);
+
+    if (Files.getFileStore(target.getParent()).supportsFileAttributeView(PosixFileAttributeView.class)) {
+      Files.createFile(temporary, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+    }
+
+    try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+      output.writeInt(MAGIC);
+      output.writeInt(VERSION);
+      output.writeUTF(workingDirectory());
+      output.writeUTF(canonicalPath(configFile));
+      output.writeLong(System.currentTimeMillis());
+      output.writeBoolean(inputs.isRemote());
+
+      Map<Path, String> files = inputs.getFiles();
+      output.writeInt(files.size());
+      for (Map.Entry<Path, String> entry : files.entrySet()) {
+        output.writeUTF(entry.getKey().toString());
+        output.writeUTF(entry.getValue());
+      }
+
+      Map<Path, Long> directories = inputs.getDirectories();
+      output.writeInt(directories.size());
+      for (Map.Entry<Path, Long> entry : directories.entrySet()) {
+        output.writeUTF(entry.getKey().toString());
+        output.writeLong(entry.getValue());
+      }
+
+      writeSettings(output, config);
+
+      output.writeInt(config.getRepositories().size());
+      for (RepositoryConfig repositoryConfig : config.getRepositories()) {
+        writeRepository(output, repositoryConfig);
+      }
+    }
+
+    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static void writeSettings(DataOutputStream output, Config config) throws IOException {
+    GitConfig gitConfig = config.getGitConfig();
+    writeString(output, gitConfig.getBinary());
+    output.writeInt(gitConfig.getSubmoduleJobs());
+    output.writeInt(gitConfig.getRetries());
+
+    MaintenanceConfig maintenanceConfig = config.getMaintenanceConfig();
+    output.writeInt(maintenanceConfig.getLooseObjects());
+    output.writeInt(maintenanceConfig.getPacks());
+    output.writeInt(maintenanceConfig.getConcurrency());
+
+    MirrorConfig mirrorConfig = config.getMirrorConfig();
+    writeString(output, null == mirrorConfig.getDirectory() ? null : mirrorConfig.getDirectory().getPath());
+    output.writeInt(mirrorConfig.getInterval());
+
+    writeStrings(output, config.getIgnoredPaths());
+
+    SelectionConfig selectionConfig = config.getSelectionConfig();
+    writeStrings(output, selectionConfig.getPaths());
+    writeStrings(output, selectionConfig.getSources());
+    writeStrings(output, selectionConfig.getLabels());
+    output.writeBoolean(selectionConfig.isDirty());
+    output.writeBoolean(selectionConfig.isBehind());
+  }
+
+  private static void readSettings(DataInputStream input, Config config) throws IOException {
+    GitConfig gitConfig = config.getGitConfig();
+    gitConfig.setBinary(readString(input));
+    gitConfig.setSubmoduleJobs(input.readInt());
+    gitConfig.setRetries(input.readInt());
+
+    MaintenanceConfig maintenanceConfig = config.getMaintenanceConfig();
+    maintenanceConfig.setLooseObjects(input.readInt());
+    maintenanceConfig.setPacks(input.readInt());
+    maintenanceConfig.setConcurrency(input.readInt());
+
+    MirrorConfig mirrorConfig = config.getMirrorConfig();
+    String mirrorDirectory = readString(input);
+    mirrorConfig.setDirectory(null == mirrorDirectory ? null : new File(mirrorDirectory));
+    mirrorConfig.setInterval(input.readInt());
+
+    config.getIgnoredPaths().addAll(readStrings(input));
+
+    SelectionConfig selectionConfig = config.getSelectionConfig();
+    selectionConfig.setPaths(readStrings(input));
+    selectionConfig.setSources(readStrings(input));
+    selectionConfig.setLabels(readStrings(input));
+    selectionConfig.setDirty(input.readBoolean());
+    selectionConfig.setBehind(input.readBoolean());
+  }
+
+  private static void writeRepository(DataOutputStream output, RepositoryConfig repositoryConfig)
+      throws IOException {
+    writeString(output, repositoryConfig.getPath());
+    output.writeUTF(repositoryConfig.getName());
+    output.writeUTF(repositoryConfig.getUrl());
+    output.writeUTF(repositoryConfig.getStrategy().name());
+    writeString(output, repositoryConfig.getTagPattern());
+    output.writeUTF(repositoryConfig.getDirectory().getPath());
+    writeString(output, repositoryConfig.getSource());
+    writeStrings(output, repositoryConfig.getLabels());
+
+    output.writeInt(repositoryConfig.getRemotes().size());
+    for (Map.Entry<String, String> entry : repositoryConfig.getRemotes().entrySet()) {
+      output.writeUTF(entry.getKey());
+      output.writeUTF(entry.getValue());
+    }
+  }
+
+  private static RepositoryConfig readRepository(DataInputStream input) throws IOException {
+    String path = readString(input);
+    String name = input.readUTF();
+    String url = input.readUTF();
+    Strategy strategy = Strategy.valueOf(input.readUTF());
+    String tagPattern = readString(input);
+    File directory = new File(input.readUTF());
+    String source = readString(input);
+    List<String> labels = readStrings(input);
+
+    Map<String, String> remotes = new LinkedHashMap<>();
+    for (int count = input.readInt(); 0 < count; count--) {
+      remotes.put(input.readUTF(), input.readUTF());
+    }
+
+    RepositoryConfig repositoryConfig = new RepositoryConfig(path, name, url, strategy, directory);
+    repositoryConfig.setTagPattern(tagPattern);
+    repositoryConfig.setRemotes(remotes);
+    repositoryConfig.setSource(source);
+    repositoryConfig.setLabels(labels);
+    return repositoryConfig;
+  }
+
+  private static void writeString(DataOutputStream output, String value) throws IOException {
+    output.writeBoolean(null != value);
+    if (null != value) {
+      output.writeUTF(value);
+    }
+  }
+
+  private static String readString(DataInputStream input) throws IOException {
+    return input.readBoolean() ? input.readUTF() : null;
+  }
+
+  private static void writeStrings(DataOutputStream output, List<String> values) throws IOException {
+    output.writeInt(values.size());
+    for (String value : values) {
+      output.writeUTF(value);
+    }
+  }
+
+  private static List<String> readStrings(DataInputStream input) throws IOException {
+    List<String> values = new LinkedList<>();
+    for (int count = input.readInt(); 0 < count; count--) {
+      values.add(input.readUTF());
+    }
+    return values;
+  }
+
+  private static void copy(Config source, Config target) {
+    GitConfig gitConfig = target.getGitConfig();
+    gitConfig.setBinary(source.getGitConfig().getBinary());
+    gitConfig.setSubmoduleJobs(source.getGitConfig().getSubmoduleJobs());
+    gitConfig.setRetries(source.getGitConfig().getRetries());
+
+    MaintenanceConfig maintenanceConfig = target.getMaintenanceConfig();
+    maintenanceConfig.setLooseObjects(source.getMaintenanceConfig().getLooseObjects());
+    maintenanceConfig.setPacks(source.getMaintenanceConfig().getPacks());
+    maintenanceConfig.setConcurrency(source.getMaintenanceConfig().getConcurrency());
+
+    MirrorConfig mirrorConfig = target.getMirrorConfig();
+    mirrorConfig.setDirectory(source.getMirrorConfig().getDirectory());
+    mirrorConfig.setInterval(source.getMirrorConfig().getInterval());
+
+    SelectionConfig selectionConfig = target.getSelectionConfig();
+    selectionConfig.setPaths(source.getSelectionConfig().getPaths());
+    selectionConfig.setSources(source.getSelectionConfig().getSources());
+    selectionConfig.setLabels(source.getSelectionConfig().getLabels());
+    selectionConfig.setDirty(source.getSelectionConfig().isDirty());
+    selectionConfig.setBehind(source.getSelectionConfig().isBehind());
+
+    target.getIgnoredPaths().addAll(source.getIgnoredPaths());
+    target.getRepositories().addAll(source.getRepositories());
+  }
+
+  private static String workingDirectory() {
+    return Paths.get(".").toAbsolutePath().normalize().toString();
+  }
+
+  private static String canonicalPath(File configFile) throws IOException {
+    return configFile.getCanonicalPath();
+  }
+}
@@ -0,0 +1,115 @@
+package io.bit3.mgpm.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Everything a config was built from: the hashes of the read files and the modification times of the scanned
+ * directories.
+ *
+ * <p>A directory gets a new modification time when an entry is added or removed, a new included file or a new
+ * repository of a local source therefore changes the inputs as well.</p>
+ */
+public class ConfigInputs {
+  private final Map<Path, String> files = new LinkedHashMap<>();
+  private final Map<Path, Long> directories = new LinkedHashMap<>();
+  private volatile boolean remote = false;
+
+  public Map<Path, String> getFiles() {
+    return Collections.unmodifiableMap(files);
+  }
+
+  public Map<Path, Long> getDirectories() {
+    return Collections.unmodifiableMap(directories);
+  }
+
+  /**
+   * Whether a remote source, e.g. github, was asked for its repositories. They may change without any local input.
+   */
+  public boolean isRemote() {
+    return remote;
+  }
+
+  public void setRemote(boolean remote) {
+    this.remote = remote;
+  }
+
+  public synchronized void addFile(Path file, String hash) {
+    files.put(file.toAbsolutePath().normalize(), hash);
+  }
+
+  public synchronized void addDirectory(Path directory, long lastModified) {
+    directories.put(directory.toAbsolutePath().normalize(), lastModified);
+  }
+
+  /**
+   * Record the modification time of a scanned directory.
+   */
+  public void addDirectory(Path directory) throws IOException {
+    addDirectory(directory, Files.getLastModifiedTime(directory).toMillis());
+  }
+
+  /**
+   * Check whether all files still have the recorded hash and all directories the recorded modification time.
+   */
+  public boolean isUnchanged() {
+    try {
+      for (Map.Entry<Path, Long> entry : directories.entrySet()) {
+        if (!Files.isDirectory(entry.getKey())
+            || entry.getValue() != Files.getLastModifiedTime(entry.getKey()).toMillis()) {
+          return false;
+        }
+      }
+
+      for (Map.Entry<Path, String> entry : files.entrySet()) {
+        if (!Files.isRegularFile(entry.getKey()) || !entry.getValue().equals(hash(entry.getKey()))) {
+          return false;
+        }
+      }
+    } catch (IOException e) {
+      return false;
+    }
+
+    return true;
+  }
+
+  public static String hash(Path file) throws IOException {
+    MessageDigest digest = createDigest();
+
+    try (InputStream input = new DigestInputStream(Files.newInputStream(file), digest)) {
+      byte[] buffer = new byte[8192];
+      while (-1 != input.read(buffer)) {
+        // the digest is updated while reading
+      }
+    }
+
+    return toHex(digest.digest());
+  }
+
+  public static MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public static String toHex(byte[] digest) {
+    StringBuilder hex = new StringBuilder(2 * digest.length);
+
+    for (byte value : digest) {
+      hex.append(Character.forDigit((value >>> 4) & 0xf, 16));
+      hex.append(Character.forDigit(value & 0xf, 16));
+    }
+
+    return hex.toString();
+  }
+}
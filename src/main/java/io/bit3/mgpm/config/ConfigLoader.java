@@ -1,20 +1,100 @@
 package io.bit3.mgpm.config;
 
-import io.bit3.mgpm.config.parser.ConfigConstructor;
+import io.bit3.mgpm.config.parser.ConfigReader;
 
-import org.yaml.snakeyaml.Yaml;
-import org.yaml.snakeyaml.constructor.Constructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.IOException;
 
 public class ConfigLoader {
+  private final Logger logger = LoggerFactory.getLogger(ConfigLoader.class);
+  private ConfigCache cache;
+
+  /**
+   * The compiled config cache, null to always parse the config.
+   */
+  public ConfigCache getCache() {
+    return cache;
+  }
+
+  public void setCache(ConfigCache cache) {
+    this.cache = cache;
+  }
+
   public void load(Config config) throws FileNotFoundException {
     load(config, new File("mgpm.yml"));
   }
 
   public void load(Config config, File file) throws FileNotFoundException {
+    checkFile(file);
+
+    if (null != cache && cache.read(config, file)) {
+      return;
+    }
+
+    ConfigReader configReader = new ConfigReader(config);
+    configReader.readSettings(file.toPath());
+    configReader.readRepositories(file.toPath(), repositoryConfig -> {
+      // the constructor already added it to the config
+    });
+    writeCache(config, file, configReader.getInputs());
+  }
+
+  public RepositoryStream stream(Config config) throws FileNotFoundException {
+    return stream(config, new File("mgpm.yml"));
+  }
+
+  /**
+   * Load the settings and start reading the repositories in the background.
+   *
+   * <p>The returned stream yields the repositories as soon as they are read, so the first workers start while the
+   * rest of a large config is still read.</p>
+   */
+  public RepositoryStream stream(Config config, File file) throws FileNotFoundException {
+    checkFile(file);
+
+    RepositoryStream stream = new RepositoryStream();
+
+    if (null != cache && cache.read(config, file)) {
+      config.getRepositories().forEach(stream::add);
+      stream.finish();
+      return stream;
+    }
+
+    ConfigReader configReader = new ConfigReader(config);
+    configReader.readSettings(file.toPath());
+
+    Thread thread = new Thread(() -> {
+      try {
+        configReader.readRepositories(file.toPath(), stream::add);
+        writeCache(config, file, configReader.getInputs());
+        stream.finish();
+      } catch (RuntimeException e) {
+        stream.fail(e);
+      }
+    }, "config-loader");
+    thread.setDaemon(true);
+    thread.start();
+
+    return stream;
+  }
+
+  private void writeCache(Config config, File file, ConfigInputs inputs) {
+    if (null == cache) {
+      return;
+    }
+
+    try {
+      cache.write(config, file, inputs);
+    } catch (IOException e) {
+      logger.warn("could not write the config cache {}: {}", cache.getFile(), e.getMessage());
+    }
+  }
+
+  private void checkFile(File file) throws FileNotFoundException {
     if (!file.exists()) {
       throw new FileNotFoundException("Could not find configuration file " + file.getPath());
     }
@@ -30,14 +110,5 @@ public class ConfigLoader {
           String.format("Config path \"%s\" is not readable", file.getPath())
       );
     }
-
-    Constructor constructor = new ConfigConstructor(config);
-
-    Yaml yamlParser = new Yaml(constructor);
-    try {
-      yamlParser.load(new FileReader(file));
-    } catch (FileNotFoundException e) {
-      throw new RuntimeException(e);
-    }
   }
 }
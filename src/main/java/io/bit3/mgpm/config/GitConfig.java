@@ -2,6 +2,8 @@ package io.bit3.mgpm.config;
 
 public class GitConfig {
   private String binary;
+  private int submoduleJobs = 4;
+  private int retries = 2;
 
   public String getBinary() {
     return binary;
@@ -10,4 +12,26 @@ public class GitConfig {
   public void setBinary(String binary) {
     this.binary = binary;
   }
+
+  /**
+   * Amount of submodules fetched in parallel.
+   */
+  public int getSubmoduleJobs() {
+    return submoduleJobs;
+  }
+
+  public void setSubmoduleJobs(int submoduleJobs) {
+    this.submoduleJobs = submoduleJobs;
+  }
+
+  /**
+   * Amount of retries of a clone or fetch after a transient network failure.
+   */
+  public int getRetries() {
+    return retries;
+  }
+
+  public void setRetries(int retries) {
+    this.retries = retries;
+  }
 }
@@ -0,0 +1,40 @@
+package io.bit3.mgpm.config;
+
+public class MaintenanceConfig {
+  private int looseObjects = 6700;
+  private int packs = 50;
+  private int concurrency = 2;
+
+  /**
+   * Amount of loose objects from which on a repository is garbage collected.
+   */
+  public int getLooseObjects() {
+    return looseObjects;
+  }
+
+  public void setLooseObjects(int looseObjects) {
+    this.looseObjects = looseObjects;
+  }
+
+  /**
+   * Amount of packs from which on a repository is repacked.
+   */
+  public int getPacks() {
+    return packs;
+  }
+
+  public void setPacks(int packs) {
+    this.packs = packs;
+  }
+
+  /**
+   * Amount of repositories maintained at once.
+   */
+  public int getConcurrency() {
+    return concurrency;
+  }
+
+  public void setConcurrency(int concurrency) {
+    this.concurrency = concurrency;
+  }
+}
@@ -0,0 +1,34 @@
+package io.bit3.mgpm.config;
+
+import java.io.File;
+
+public class MirrorConfig {
+  private File directory = null;
+  private int interval = 300;
+
+  public boolean isEnabled() {
+    return null != directory;
+  }
+
+  /**
+   * Directory of the bare mirrors shared by all workspaces, mirrors are not used if null.
+   */
+  public File getDirectory() {
+    return directory;
+  }
+
+  public void setDirectory(File directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Minimum amount of seconds between two upstream fetches of a mirror.
+   */
+  public int getInterval() {
+    return interval;
+  }
+
+  public void setInterval(int interval) {
+    this.interval = interval;
+  }
+}
@@ -4,12 +4,22 @@ import org.apache.commons.lang.StringUtils;
 
 import java.io.File;
 import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 
 public class RepositoryConfig {
+  public static final String DEFAULT_TAG_PATTERN = "v?\\d+\\.\\d+\\.\\d+(-[0-9A-Za-z.-]+)?";
+
   private String path;
   private String name;
   private String url;
   private Strategy strategy;
+  private String tagPattern = DEFAULT_TAG_PATTERN;
+  private Map<String, String> remotes = new LinkedHashMap<>();
+  private String source;
+  private List<String> labels = new LinkedList<>();
   private File directory;
 
   public RepositoryConfig(String path, String name, String url, Strategy strategy) {
@@ -65,6 +75,50 @@ public class RepositoryConfig {
     this.strategy = strategy;
   }
 
+  /**
+   * Regular expression the tags must match, used by {@link Strategy#TAG}.
+   */
+  public String getTagPattern() {
+    return tagPattern;
+  }
+
+  public void setTagPattern(String tagPattern) {
+    this.tagPattern = tagPattern;
+  }
+
+  /**
+   * Remotes beside origin, by name to url, kept configured and fetched with every run.
+   */
+  public Map<String, String> getRemotes() {
+    return remotes;
+  }
+
+  public void setRemotes(Map<String, String> remotes) {
+    this.remotes = remotes;
+  }
+
+  /**
+   * The repositories entry this repository was declared by, its {@code source} key or else its type.
+   */
+  public String getSource() {
+    return source;
+  }
+
+  public void setSource(String source) {
+    this.source = source;
+  }
+
+  /**
+   * Free-form labels of the repositories entry, e.g. to select a group of repositories.
+   */
+  public List<String> getLabels() {
+    return labels;
+  }
+
+  public void setLabels(List<String> labels) {
+    this.labels = labels;
+  }
+
   public File getDirectory() {
     if (null == directory) {
       directory = new File(Paths.get(".").toAbsolutePath().normalize().toString(), name);
@@ -0,0 +1,76 @@
+package io.bit3.mgpm.config;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The repositories of a config, in the order they are read by a background loader.
+ *
+ * <p>The iterator blocks until the next repository is read and rethrows the failure of the loader. It can be
+ * iterated once, afterwards {@link Config#getRepositories()} holds all repositories.</p>
+ */
+public class RepositoryStream implements Iterable<RepositoryConfig> {
+  private static final RepositoryConfig END = new RepositoryConfig(null, null, null, null);
+
+  private final BlockingQueue<RepositoryConfig> queue = new LinkedBlockingQueue<>();
+  private volatile RuntimeException failure;
+
+  void add(RepositoryConfig repositoryConfig) {
+    queue.add(repositoryConfig);
+  }
+
+  void finish() {
+    queue.add(END);
+  }
+
+  void fail(RuntimeException failure) {
+    this.failure = failure;
+    queue.add(END);
+  }
+
+  @Override
+  public Iterator<RepositoryConfig> iterator() {
+    return new Iterator<RepositoryConfig>() {
+      private RepositoryConfig next;
+
+      @Override
+      public boolean hasNext() {
+        if (null == next) {
+          try {
+            next = queue.take();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+          }
+        }
+
+        if (END != next) {
+          return true;
+        }
+
+        // keep the end marker for further calls
+        queue.add(END);
+        next = null;
+
+        if (null != failure) {
+          throw failure;
+        }
+
+        return false;
+      }
+
+      @Override
+      public RepositoryConfig next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        RepositoryConfig repositoryConfig = next;
+        next = null;
+        return repositoryConfig;
+      }
+    };
+  }
+}
@@ -0,0 +1,68 @@
+package io.bit3.mgpm.config;
+
+import java.util.LinkedList;
+import java.util.List;
+
+public class SelectionConfig {
+  private List<String> paths = new LinkedList<>();
+  private List<String> sources = new LinkedList<>();
+  private List<String> labels = new LinkedList<>();
+  private boolean dirty = false;
+  private boolean behind = false;
+
+  /**
+   * Glob patterns of path names, a repository must match one of them. A pattern without wildcards selects the path
+   * name itself and everything below it.
+   */
+  public List<String> getPaths() {
+    return paths;
+  }
+
+  public void setPaths(List<String> paths) {
+    this.paths = paths;
+  }
+
+  /**
+   * Sources of the repositories entries, a repository must come from one of them.
+   */
+  public List<String> getSources() {
+    return sources;
+  }
+
+  public void setSources(List<String> sources) {
+    this.sources = sources;
+  }
+
+  /**
+   * Labels, a repository must have one of them.
+   */
+  public List<String> getLabels() {
+    return labels;
+  }
+
+  public void setLabels(List<String> labels) {
+    this.labels = labels;
+  }
+
+  /**
+   * Select only repositories with uncommitted changes in the last run.
+   */
+  public boolean isDirty() {
+    return dirty;
+  }
+
+  public void setDirty(boolean dirty) {
+    this.dirty = dirty;
+  }
+
+  /**
+   * Select only repositories with a branch behind its upstream in the last run.
+   */
+  public boolean isBehind() {
+    return behind;
+  }
+
+  public void setBehind(boolean behind) {
+    this.behind = behind;
+  }
+}
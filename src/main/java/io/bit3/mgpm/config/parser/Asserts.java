@@ -40,6 +40,14 @@ public class Asserts {
     }
   }
 
+  public static void assertIsInteger(Object object, String message, Object... arguments) {
+    if (!(object instanceof Integer)) {
+      throw new InvalidConfigException(
+          String.format(message, arguments)
+      );
+    }
+  }
+
   public static void assertIsList(Object object, String message, Object... arguments) {
     if (!(object instanceof List)) {
       throw new InvalidConfigException(
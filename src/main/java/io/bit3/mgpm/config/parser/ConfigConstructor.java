@@ -2,6 +2,7 @@ package io.bit3.mgpm.config.parser;
 
 import static io.bit3.mgpm.config.parser.Asserts.assertEndsWith;
 import static io.bit3.mgpm.config.parser.Asserts.assertIsBoolean;
+import static io.bit3.mgpm.config.parser.Asserts.assertIsInteger;
 import static io.bit3.mgpm.config.parser.Asserts.assertIsList;
 import static io.bit3.mgpm.config.parser.Asserts.assertIsMap;
 import static io.bit3.mgpm.config.parser.Asserts.assertIsString;
@@ -11,10 +12,14 @@ import static io.bit3.mgpm.config.parser.Asserts.assertStartsWith;
 import static io.bit3.mgpm.config.parser.Asserts.assertPath;
 
 import io.bit3.mgpm.config.Config;
+import io.bit3.mgpm.config.ConfigInputs;
 import io.bit3.mgpm.config.GitConfig;
 import io.bit3.mgpm.config.GithubConfig;
 import io.bit3.mgpm.config.InvalidConfigException;
+import io.bit3.mgpm.config.MaintenanceConfig;
+import io.bit3.mgpm.config.MirrorConfig;
 import io.bit3.mgpm.config.RepositoryConfig;
+import io.bit3.mgpm.config.SelectionConfig;
 import io.bit3.mgpm.config.Strategy;
 
 import org.apache.commons.lang.StringUtils;
@@ -38,46 +43,133 @@ import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 
 public class ConfigConstructor extends Constructor {
+  private static final Pattern ORIGIN_SECTION_PATTERN = Pattern.compile("\\[\\s*remote\\s+\"origin\"\\s*\\]");
+  private static final Pattern URL_PATTERN = Pattern.compile("url\\s*=(.*)");
+
   private final Config config;
+  private final File workingDirectory;
+  private final ConstructConfig constructConfig;
+  private ConfigInputs inputs = new ConfigInputs();
 
   public ConfigConstructor(Config config) {
     this.config = config;
+    this.workingDirectory = new File(Paths.get(".").toAbsolutePath().normalize().toString());
+    this.constructConfig = new ConstructConfig();
 
     this.rootTag = new Tag(Config.class);
-    this.yamlConstructors.put(this.rootTag, new ConstructConfig());
+    this.yamlConstructors.put(this.rootTag, constructConfig);
+  }
+
+  /**
+   * Record the directories scanned by local sources and the use of remote sources into the given inputs.
+   */
+  void setInputs(ConfigInputs inputs) {
+    this.inputs = inputs;
+  }
+
+  /**
+   * Apply all root level sections except the repositories, absent sections get their defaults.
+   */
+  void configureSettings(Map<Object, Object> map) {
+    constructConfig.configureSettings(map);
+  }
+
+  /**
+   * Apply one entry of the repositories list and return the repositories it declares.
+   */
+  List<RepositoryConfig> configureRepository(Object item, int repositoryIndex) {
+    return constructConfig.configureRepository(config, repositoryIndex, constructConfig.castRepositoryValue(
+        item, repositoryIndex));
   }
 
   private class ConstructConfig extends AbstractConstruct {
     public Object construct(Node node) {
       Map<Object, Object> map = castConfigRootValue(node);
+      configureSettings(map);
+
+      // repositories
+      List<Object> repositories = castRepositoriesValue(map.get("repositories"));
+      configureRepositories(config, repositories);
+
+      return config;
+    }
 
+    private void configureSettings(Map<Object, Object> map) {
       // git
-      Map<String, Object> gitConfig = castGitConfigValue(map.get("github"));
+      Map<String, Object> gitConfig = castGitConfigValue(map.get("git"));
       configureGit(config, gitConfig);
 
       // github
       Map<String, Object> githubConfig = castGithubConfigValue(map.get("github"));
       configureGithub(config, githubConfig);
 
-      // repositories
-      List<Object> repositories = castRepositoriesValue(map.get("repositories"));
-      configureRepositories(config, repositories);
+      // maintenance
+      Map<String, Object> maintenanceConfig = castMaintenanceConfigValue(map.get("maintenance"));
+      configureMaintenance(config, maintenanceConfig);
 
-      return config;
+      // mirror
+      Map<String, Object> mirrorConfig = castMirrorConfigValue(map.get("mirror"));
+      configureMirror(config, mirrorConfig);
+
+      // ignore
+      List<Object> ignoredPaths = castIgnoreValue(map.get("ignore"));
+      configureIgnoredPaths(config, ignoredPaths);
+
+      // select
+      Map<String, Object> selectionConfig = castSelectionConfigValue(map.get("select"));
+      configureSelection(config, selectionConfig);
     }
 
     private void configureGit(Config config, Map<String, Object> map) {
       GitConfig gitConfig = config.getGitConfig();
       gitConfig.setBinary(castGitConfigBinaryValue(map.get("bin")));
+      gitConfig.setSubmoduleJobs(castGitConfigSubmoduleJobsValue(map.get("submoduleJobs")));
+      gitConfig.setRetries(castGitConfigRetriesValue(map.get("retries")));
+    }
+
+    private void configureMaintenance(Config config, Map<String, Object> map) {
+      MaintenanceConfig maintenanceConfig = config.getMaintenanceConfig();
+      maintenanceConfig.setLooseObjects(castMaintenanceConfigLooseObjectsValue(map.get("looseObjects")));
+      maintenanceConfig.setPacks(castMaintenanceConfigPacksValue(map.get("packs")));
+      maintenanceConfig.setConcurrency(castMaintenanceConfigConcurrencyValue(map.get("concurrency")));
+    }
+
+    private void configureMirror(Config config, Map<String, Object> map) {
+      MirrorConfig mirrorConfig = config.getMirrorConfig();
+      mirrorConfig.setDirectory(castMirrorConfigDirectoryValue(map.get("directory")));
+      mirrorConfig.setInterval(castMirrorConfigIntervalValue(map.get("interval")));
+    }
+
+    private void configureSelection(Config config, Map<String, Object> map) {
+      SelectionConfig selectionConfig = config.getSelectionConfig();
+      selectionConfig.setPaths(castSelectionConfigListValue(map.get("paths"), "paths"));
+      selectionConfig.setSources(castSelectionConfigListValue(map.get("sources"), "sources"));
+      selectionConfig.setLabels(castSelectionConfigListValue(map.get("labels"), "labels"));
+      selectionConfig.setDirty(castSelectionConfigFlagValue(map.get("dirty"), "dirty"));
+      selectionConfig.setBehind(castSelectionConfigFlagValue(map.get("behind"), "behind"));
+    }
+
+    private void configureIgnoredPaths(Config config, List<Object> ignoredPaths) {
+      for (int index = 0; index < ignoredPaths.size(); index++) {
+        config.getIgnoredPaths().add(castIgnoredPathValue(ignoredPaths.get(index), index));
+      }
     }
 
     private void configureGithub(Config config, Map<String, Object> map) {
@@ -93,32 +185,63 @@ public class ConfigConstructor extends Constructor {
       }
     }
 
-    private void configureRepository(Config config, int repositoryIndex, Map<Object, Object> map) {
+    private List<RepositoryConfig> configureRepository(Config config, int repositoryIndex,
+                                                       Map<Object, Object> map) {
       String type = castRepositoryTypeValue(map.get("type"), repositoryIndex);
+      Strategy strategy = castRepositoryStrategyValue(map.get("strategy"), repositoryIndex);
+      String tagPattern = castRepositoryTagPatternValue(map.get("tagPattern"), repositoryIndex);
+      Map<String, String> remotes = castRepositoryRemotesValue(map.get("remotes"), repositoryIndex);
+      String source = castRepositorySourceValue(map.get("source"), repositoryIndex, type);
+      List<String> labels = castRepositoryLabelsValue(map.get("labels"), repositoryIndex);
+      int firstRepository = config.getRepositories().size();
 
       if ("git".equals(type)) {
         configureGitRepository(config, repositoryIndex, map);
-        return;
-      }
-
-      if ("cgit".equals(type)) {
+      } else if ("cgit".equals(type)) {
+        inputs.setRemote(true);
         configureCgitRepositories(config, repositoryIndex, map);
-        return;
+      } else if ("github".equals(type)) {
+        inputs.setRemote(true);
+        configureGithubRepositories(config, repositoryIndex, map);
+      } else if ("gitlab".equals(type)) {
+        inputs.setRemote(true);
+        configureGitlabRepositories(config, repositoryIndex, map);
+      } else if ("local".equals(type)) {
+        configureLocalRepositories(config, repositoryIndex, map);
+      } else {
+        throw new InvalidConfigException(
+            String.format("repsitories[%d].type the type \"%s\" is not known", repositoryIndex, type)
+        );
       }
 
-      if ("github".equals(type)) {
-        configureGithubRepositories(config, repositoryIndex, map);
-        return;
+      // the strategy, remotes, source and labels apply to all repositories of this entry
+      List<RepositoryConfig> repositoryConfigs = config.getRepositories();
+      List<RepositoryConfig> entryRepositoryConfigs = new ArrayList<>(
+          repositoryConfigs.subList(firstRepository, repositoryConfigs.size()));
+      for (RepositoryConfig repositoryConfig : entryRepositoryConfigs) {
+        repositoryConfig.setStrategy(strategy);
+        repositoryConfig.setTagPattern(tagPattern);
+        repositoryConfig.setRemotes(expandRemoteUrls(remotes, repositoryConfig));
+        repositoryConfig.setSource(source);
+        repositoryConfig.setLabels(labels);
       }
 
-      if ("gitlab".equals(type)) {
-        configureGitlabRepositories(config, repositoryIndex, map);
-        return;
+      return entryRepositoryConfigs;
+    }
+
+    /**
+     * Replace the {name} and {path} placeholders, a source entry declares the remotes of all its repositories.
+     */
+    private Map<String, String> expandRemoteUrls(Map<String, String> remotes, RepositoryConfig repositoryConfig) {
+      Map<String, String> expandedRemotes = new LinkedHashMap<>();
+
+      for (Map.Entry<String, String> entry : remotes.entrySet()) {
+        expandedRemotes.put(entry.getKey(), entry.getValue()
+            .replace("{name}", repositoryConfig.getName())
+            .replace("{path}", repositoryConfig.getPathName()));
       }
 
-      throw new InvalidConfigException(
-          String.format("repsitories[%d].type the type \"%s\" is not known", repositoryIndex, type)
-      );
+      return expandedRemotes;
     }
 
     private void configureGitRepository(Config config, int repositoryIndex, Map<Object, Object> map) {
@@ -126,7 +249,7 @@ public class ConfigConstructor extends Constructor {
       String name = castRepositoryNameValue(map.get("name"), repositoryIndex);
       String path = castRepositoryPathValue(map.get("path"), repositoryIndex);
 
-      File parentDir = new File(Paths.get(".").toAbsolutePath().normalize().toString());
+      File parentDir = workingDirectory;
       if (StringUtils.isNotEmpty(path)) {
         parentDir = new File(parentDir, path);
       }
@@ -149,7 +272,7 @@ public class ConfigConstructor extends Constructor {
       final String join = castCgitJoinValue(map.get("join"), repositoryIndex);
       final String path = castCgitPathValue(map.get("path"), repositoryIndex);
 
-      File parentDir = new File(Paths.get(".").toAbsolutePath().normalize().toString());
+      File parentDir = workingDirectory;
       if (StringUtils.isNotEmpty(path)) {
         parentDir = new File(parentDir, path);
       }
@@ -196,7 +319,7 @@ public class ConfigConstructor extends Constructor {
 
       List<Repository> repositories = fetchGithubRepositories(config, owner, namePattern);
 
-      File parentDir = new File(Paths.get(".").toAbsolutePath().normalize().toString());
+      File parentDir = workingDirectory;
       if (StringUtils.isNotEmpty(path)) {
         parentDir = new File(parentDir, path);
       }
@@ -256,7 +379,7 @@ public class ConfigConstructor extends Constructor {
 
       projects.sort((p1, p2) -> p1.getName().compareToIgnoreCase(p2.getName()));
 
-      Path parentDirPath = Paths.get(".").toAbsolutePath().normalize();
+      Path parentDirPath = workingDirectory.toPath();
       if (StringUtils.isNotEmpty(path)) {
         parentDirPath = parentDirPath.resolve(path);
       }
@@ -300,6 +423,73 @@ public class ConfigConstructor extends Constructor {
       }
     }
 
+    /**
+     * Declare the already cloned repositories below the working directory whose path matches the glob.
+     */
+    private void configureLocalRepositories(Config config, int repositoryIndex, Map<Object, Object> map) {
+      String glob = castLocalGlobValue(map.get("glob"), repositoryIndex);
+      Path workingDirectoryPath = workingDirectory.toPath();
+
+      List<Path> directories;
+      try {
+        directories = PathGlob.match(workingDirectoryPath, glob, inputs,
+            directory -> null != readOriginUrl(directory));
+      } catch (IOException e) {
+        throw new InvalidConfigException(
+            String.format("repsitories[%d].glob could not be scanned: %s", repositoryIndex, e.getMessage()),
+            e
+        );
+      }
+
+      for (Path directory : directories) {
+        Path relativeParent = workingDirectoryPath.relativize(directory).getParent();
+        String path = null == relativeParent ? "" : relativeParent.toString().replace(File.separatorChar, '/');
+
+        RepositoryConfig repositoryConfig = new RepositoryConfig(
+            path,
+            directory.getFileName().toString(),
+            readOriginUrl(directory),
+            Strategy.HEAD,
+            directory.toFile()
+        );
+
+        config.getRepositories().add(repositoryConfig);
+      }
+    }
+
+    /**
+     * Read the url of the origin remote from the git config, null if the directory is no clone.
+     */
+    private String readOriginUrl(Path directory) {
+      Path gitConfig = directory.resolve(".git").resolve("config");
+
+      if (!Files.isRegularFile(gitConfig)) {
+        return null;
+      }
+
+      try {
+        boolean originSection = false;
+
+        for (String line : Files.readAllLines(gitConfig, StandardCharsets.UTF_8)) {
+          line = line.trim();
+
+          if (line.startsWith("[")) {
+            originSection = ORIGIN_SECTION_PATTERN.matcher(line).matches();
+          } else if (originSection) {
+            Matcher matcher = URL_PATTERN.matcher(line);
+
+            if (matcher.matches()) {
+              return matcher.group(1).trim();
+            }
+          }
+        }
+      } catch (IOException e) {
+        // an unreadable clone is skipped like any other directory
+      }
+
+      return null;
+    }
+
     private Map<Object, Object> castConfigRootValue(Node node) {
       if (!NodeId.mapping.equals(node.getNodeId())) {
         throw new InvalidConfigException("Config must be a map on root-level");
@@ -329,6 +519,34 @@ public class ConfigConstructor extends Constructor {
       return (String) object;
     }
 
+    private int castGitConfigSubmoduleJobsValue(Object object) {
+      if (null == object) {
+        return 4;
+      }
+
+      assertIsInteger(object, "git.submoduleJobs must be a number");
+
+      if (1 > (Integer) object) {
+        throw new InvalidConfigException("git.submoduleJobs must be a positive number");
+      }
+
+      return (Integer) object;
+    }
+
+    private int castGitConfigRetriesValue(Object object) {
+      if (null == object) {
+        return 2;
+      }
+
+      assertIsInteger(object, "git.retries must be a number");
+
+      if (0 > (Integer) object) {
+        throw new InvalidConfigException("git.retries must not be negative");
+      }
+
+      return (Integer) object;
+    }
+
     private Map<String, Object> castGithubConfigValue(Object object) {
       if (null == object) {
         return Collections.emptyMap();
@@ -360,6 +578,153 @@ public class ConfigConstructor extends Constructor {
       return (List<Object>) object;
     }
 
+    private Map<String, Object> castMaintenanceConfigValue(Object object) {
+      if (null == object) {
+        return Collections.emptyMap();
+      }
+
+      assertIsMap(object, "maintenance must be a map");
+
+      return (Map<String, Object>) object;
+    }
+
+    private int castMaintenanceConfigLooseObjectsValue(Object object) {
+      if (null == object) {
+        return 6700;
+      }
+
+      assertIsInteger(object, "maintenance.looseObjects must be a number");
+
+      if (1 > (Integer) object) {
+        throw new InvalidConfigException("maintenance.looseObjects must be a positive number");
+      }
+
+      return (Integer) object;
+    }
+
+    private int castMaintenanceConfigPacksValue(Object object) {
+      if (null == object) {
+        return 50;
+      }
+
+      assertIsInteger(object, "maintenance.packs must be a number");
+
+      if (1 > (Integer) object) {
+        throw new InvalidConfigException("maintenance.packs must be a positive number");
+      }
+
+      return (Integer) object;
+    }
+
+    private int castMaintenanceConfigConcurrencyValue(Object object) {
+      if (null == object) {
+        return 2;
+      }
+
+      assertIsInteger(object, "maintenance.concurrency must be a number");
+
+      if (1 > (Integer) object) {
+        throw new InvalidConfigException("maintenance.concurrency must be a positive number");
+      }
+
+      return (Integer) object;
+    }
+
+    private Map<String, Object> castMirrorConfigValue(Object object) {
+      if (null == object) {
+        return Collections.emptyMap();
+      }
+
+      assertIsMap(object, "mirror must be a map");
+
+      return (Map<String, Object>) object;
+    }
+
+    private File castMirrorConfigDirectoryValue(Object object) {
+      if (null == object) {
+        return null;
+      }
+
+      assertIsString(object, "mirror.directory must be a string");
+      assertNotEmpty(object, "mirror.directory must not be empty");
+
+      String directory = (String) object;
+      if ("~".equals(directory) || directory.startsWith("~/")) {
+        directory = System.getProperty("user.home") + directory.substring(1);
+      }
+
+      return Paths.get(directory).toAbsolutePath().normalize().toFile();
+    }
+
+    private int castMirrorConfigIntervalValue(Object object) {
+      if (null == object) {
+        return 300;
+      }
+
+      assertIsInteger(object, "mirror.interval must be a number");
+
+      if (0 > (Integer) object) {
+        throw new InvalidConfigException("mirror.interval must not be negative");
+      }
+
+      return (Integer) object;
+    }
+
+    private Map<String, Object> castSelectionConfigValue(Object object) {
+      if (null == object) {
+        return Collections.emptyMap();
+      }
+
+      assertIsMap(object, "select must be a map");
+
+      return (Map<String, Object>) object;
+    }
+
+    private List<String> castSelectionConfigListValue(Object object, String key) {
+      if (null == object) {
+        return new LinkedList<>();
+      }
+
+      assertIsList(object, "select.%s must be a list", key);
+
+      List<String> values = new LinkedList<>();
+      List<Object> list = (List<Object>) object;
+      for (int index = 0; index < list.size(); index++) {
+        assertNotEmpty(list.get(index), "select.%s[%d] must not be empty", key, index);
+        assertIsString(list.get(index), "select.%s[%d] must be a string", key, index);
+        values.add((String) list.get(index));
+      }
+
+      return values;
+    }
+
+    private boolean castSelectionConfigFlagValue(Object object, String key) {
+      if (null == object) {
+        return false;
+      }
+
+      assertIsBoolean(object, "select.%s must be a boolean", key);
+
+      return (Boolean) object;
+    }
+
+    private List<Object> castIgnoreValue(Object object) {
+      if (null == object) {
+        return Collections.emptyList();
+      }
+
+      assertIsList(object, "ignore must be a list");
+
+      return (List<Object>) object;
+    }
+
+    private String castIgnoredPathValue(Object object, int index) {
+      assertNotEmpty(object, "ignore[%d] must not be empty", index);
+      assertIsString(object, "ignore[%d] must be a string", index);
+
+      return (String) object;
+    }
+
     private Map<Object, Object> castRepositoryValue(Object object, int repositoryIndex) {
       assertNotEmpty(object, "repsitories[%d] must not be empty", repositoryIndex);
       assertIsMap(object, "repsitories[%d] must be a map", repositoryIndex);
@@ -374,6 +739,102 @@ public class ConfigConstructor extends Constructor {
       return (String) object;
     }
 
+    private Strategy castRepositoryStrategyValue(Object object, int repositoryIndex) {
+      if (null == object) {
+        return Strategy.HEAD;
+      }
+
+      assertIsString(object, "repsitories[%d].strategy must be a string", repositoryIndex);
+
+      try {
+        return Strategy.valueOf(((String) object).toUpperCase());
+      } catch (IllegalArgumentException e) {
+        throw new InvalidConfigException(
+            String.format("repsitories[%d].strategy must be head or tag", repositoryIndex),
+            e
+        );
+      }
+    }
+
+    private String castRepositorySourceValue(Object object, int repositoryIndex, String type) {
+      if (null == object) {
+        return type;
+      }
+
+      assertNotEmpty(object, "repsitories[%d].source must not be empty", repositoryIndex);
+      assertIsString(object, "repsitories[%d].source must be a string", repositoryIndex);
+
+      return (String) object;
+    }
+
+    private List<String> castRepositoryLabelsValue(Object object, int repositoryIndex) {
+      if (null == object) {
+        return new LinkedList<>();
+      }
+
+      assertIsList(object, "repsitories[%d].labels must be a list", repositoryIndex);
+
+      List<String> labels = new LinkedList<>();
+      List<Object> list = (List<Object>) object;
+      for (int index = 0; index < list.size(); index++) {
+        assertNotEmpty(list.get(index), "repsitories[%d].labels[%d] must not be empty", repositoryIndex, index);
+        assertIsString(list.get(index), "repsitories[%d].labels[%d] must be a string", repositoryIndex, index);
+        labels.add((String) list.get(index));
+      }
+
+      return labels;
+    }
+
+    private Map<String, String> castRepositoryRemotesValue(Object object, int repositoryIndex) {
+      if (null == object) {
+        return Collections.emptyMap();
+      }
+
+      assertIsMap(object, "repsitories[%d].remotes must be a map", repositoryIndex);
+
+      Map<String, String> remotes = new LinkedHashMap<>();
+      for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) object).entrySet()) {
+        assertIsString(entry.getKey(), "repsitories[%d].remotes keys must be strings", repositoryIndex);
+        assertMatch((String) entry.getKey(), "[\\w.\\-]+",
+            "repsitories[%d].remotes.%s is not a valid remote name", repositoryIndex, entry.getKey());
+
+        if ("origin".equals(entry.getKey())) {
+          throw new InvalidConfigException(
+              String.format("repsitories[%d].remotes.origin is reserved, use url instead", repositoryIndex)
+          );
+        }
+
+        assertNotEmpty(entry.getValue(), "repsitories[%d].remotes.%s must not be empty", repositoryIndex,
+            entry.getKey());
+        assertIsString(entry.getValue(), "repsitories[%d].remotes.%s must be a string", repositoryIndex,
+            entry.getKey());
+
+        remotes.put((String) entry.getKey(), (String) entry.getValue());
+      }
+
+      return remotes;
+    }
+
+    private String castRepositoryTagPatternValue(Object object, int repositoryIndex) {
+      if (null == object) {
+        return RepositoryConfig.DEFAULT_TAG_PATTERN;
+      }
+
+      assertIsString(object, "repsitories[%d].tagPattern must be a string", repositoryIndex);
+      assertNotEmpty(object, "repsitories[%d].tagPattern must not be empty", repositoryIndex);
+
+      try {
+        Pattern.compile((String) object);
+      } catch (PatternSyntaxException e) {
+        throw new InvalidConfigException(
+            String.format("repsitories[%d].tagPattern must be a valid regular expression", repositoryIndex),
+            e
+        );
+      }
+
+      return (String) object;
+    }
+
     private String castRepositoryUrlValue(Object object, int repositoryIndex) {
       assertNotEmpty(object, "repsitories[%d].url must not be empty", repositoryIndex);
       assertIsString(object, "repsitories[%d].url must be a string", repositoryIndex);
@@ -524,6 +985,20 @@ public class ConfigConstructor extends Constructor {
       return (Boolean) object;
     }
 
+    private String castLocalGlobValue(Object object, int repositoryIndex) {
+      assertNotEmpty(object, "repsitories[%d].glob must not be empty", repositoryIndex);
+      assertIsString(object, "repsitories[%d].glob must be a string", repositoryIndex);
+
+      String glob = (String) object;
+      if (glob.startsWith("/") || Arrays.asList(glob.split("/+")).contains("..")) {
+        throw new InvalidConfigException(
+            String.format("repsitories[%d].glob must be relative to the working directory", repositoryIndex)
+        );
+      }
+
+      return glob;
+    }
+
     private String castGitlabPathValue(Object object, int repositoryIndex) {
       if (null == object) {
         object = "";
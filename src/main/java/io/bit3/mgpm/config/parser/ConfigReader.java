@@ -0,0 +1,462 @@
+package io.bit3.mgpm.config.parser;
+
+import static io.bit3.mgpm.config.parser.Asserts.assertIsList;
+import static io.bit3.mgpm.config.parser.Asserts.assertIsString;
+import static io.bit3.mgpm.config.parser.Asserts.assertNotEmpty;
+
+import io.bit3.mgpm.config.Config;
+import io.bit3.mgpm.config.ConfigInputs;
+import io.bit3.mgpm.config.InvalidConfigException;
+import io.bit3.mgpm.config.RepositoryConfig;
+
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Read the config from the YAML event stream, without building a node tree of the whole document.
+ *
+ * <p>Only one entry of the repositories list is held in memory at a time, each is configured and passed on as soon
+ * as its last event is read. The settings sections may follow the repositories in the document, so they are read in
+ * a separate pass first, see {@link #readSettings(Path)}. Validation is shared with {@link ConfigConstructor}.</p>
+ *
+ * <p>Files listed in {@code include} are read in place of the directive, relative to the including file and in
+ * sorted order if a glob matches multiple files. They may only contain repositories, ignored paths and further
+ * includes. Every read file and scanned directory is recorded into the {@link ConfigInputs}.</p>
+ */
+public class ConfigReader {
+  private static final String REPOSITORIES_KEY = "repositories";
+  private static final String INCLUDE_KEY = "include";
+  private static final String IGNORE_KEY = "ignore";
+
+  private final ConfigConstructor constructor;
+  private final ConfigInputs inputs;
+  private final Resolver resolver = new Resolver();
+  private final Set<Path> readFiles = new HashSet<>();
+  private final Set<Path> openFiles = new HashSet<>();
+  private Map<String, Object> anchors = new HashMap<>();
+  private Iterator<Event> events;
+
+  public ConfigReader(Config config) {
+    this(config, new ConfigInputs());
+  }
+
+  public ConfigReader(Config config, ConfigInputs inputs) {
+    this.constructor = new ConfigConstructor(config);
+    this.constructor.setInputs(inputs);
+    this.inputs = inputs;
+  }
+
+  public ConfigInputs getInputs() {
+    return inputs;
+  }
+
+  /**
+   * Apply all root level sections except the repositories.
+   */
+  public void readSettings(Path file) {
+    Map<Object, Object> settings = new LinkedHashMap<>();
+    List<Object> includedIgnoredPaths = new ArrayList<>();
+
+    readFiles.clear();
+    readFile(file, false, (key, value) -> settings.put(key, value), (key, value) -> {
+      if (IGNORE_KEY.equals(key)) {
+        assertIsList(value, "ignore must be a list");
+        includedIgnoredPaths.addAll((List<?>) value);
+      }
+    }, null);
+
+    // the ignored paths of all files add up
+    if (!includedIgnoredPaths.isEmpty()) {
+      Object ignoredPaths = settings.get(IGNORE_KEY);
+
+      if (null == ignoredPaths || ignoredPaths instanceof List) {
+        List<Object> allIgnoredPaths = new ArrayList<>();
+        if (null != ignoredPaths) {
+          allIgnoredPaths.addAll((List<?>) ignoredPaths);
+        }
+        allIgnoredPaths.addAll(includedIgnoredPaths);
+        settings.put(IGNORE_KEY, allIgnoredPaths);
+      }
+    }
+
+    constructor.configureSettings(settings);
+  }
+
+  /**
+   * Configure the entries of the repositories lists one by one and pass each declared repository to the consumer.
+   */
+  public void readRepositories(Path file, Consumer<RepositoryConfig> consumer) {
+    readFiles.clear();
+    readFile(file, false, (key, value) -> {
+      // settings are applied by readSettings
+    }, (key, value) -> {
+      // ignored paths are applied by readSettings
+    }, consumer);
+  }
+
+  private void readFile(Path file, boolean included, SectionConsumer sectionConsumer,
+                        SectionConsumer includedSectionConsumer, Consumer<RepositoryConfig> consumer) {
+    Path normalizedFile = file.toAbsolutePath().normalize();
+
+    if (openFiles.contains(normalizedFile)) {
+      throw new InvalidConfigException(String.format("%s includes itself", file));
+    }
+
+    if (!readFiles.add(normalizedFile)) {
+      // already read through another include
+      return;
+    }
+
+    Iterator<Event> outerEvents = events;
+    Map<String, Object> outerAnchors = anchors;
+    int[] repositoryIndex = {0};
+    MessageDigest digest = ConfigInputs.createDigest();
+    openFiles.add(normalizedFile);
+
+    try (InputStream input = new DigestInputStream(Files.newInputStream(normalizedFile), digest);
+         Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+      events = new Yaml().parse(reader).iterator();
+      anchors = new HashMap<>();
+
+      readRoot(normalizedFile, included ? includedSectionConsumer : sectionConsumer, null == consumer ? null : item -> {
+        for (RepositoryConfig repositoryConfig : constructor.configureRepository(item, repositoryIndex[0]++)) {
+          consumer.accept(repositoryConfig);
+        }
+      }, included, includedFile -> readFile(includedFile, true, sectionConsumer, includedSectionConsumer, consumer));
+
+      // hash the whole file, even if the parser stopped early
+      byte[] buffer = new byte[8192];
+      while (-1 != input.read(buffer)) {
+        // the digest is updated while reading
+      }
+      inputs.addFile(normalizedFile, ConfigInputs.toHex(digest.digest()));
+    } catch (IOException e) {
+      throw new InvalidConfigException(String.format("could not read %s: %s", file, e.getMessage()), e);
+    } catch (InvalidConfigException e) {
+      if (!included) {
+        throw e;
+      }
+
+      throw new InvalidConfigException(String.format("%s: %s", file, e.getMessage()), e);
+    } finally {
+      openFiles.remove(normalizedFile);
+      events = outerEvents;
+      anchors = outerAnchors;
+    }
+  }
+
+  /**
+   * @param repositoryConsumer Consumer of the repository entries, the entries are skipped if null.
+   */
+  private void readRoot(Path file, SectionConsumer sectionConsumer, Consumer<Object> repositoryConsumer,
+                        boolean included, Consumer<Path> includeConsumer) {
+    next(Event.ID.StreamStart);
+    Event event = events.next();
+
+    if (event.is(Event.ID.StreamEnd)) {
+      // an empty document configures nothing
+      return;
+    }
+
+    event = events.next();
+    if (!event.is(Event.ID.MappingStart)) {
+      throw new InvalidConfigException("Config must be a map on root-level");
+    }
+
+    while (true) {
+      event = events.next();
+
+      if (event.is(Event.ID.MappingEnd)) {
+        break;
+      }
+
+      Object key = readValue(event);
+
+      if (REPOSITORIES_KEY.equals(key)) {
+        readRepositoryList(repositoryConsumer);
+      } else if (INCLUDE_KEY.equals(key)) {
+        for (Path includedFile : resolveIncludes(file, readValue(events.next()))) {
+          includeConsumer.accept(includedFile);
+        }
+      } else if (included && !IGNORE_KEY.equals(key)) {
+        throw new InvalidConfigException(String.format(
+            "%s is not allowed in an included file, only repositories, ignore and include are", key));
+      } else {
+        sectionConsumer.accept(key, readValue(events.next()));
+      }
+    }
+  }
+
+  /**
+   * Resolve the files of an include directive, relative to the including file.
+   */
+  private List<Path> resolveIncludes(Path file, Object value) {
+    List<Path> includedFiles = new ArrayList<>();
+
+    if (null == value) {
+      return includedFiles;
+    }
+
+    assertIsList(value, "include must be a list");
+
+    List<?> patterns = (List<?>) value;
+    for (int index = 0; index < patterns.size(); index++) {
+      Object pattern = patterns.get(index);
+      assertNotEmpty(pattern, "include[%d] must not be empty", index);
+      assertIsString(pattern, "include[%d] must be a string", index);
+
+      List<Path> matches;
+      try {
+        matches = PathGlob.match(file.getParent(), (String) pattern, inputs, Files::isRegularFile);
+      } catch (IOException e) {
+        throw new InvalidConfigException(
+            String.format("include[%d] could not be resolved: %s", index, e.getMessage()), e);
+      }
+
+      if (matches.isEmpty() && !PathGlob.isGlob((String) pattern)) {
+        throw new InvalidConfigException(String.format("include[%d] \"%s\" does not exist", index, pattern));
+      }
+
+      includedFiles.addAll(matches);
+    }
+
+    return includedFiles;
+  }
+
+  private void readRepositoryList(Consumer<Object> repositoryConsumer) {
+    Event event = events.next();
+
+    if (event.is(Event.ID.Scalar) && null == readValue(event)) {
+      return;
+    }
+
+    if (!event.is(Event.ID.SequenceStart)) {
+      throw new InvalidConfigException("repositories must be a list");
+    }
+
+    while (true) {
+      event = events.next();
+
+      if (event.is(Event.ID.SequenceEnd)) {
+        return;
+      }
+
+      if (null == repositoryConsumer) {
+        skipValue(event);
+      } else {
+        repositoryConsumer.accept(readValue(event));
+      }
+    }
+  }
+
+  /**
+   * Skip the value starting with the given event, only anchored values are built.
+   */
+  private void skipValue(Event event) {
+    if (event instanceof NodeEvent && null != ((NodeEvent) event).getAnchor()) {
+      readValue(event);
+      return;
+    }
+
+    if (!event.is(Event.ID.SequenceStart) && !event.is(Event.ID.MappingStart)) {
+      return;
+    }
+
+    for (event = events.next(); !event.is(Event.ID.SequenceEnd) && !event.is(Event.ID.MappingEnd);
+         event = events.next()) {
+      skipValue(event);
+    }
+  }
+
+  /**
+   * Build the plain value starting with the given event, like the SnakeYAML constructor would.
+   */
+  private Object readValue(Event event) {
+    if (event.is(Event.ID.Alias)) {
+      String anchor = ((AliasEvent) event).getAnchor();
+
+      if (!anchors.containsKey(anchor)) {
+        throw new InvalidConfigException(String.format("Config refers to the undefined anchor \"%s\"", anchor));
+      }
+
+      return anchors.get(anchor);
+    }
+
+    Object value;
+    if (event.is(Event.ID.Scalar)) {
+      value = readScalar((ScalarEvent) event);
+    } else if (event.is(Event.ID.SequenceStart)) {
+      value = readSequence();
+    } else if (event.is(Event.ID.MappingStart)) {
+      value = readMapping();
+    } else {
+      throw new InvalidConfigException(String.format("Config contains an unexpected %s", event));
+    }
+
+    String anchor = ((NodeEvent) event).getAnchor();
+    if (null != anchor) {
+      anchors.put(anchor, value);
+    }
+
+    return value;
+  }
+
+  private List<Object> readSequence() {
+    List<Object> list = new ArrayList<>();
+
+    for (Event event = events.next(); !event.is(Event.ID.SequenceEnd); event = events.next()) {
+      list.add(readValue(event));
+    }
+
+    return list;
+  }
+
+  private Map<Object, Object> readMapping() {
+    Map<Object, Object> map = new LinkedHashMap<>();
+    List<Object> merges = new ArrayList<>();
+
+    for (Event event = events.next(); !event.is(Event.ID.MappingEnd); event = events.next()) {
+      boolean merge = event.is(Event.ID.Scalar) && Tag.MERGE.equals(resolve((ScalarEvent) event));
+      Object key = readValue(event);
+      Object value = readValue(events.next());
+
+      if (merge) {
+        merges.add(value);
+      } else {
+        map.put(key, value);
+      }
+    }
+
+    // merged keys never override the explicit ones
+    for (Object merge : merges) {
+      for (Object source : merge instanceof List ? (List<?>) merge : Collections.singletonList(merge)) {
+        if (!(source instanceof Map)) {
+          throw new InvalidConfigException("Config merges a value that is not a map");
+        }
+
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) source).entrySet()) {
+          map.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+
+    return map;
+  }
+
+  private Object readScalar(ScalarEvent event) {
+    Tag tag = resolve(event);
+    String value = event.getValue();
+
+    if (Tag.NULL.equals(tag)) {
+      return null;
+    }
+
+    if (Tag.BOOL.equals(tag)) {
+      String lowerValue = value.toLowerCase();
+      return "true".equals(lowerValue) || "yes".equals(lowerValue) || "on".equals(lowerValue);
+    }
+
+    if (Tag.INT.equals(tag)) {
+      return readInteger(value);
+    }
+
+    if (Tag.FLOAT.equals(tag)) {
+      try {
+        return Double.valueOf(value.replace("_", ""));
+      } catch (NumberFormatException e) {
+        return value;
+      }
+    }
+
+    return value;
+  }
+
+  private Tag resolve(ScalarEvent event) {
+    if (null != event.getTag() && !"!".equals(event.getTag())) {
+      return new Tag(event.getTag());
+    }
+
+    return resolver.resolve(NodeId.scalar, event.getValue(), event.getImplicit().canOmitTagInPlainScalar());
+  }
+
+  private static Object readInteger(String value) {
+    String digits = value.replace("_", "");
+    int sign = 1;
+
+    if (digits.startsWith("-") || digits.startsWith("+")) {
+      sign = digits.startsWith("-") ? -1 : 1;
+      digits = digits.substring(1);
+    }
+
+    int radix = 10;
+    if (digits.startsWith("0x")) {
+      radix = 16;
+      digits = digits.substring(2);
+    } else if (digits.startsWith("0b")) {
+      radix = 2;
+      digits = digits.substring(2);
+    } else if (digits.startsWith("0") && 1 < digits.length()) {
+      radix = 8;
+    }
+
+    try {
+      BigInteger number = new BigInteger(digits, radix);
+      if (0 > sign) {
+        number = number.negate();
+      }
+
+      if (number.bitLength() < 32) {
+        return number.intValue();
+      }
+
+      if (number.bitLength() < 64) {
+        return number.longValue();
+      }
+
+      return number;
+    } catch (NumberFormatException e) {
+      // sexagesimal and other exotic notations stay strings
+      return value;
+    }
+  }
+
+  private void next(Event.ID id) {
+    Event event = events.next();
+
+    if (!event.is(id)) {
+      throw new InvalidConfigException(String.format("Config contains an unexpected %s", event));
+    }
+  }
+
+  private interface SectionConsumer {
+    void accept(Object key, Object value);
+  }
+}
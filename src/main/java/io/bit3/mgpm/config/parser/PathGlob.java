@@ -0,0 +1,115 @@
+package io.bit3.mgpm.config.parser;
+
+import io.bit3.mgpm.config.ConfigInputs;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Match a glob against the file tree, e.g. for the include directive and the local source.
+ *
+ * <p>The walk starts at the leading segments without wildcards and only descends as deep as the glob does, unless
+ * it contains {@code **}. Hidden directories are skipped, every visited directory is recorded into the inputs.</p>
+ */
+class PathGlob {
+  private static final String WILDCARDS = "*?[{";
+
+  private PathGlob() {
+  }
+
+  static boolean isGlob(String pattern) {
+    return pattern.chars().anyMatch(character -> -1 != WILDCARDS.indexOf(character));
+  }
+
+  /**
+   * @param filter The paths to accept, a matching directory that is accepted is not descended into.
+   * @return The accepted paths in sorted order.
+   */
+  static List<Path> match(Path baseDirectory, String pattern, ConfigInputs inputs, Predicate<Path> filter)
+      throws IOException {
+    if (!isGlob(pattern)) {
+      Path path = baseDirectory.resolve(pattern).normalize();
+      return filter.test(path) ? Collections.singletonList(path) : Collections.emptyList();
+    }
+
+    String[] segments = pattern.split("/+");
+    int staticSegments = 0;
+    while (!isGlob(segments[staticSegments])) {
+      staticSegments++;
+    }
+
+    String prefix = String.join("/", Arrays.copyOf(segments, staticSegments));
+    String remainder = String.join("/", Arrays.copyOfRange(segments, staticSegments, segments.length));
+    Path start = baseDirectory.resolve(prefix.isEmpty() && pattern.startsWith("/") ? "/" : prefix).normalize();
+
+    List<Path> matches = new ArrayList<>();
+    if (!Files.isDirectory(start)) {
+      return matches;
+    }
+
+    PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + remainder);
+    int maxDepth = remainder.contains("**") ? Integer.MAX_VALUE : segments.length - staticSegments;
+
+    Files.walkFileTree(start, EnumSet.noneOf(FileVisitOption.class), maxDepth, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+        if (!directory.equals(start) && directory.getFileName().toString().startsWith(".")) {
+          return FileVisitResult.SKIP_SUBTREE;
+        }
+
+        inputs.addDirectory(directory, attributes.lastModifiedTime().toMillis());
+
+        if (!directory.equals(start) && accept(directory)) {
+          return FileVisitResult.SKIP_SUBTREE;
+        }
+
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+        if (file.getFileName().toString().startsWith(".")) {
+          return FileVisitResult.CONTINUE;
+        }
+
+        if (attributes.isDirectory()) {
+          // a directory at the depth limit, it may become a match without changing its parent
+          inputs.addDirectory(file, attributes.lastModifiedTime().toMillis());
+        }
+
+        accept(file);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFileFailed(Path file, IOException exception) {
+        return FileVisitResult.CONTINUE;
+      }
+
+      private boolean accept(Path path) {
+        if (matcher.matches(start.relativize(path)) && filter.test(path)) {
+          matches.add(path);
+          return true;
+        }
+
+        return false;
+      }
+    });
+
+    Collections.sort(matches);
+    return matches;
+  }
+}
@@ -0,0 +1,77 @@
+package io.bit3.mgpm.journal;
+
+import io.bit3.mgpm.config.RepositoryConfig;
+import io.bit3.mgpm.worker.Action;
+import io.bit3.mgpm.worker.GitProcessException;
+import io.bit3.mgpm.worker.GitRunner;
+import io.bit3.mgpm.worker.Worker;
+
+import java.io.File;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Bring a repository, left behind by an interrupted run, back into the state before the run touched it.
+ */
+public class JournalRecovery {
+  private final GitRunner gitRunner;
+
+  public JournalRecovery(GitRunner gitRunner) {
+    this.gitRunner = gitRunner;
+  }
+
+  /**
+   * Recover the repository and return the steps that were taken.
+   */
+  public List<String> recover(RepositoryConfig repositoryConfig, JournalState.RepositoryState state)
+      throws GitProcessException {
+    List<String> steps = new LinkedList<>();
+    File directory = repositoryConfig.getDirectory();
+    File gitDirectory = new File(directory, ".git");
+
+    if (!gitDirectory.isDirectory()) {
+      return steps;
+    }
+
+    // only an update of the checked out branch runs in the working tree, anything else was started by the user
+    boolean updatingHead = null != state.getHead() && state.getHead().equals(state.getLastBranchName());
+
+    if (updatingHead && Action.REBASE.name().equals(state.getLastAction())
+        && (new File(gitDirectory, "rebase-merge").isDirectory()
+        || new File(gitDirectory, "rebase-apply").isDirectory())) {
+      gitRunner.git(directory, "rebase", "--abort");
+      steps.add("rebase aborted");
+    }
+
+    if (updatingHead && Action.MERGE.name().equals(state.getLastAction())
+        && new File(gitDirectory, "MERGE_HEAD").isFile()) {
+      gitRunner.git(directory, "merge", "--abort");
+      steps.add("merge aborted");
+    }
+
+    for (String line : gitRunner.git(directory, "worktree", "list", "--porcelain").split("\n")) {
+      if (line.startsWith("worktree ")
+          && new File(line.substring(9)).getName().startsWith(Worker.WORKTREE_PREFIX)) {
+        gitRunner.git(directory, "worktree", "remove", "--force", line.substring(9));
+        steps.add("worktree removed");
+      }
+    }
+    gitRunner.git(directory, "worktree", "prune");
+
+    String stashCommit = state.getStashCommit();
+    if (null != stashCommit) {
+      // never apply a stash that was not created by mgpm, nor one created by an earlier run
+      String[] stashCommits = gitRunner.git(directory, "stash", "list", "--format=%H").split("\n");
+
+      for (int index = 0; index < stashCommits.length; index++) {
+        if (stashCommit.equals(stashCommits[index].trim())) {
+          gitRunner.git(directory, "stash", "pop", "stash@{" + index + "}");
+          steps.add("stash applied");
+          break;
+        }
+      }
+    }
+
+    return steps;
+  }
+}
@@ -0,0 +1,177 @@
+package io.bit3.mgpm.journal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The state of the last run, replayed from its progress journal.
+ */
+public class JournalState {
+  private final Map<String, RepositoryState> repositories = new LinkedHashMap<>();
+  private boolean started = false;
+  private boolean finished = false;
+
+  /**
+   * Replay the journal, a missing journal results in an empty state.
+   */
+  public static JournalState read(Path path) throws IOException {
+    JournalState state = new JournalState();
+
+    if (!Files.isRegularFile(path)) {
+      return state;
+    }
+
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      String line;
+
+      while (null != (line = reader.readLine())) {
+        state.replay(line.split("\t"));
+      }
+    }
+
+    return state;
+  }
+
+  private void replay(String[] fields) {
+    switch (fields[0]) {
+      case ProgressJournal.RUN:
+        started = true;
+        return;
+
+      case ProgressJournal.FINISH:
+        finished = true;
+        return;
+
+      default:
+        // repository entry
+    }
+
+    // the last line of an interrupted run may be incomplete
+    if (2 > fields.length) {
+      return;
+    }
+
+    RepositoryState repository = repositories.computeIfAbsent(fields[1], RepositoryState::new);
+
+    switch (fields[0]) {
+      case ProgressJournal.HEAD:
+        if (3 == fields.length) {
+          repository.head = fields[2];
+        }
+        break;
+
+      case ProgressJournal.ACTION:
+        if (3 <= fields.length) {
+          repository.lastAction = fields[2];
+          repository.lastBranchName = 4 == fields.length ? fields[3] : null;
+        }
+        break;
+
+      case ProgressJournal.STASH:
+        // a stash without its commit is never applied
+        repository.stashCommit = 3 == fields.length ? fields[2] : null;
+        break;
+
+      case ProgressJournal.UNSTASH:
+        repository.stashCommit = null;
+        break;
+
+      case ProgressJournal.END:
+        repository.finished = true;
+        break;
+
+      default:
+        // START or unknown entry
+    }
+  }
+
+  /**
+   * Determine if the last run was started, but never finished.
+   */
+  public boolean isInterrupted() {
+    return started && !finished;
+  }
+
+  public Collection<RepositoryState> getRepositories() {
+    return repositories.values();
+  }
+
+  /**
+   * Repositories that were started, but never finished by the last run.
+   */
+  public List<RepositoryState> getInterruptedRepositories() {
+    return repositories.values()
+        .stream()
+        .filter(repository -> !repository.isFinished())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Path names of the repositories already finished by the last run.
+   */
+  public Set<String> getFinishedPathNames() {
+    return repositories.values()
+        .stream()
+        .filter(RepositoryState::isFinished)
+        .map(RepositoryState::getPathName)
+        .collect(Collectors.toSet());
+  }
+
+  public static class RepositoryState {
+    private final String pathName;
+    private String head;
+    private String lastAction;
+    private String lastBranchName;
+    private String stashCommit;
+    private boolean finished = false;
+
+    private RepositoryState(String pathName) {
+      this.pathName = pathName;
+    }
+
+    public String getPathName() {
+      return pathName;
+    }
+
+    /**
+     * The symbolic ref of HEAD before the repository was touched.
+     */
+    public String getHead() {
+      return head;
+    }
+
+    /**
+     * The last work tree changing action that was started.
+     */
+    public String getLastAction() {
+      return lastAction;
+    }
+
+    /**
+     * The branch the last action worked on, null if it concerned the whole repository.
+     */
+    public String getLastBranchName() {
+      return lastBranchName;
+    }
+
+    /**
+     * The commit of the stash that was created and not applied again, null if there is none.
+     */
+    public String getStashCommit() {
+      return stashCommit;
+    }
+
+    public boolean isFinished() {
+      return finished;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package io.bit3.mgpm.journal;
+
+import io.bit3.mgpm.worker.AbstractWorkerObserver;
+import io.bit3.mgpm.worker.Action;
+import io.bit3.mgpm.worker.Activity;
+import io.bit3.mgpm.worker.Phase;
+import io.bit3.mgpm.worker.PhaseTiming;
+import io.bit3.mgpm.worker.Worker;
+
+/**
+ * Record the progress of a worker in the progress journal.
+ *
+ * <p>Activities are reported before the git command runs, work tree changing actions are written ahead and synced
+ * before the worker continues. The stash is recorded after it was created, together with its commit.</p>
+ */
+public class JournalWorkerObserver extends AbstractWorkerObserver {
+  private final ProgressJournal journal;
+
+  public JournalWorkerObserver(ProgressJournal journal) {
+    this.journal = journal;
+  }
+
+  @Override
+  public void start(Worker worker) {
+    journal.append(false, ProgressJournal.START, pathName(worker));
+  }
+
+  @Override
+  public void activity(Activity activity, Worker worker) {
+    Action action = activity.getAction();
+
+    switch (action) {
+      case REBASE:
+      case MERGE:
+        // recovery only aborts a rebase or merge of the checked out branch, the others run in temporary worktrees
+        if (null != activity.getBranchName() && activity.getBranchName().equals(worker.getHeadSymbolicRef())) {
+          journal.append(true, ProgressJournal.ACTION, pathName(worker), action.toString(), activity.getBranchName());
+        }
+        break;
+
+      case CHECKOUT_TAG:
+      case UPDATE_SUBMODULES:
+        journal.append(true, ProgressJournal.ACTION, pathName(worker), action.toString());
+        break;
+
+      default:
+        // nothing to recover from
+    }
+  }
+
+  @Override
+  public void timing(PhaseTiming timing, Worker worker) {
+    if (Phase.DETERMINE_HEAD == timing.getPhase() && null != worker.getHeadSymbolicRef()) {
+      journal.append(false, ProgressJournal.HEAD, pathName(worker), worker.getHeadSymbolicRef());
+    } else if (Phase.STASH == timing.getPhase() && null != worker.getStashCommit()) {
+      // recorded once the stash exists, recovery only ever applies this exact stash
+      journal.append(true, ProgressJournal.STASH, pathName(worker), worker.getStashCommit());
+    } else if (Phase.UNSTASH == timing.getPhase() && worker.getJournal().stream()
+        .anyMatch(activity -> Action.UNSTASH == activity.getAction())) {
+      // applying was attempted, a conflicting stash is left to the user
+      journal.append(false, ProgressJournal.UNSTASH, pathName(worker));
+    }
+  }
+
+  @Override
+  public void end(Worker worker) {
+    journal.append(false, ProgressJournal.END, pathName(worker));
+  }
+
+  private String pathName(Worker worker) {
+    return worker.getRepositoryConfig().getPathName();
+  }
+}
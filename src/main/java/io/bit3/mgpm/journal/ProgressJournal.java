@@ -0,0 +1,160 @@
+package io.bit3.mgpm.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only, write-ahead journal of the progress of a run.
+ *
+ * <p>Entries are tab separated lines written by a single writer thread. Durable entries wake the writer and block
+ * until they are synced to disk, all entries queued in the meantime are written with the same fsync. Other entries
+ * are only synced along with the next durable entry or periodically.</p>
+ */
+public class ProgressJournal implements AutoCloseable {
+  static final String RUN = "run";
+  static final String FINISH = "finish";
+  static final String START = "start";
+  static final String HEAD = "head";
+  static final String ACTION = "action";
+  static final String STASH = "stash";
+  static final String UNSTASH = "unstash";
+  static final String END = "end";
+
+  private final Logger logger = LoggerFactory.getLogger(ProgressJournal.class);
+  private final Queue<Entry> entries = new ConcurrentLinkedQueue<>();
+  private final FileChannel channel;
+  private final Thread thread;
+  private volatile boolean closed = false;
+
+  /**
+   * @param resume Continue the journal of an interrupted run instead of starting a new one.
+   */
+  public ProgressJournal(Path path, boolean resume) throws IOException {
+    Files.createDirectories(path.toAbsolutePath().getParent());
+
+    if (resume) {
+      channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+          StandardOpenOption.APPEND);
+    } else {
+      channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+          StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    thread = new Thread(this::writeLoop, "mgpm-journal-writer");
+    thread.setDaemon(true);
+    thread.start();
+
+    if (!resume) {
+      append(true, RUN, Long.toString(System.currentTimeMillis()));
+    }
+  }
+
+  /**
+   * Append an entry, if durable wait until it is synced to disk.
+   */
+  public void append(boolean durable, String... fields) {
+    Entry entry = new Entry(fields, durable);
+    entries.offer(entry);
+
+    if (!durable) {
+      return;
+    }
+
+    LockSupport.unpark(thread);
+    entry.synced.join();
+  }
+
+  /**
+   * Mark the run as complete, the next run starts a new journal.
+   */
+  public void finish() {
+    append(true, FINISH);
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    LockSupport.unpark(thread);
+
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    channel.close();
+  }
+
+  private void writeLoop() {
+    while (true) {
+      List<Entry> batch = new LinkedList<>();
+      StringBuilder lines = new StringBuilder();
+      Entry entry;
+
+      while (null != (entry = entries.poll())) {
+        batch.add(entry);
+        lines.append(entry.line).append('\n');
+      }
+
+      if (!batch.isEmpty()) {
+        try {
+          ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+          channel.force(false);
+        } catch (IOException e) {
+          // the run must not stall because of the journal
+          logger.error("could not write progress journal: " + e.getMessage(), e);
+        }
+
+        for (Entry written : batch) {
+          written.synced.complete(null);
+        }
+      }
+
+      if (closed && entries.isEmpty()) {
+        break;
+      }
+
+      LockSupport.parkNanos(this, TimeUnit.SECONDS.toNanos(1));
+    }
+  }
+
+  private static class Entry {
+    private final String line;
+    private final CompletableFuture<Void> synced = new CompletableFuture<>();
+
+    private Entry(String[] fields, boolean durable) {
+      StringBuilder line = new StringBuilder();
+
+      for (String field : fields) {
+        if (0 < line.length()) {
+          line.append('\t');
+        }
+        line.append(field.replace('\t', ' ').replace('\n', ' '));
+      }
+
+      this.line = line.toString();
+
+      if (!durable) {
+        synced.complete(null);
+      }
+    }
+  }
+}
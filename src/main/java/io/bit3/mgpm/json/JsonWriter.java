@@ -0,0 +1,146 @@
+package io.bit3.mgpm.json;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Minimal streaming JSON writer, takes care of separators and string escaping.
+ */
+public class JsonWriter {
+  private final Writer writer;
+  private final Deque<Boolean> firstInScope = new ArrayDeque<>();
+  private boolean afterName = false;
+
+  public JsonWriter(Writer writer) {
+    this.writer = writer;
+  }
+
+  public JsonWriter beginObject() throws IOException {
+    separator();
+    writer.write('{');
+    firstInScope.push(true);
+    return this;
+  }
+
+  public JsonWriter endObject() throws IOException {
+    firstInScope.pop();
+    writer.write('}');
+    return this;
+  }
+
+  public JsonWriter beginArray() throws IOException {
+    separator();
+    writer.write('[');
+    firstInScope.push(true);
+    return this;
+  }
+
+  public JsonWriter endArray() throws IOException {
+    firstInScope.pop();
+    writer.write(']');
+    return this;
+  }
+
+  public JsonWriter name(String name) throws IOException {
+    separator();
+    string(name);
+    writer.write(':');
+    afterName = true;
+    return this;
+  }
+
+  public JsonWriter value(String value) throws IOException {
+    separator();
+
+    if (null == value) {
+      writer.write("null");
+    } else {
+      string(value);
+    }
+
+    return this;
+  }
+
+  public JsonWriter value(long value) throws IOException {
+    separator();
+    writer.write(Long.toString(value));
+    return this;
+  }
+
+  public JsonWriter value(double value) throws IOException {
+    separator();
+    writer.write(Double.isFinite(value) ? Double.toString(value) : "null");
+    return this;
+  }
+
+  public JsonWriter value(boolean value) throws IOException {
+    separator();
+    writer.write(value ? "true" : "false");
+    return this;
+  }
+
+  public JsonWriter nullValue() throws IOException {
+    separator();
+    writer.write("null");
+    return this;
+  }
+
+  public JsonWriter flush() throws IOException {
+    writer.flush();
+    return this;
+  }
+
+  private void separator() throws IOException {
+    if (afterName) {
+      afterName = false;
+      return;
+    }
+
+    if (firstInScope.isEmpty()) {
+      return;
+    }
+
+    if (firstInScope.peek()) {
+      firstInScope.pop();
+      firstInScope.push(false);
+    } else {
+      writer.write(',');
+    }
+  }
+
+  private void string(String value) throws IOException {
+    writer.write('"');
+
+    for (int index = 0; index < value.length(); index++) {
+      char character = value.charAt(index);
+
+      switch (character) {
+        case '"':
+          writer.write("\\\"");
+          break;
+        case '\\':
+          writer.write("\\\\");
+          break;
+        case '\n':
+          writer.write("\\n");
+          break;
+        case '\r':
+          writer.write("\\r");
+          break;
+        case '\t':
+          writer.write("\\t");
+          break;
+        default:
+          if (character < 0x20) {
+            writer.write(String.format("\\u%04x", (int) character));
+          } else {
+            writer.write(character);
+          }
+      }
+    }
+
+    writer.write('"');
+  }
+}
@@ -0,0 +1,106 @@
+package io.bit3.mgpm.maintenance;
+
+import io.bit3.mgpm.config.Config;
+import io.bit3.mgpm.config.MaintenanceConfig;
+import io.bit3.mgpm.config.RepositoryConfig;
+import io.bit3.mgpm.worker.GitProcessException;
+import io.bit3.mgpm.worker.GitRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Maintain the object databases of the managed repositories, where the configured thresholds are exceeded.
+ *
+ * <p>The stats are collected from the file system, git is only spawned for repositories with due tasks. At most
+ * {@link MaintenanceConfig#getConcurrency()} repositories are maintained at once.</p>
+ */
+public class Maintainer {
+  private final Config config;
+  private final MaintenanceConfig maintenanceConfig;
+  private final GitRunner gitRunner;
+
+  public Maintainer(Config config) {
+    this.config = config;
+    this.maintenanceConfig = config.getMaintenanceConfig();
+    this.gitRunner = new GitRunner(config.getGitConfig().getBinary());
+  }
+
+  /**
+   * Maintain all cloned repositories and pass each result to the consumer as soon as it is available.
+   */
+  public void run(Consumer<MaintenanceResult> consumer) {
+    ExecutorService executor = Executors.newFixedThreadPool(maintenanceConfig.getConcurrency());
+
+    for (RepositoryConfig repositoryConfig : config.getRepositories()) {
+      if (!new File(repositoryConfig.getDirectory(), ".git").isDirectory()) {
+        continue;
+      }
+
+      executor.submit(() -> {
+        MaintenanceResult result = maintain(repositoryConfig);
+
+        synchronized (consumer) {
+          consumer.accept(result);
+        }
+      });
+    }
+    executor.shutdown();
+
+    try {
+      while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+        // wait for all repositories
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private MaintenanceResult maintain(RepositoryConfig repositoryConfig) {
+    File directory = repositoryConfig.getDirectory();
+    Path gitDirectory = new File(directory, ".git").toPath();
+    List<MaintenanceTask> tasks = new LinkedList<>();
+    long start = System.nanoTime();
+
+    try {
+      ObjectStats before = ObjectStats.of(gitDirectory);
+
+      if (maintenanceConfig.getLooseObjects() <= before.getLooseObjects()
+          || maintenanceConfig.getPacks() <= before.getPacks()) {
+        tasks.add(MaintenanceTask.GC);
+
+        // pass the thresholds on, so gc agrees on the need to run, and keep it in the foreground to measure it
+        gitRunner.git(
+            directory,
+            "-c", "gc.auto=" + maintenanceConfig.getLooseObjects(),
+            "-c", "gc.autoPackLimit=" + maintenanceConfig.getPacks(),
+            "-c", "gc.autoDetach=false",
+            "-c", "gc.writeCommitGraph=true",
+            "gc", "--auto", "--quiet"
+        );
+      } else if (!before.hasCommitGraph()) {
+        tasks.add(MaintenanceTask.COMMIT_GRAPH);
+        gitRunner.git(directory, "commit-graph", "write", "--reachable");
+      }
+
+      long reclaimedBytes = 0;
+      if (!tasks.isEmpty()) {
+        reclaimedBytes = Math.max(0, before.getBytes() - ObjectStats.of(gitDirectory).getBytes());
+      }
+
+      return new MaintenanceResult(repositoryConfig.getPathName(), tasks, reclaimedBytes, System.nanoTime() - start,
+          null);
+    } catch (IOException | GitProcessException e) {
+      return new MaintenanceResult(repositoryConfig.getPathName(), tasks, 0, System.nanoTime() - start,
+          e.getMessage());
+    }
+  }
+}
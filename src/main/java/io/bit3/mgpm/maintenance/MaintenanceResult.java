@@ -0,0 +1,50 @@
+package io.bit3.mgpm.maintenance;
+
+import java.util.List;
+
+/**
+ * The outcome of maintaining a single repository.
+ */
+public class MaintenanceResult {
+  private final String pathName;
+  private final List<MaintenanceTask> tasks;
+  private final long reclaimedBytes;
+  private final long durationNanos;
+  private final String error;
+
+  public MaintenanceResult(String pathName, List<MaintenanceTask> tasks, long reclaimedBytes, long durationNanos,
+                           String error) {
+    this.pathName = pathName;
+    this.tasks = tasks;
+    this.reclaimedBytes = reclaimedBytes;
+    this.durationNanos = durationNanos;
+    this.error = error;
+  }
+
+  public String getPathName() {
+    return pathName;
+  }
+
+  /**
+   * The tasks that were due, empty if no threshold was exceeded.
+   */
+  public List<MaintenanceTask> getTasks() {
+    return tasks;
+  }
+
+  public long getReclaimedBytes() {
+    return reclaimedBytes;
+  }
+
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public boolean isSucceed() {
+    return null == error;
+  }
+}
@@ -0,0 +1,13 @@
+package io.bit3.mgpm.maintenance;
+
+public enum MaintenanceTask {
+  /**
+   * Pack loose objects and consolidate packs.
+   */
+  GC,
+
+  /**
+   * Write the missing commit-graph.
+   */
+  COMMIT_GRAPH
+}
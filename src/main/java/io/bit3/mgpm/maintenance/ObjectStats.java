@@ -0,0 +1,91 @@
+package io.bit3.mgpm.maintenance;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Size and shape of the object database of a repository.
+ */
+public class ObjectStats {
+  private final long looseObjects;
+  private final long looseBytes;
+  private final int packs;
+  private final long packBytes;
+  private final boolean commitGraph;
+
+  public ObjectStats(long looseObjects, long looseBytes, int packs, long packBytes, boolean commitGraph) {
+    this.looseObjects = looseObjects;
+    this.looseBytes = looseBytes;
+    this.packs = packs;
+    this.packBytes = packBytes;
+    this.commitGraph = commitGraph;
+  }
+
+  /**
+   * Collect the stats from the {@code objects} directory, without spawning git.
+   */
+  public static ObjectStats of(Path gitDirectory) throws IOException {
+    Path objects = gitDirectory.resolve("objects");
+    long looseObjects = 0;
+    long looseBytes = 0;
+    int packs = 0;
+    long packBytes = 0;
+
+    try (DirectoryStream<Path> fanout = Files.newDirectoryStream(objects, "[0-9a-f][0-9a-f]")) {
+      for (Path directory : fanout) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+          for (Path file : files) {
+            looseObjects++;
+            looseBytes += Files.size(file);
+          }
+        }
+      }
+    }
+
+    Path packDirectory = objects.resolve("pack");
+    if (Files.isDirectory(packDirectory)) {
+      try (DirectoryStream<Path> files = Files.newDirectoryStream(packDirectory)) {
+        for (Path file : files) {
+          if (file.getFileName().toString().endsWith(".pack")) {
+            packs++;
+          }
+          packBytes += Files.size(file);
+        }
+      }
+    }
+
+    boolean commitGraph = Files.isRegularFile(objects.resolve("info/commit-graph"))
+        || Files.isRegularFile(objects.resolve("info/commit-graphs/commit-graph-chain"));
+
+    return new ObjectStats(looseObjects, looseBytes, packs, packBytes, commitGraph);
+  }
+
+  public long getLooseObjects() {
+    return looseObjects;
+  }
+
+  public long getLooseBytes() {
+    return looseBytes;
+  }
+
+  public int getPacks() {
+    return packs;
+  }
+
+  /**
+   * Size of the pack directory, including indexes.
+   */
+  public long getPackBytes() {
+    return packBytes;
+  }
+
+  public boolean hasCommitGraph() {
+    return commitGraph;
+  }
+
+  public long getBytes() {
+    return looseBytes + packBytes;
+  }
+}
@@ -0,0 +1,45 @@
+package io.bit3.mgpm.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Write the metrics into a file, suitable for the node exporter textfile collector.
+ */
+public class MetricsFileWriter {
+  private final MetricsRegistry registry;
+  private final File file;
+  private final MetricsFormat format;
+
+  public MetricsFileWriter(MetricsRegistry registry, File file, MetricsFormat format) {
+    this.registry = registry;
+    this.file = file;
+    this.format = format;
+  }
+
+  /**
+   * Write into a temporary file first and move it in place, so collectors never read a partial file.
+   */
+  public void write() throws IOException {
+    Path target = file.getAbsoluteFile().toPath();
+    Path temporary = target.resolveSibling("." + target.getFileName() + ".tmp");
+
+    try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+      switch (format) {
+        case JSON:
+          registry.writeJson(writer);
+          break;
+
+        default:
+          registry.writePrometheus(writer);
+      }
+    }
+
+    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
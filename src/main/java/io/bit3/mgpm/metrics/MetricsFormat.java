@@ -0,0 +1,6 @@
+package io.bit3.mgpm.metrics;
+
+public enum MetricsFormat {
+  PROMETHEUS,
+  JSON
+}
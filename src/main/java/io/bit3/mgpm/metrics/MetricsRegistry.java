@@ -0,0 +1,210 @@
+package io.bit3.mgpm.metrics;
+
+import io.bit3.mgpm.json.JsonWriter;
+import io.bit3.mgpm.worker.Phase;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and histograms of all sync runs of this process.
+ */
+public class MetricsRegistry {
+  private static final double[] BUCKETS = new double[]{
+      0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 120, 300
+  };
+
+  private final LongAdder runs = new LongAdder();
+  private final LongAdder repositoriesSynced = new LongAdder();
+  private final LongAdder repositoriesFailed = new LongAdder();
+  private final LongAdder repositoriesSkipped = new LongAdder();
+  private final LongAdder repositoriesHostUnavailable = new LongAdder();
+  private final LongAdder branchesUpdated = new LongAdder();
+  private final LongAdder branchesConflicting = new LongAdder();
+  private final LongAdder commitsPulled = new LongAdder();
+  private final LongAdder fetchedBytes = new LongAdder();
+  private final LongAdder gitProcesses = new LongAdder();
+  private final LongAdder gitProcessesFailed = new LongAdder();
+  private final Map<Phase, Histogram> phaseDurations = new EnumMap<>(Phase.class);
+  private volatile long lastRunStartMillis = 0;
+  private volatile long lastRunEndMillis = 0;
+  private volatile long lastRunDurationNanos = 0;
+  private volatile long lastRunFailed = 0;
+  private volatile long lastSuccessfulRunEndMillis = 0;
+  private long currentRunFailedBase = 0;
+
+  public MetricsRegistry() {
+    for (Phase phase : Phase.values()) {
+      phaseDurations.put(phase, new Histogram());
+    }
+  }
+
+  public void runStarted() {
+    lastRunStartMillis = System.currentTimeMillis();
+    currentRunFailedBase = repositoriesFailed.sum();
+  }
+
+  public void runFinished(long durationNanos) {
+    runs.increment();
+    lastRunEndMillis = System.currentTimeMillis();
+    lastRunDurationNanos = durationNanos;
+    lastRunFailed = repositoriesFailed.sum() - currentRunFailedBase;
+
+    if (0 == lastRunFailed) {
+      lastSuccessfulRunEndMillis = lastRunEndMillis;
+    }
+  }
+
+  public void repositorySynced() {
+    repositoriesSynced.increment();
+  }
+
+  public void repositoryFailed() {
+    repositoriesFailed.increment();
+  }
+
+  public void repositorySkipped() {
+    repositoriesSkipped.increment();
+  }
+
+  public void repositoryHostUnavailable() {
+    repositoriesHostUnavailable.increment();
+  }
+
+  public void branchUpdated(int commits) {
+    branchesUpdated.increment();
+    commitsPulled.add(commits);
+  }
+
+  public void branchConflicting() {
+    branchesConflicting.increment();
+  }
+
+  public void fetched(long bytes) {
+    fetchedBytes.add(bytes);
+  }
+
+  public void phase(Phase phase, long durationNanos, int spawns, int failedSpawns) {
+    phaseDurations.get(phase).observe(durationNanos / 1e9);
+    gitProcesses.add(spawns);
+    gitProcessesFailed.add(failedSpawns);
+  }
+
+  /**
+   * Write all metrics in the Prometheus text exposition format.
+   */
+  public void writePrometheus(Writer writer) {
+    PrintWriter out = new PrintWriter(writer);
+
+    counter(out, "mgpm_runs_total", "Completed sync runs.", runs.sum());
+    counter(out, "mgpm_repositories_synced_total", "Repositories synced successfully.", repositoriesSynced.sum());
+    counter(out, "mgpm_repositories_failed_total", "Repositories failed with an error.", repositoriesFailed.sum());
+    counter(out, "mgpm_repositories_skipped_total", "Repositories skipped, because they are not cloned.", repositoriesSkipped.sum());
+    counter(out, "mgpm_repositories_host_unavailable_total", "Repositories skipped, because their host is unavailable.",
+        repositoriesHostUnavailable.sum());
+    counter(out, "mgpm_branches_updated_total", "Branches fast forwarded or rebased.", branchesUpdated.sum());
+    counter(out, "mgpm_branches_conflicting_total", "Branch updates skipped because of conflicts.", branchesConflicting.sum());
+    counter(out, "mgpm_commits_pulled_total", "Commits pulled into local branches.", commitsPulled.sum());
+    counter(out, "mgpm_fetched_bytes_total", "Growth of the object databases by fetches, packs and loose objects.",
+        fetchedBytes.sum());
+    counter(out, "mgpm_git_processes_total", "Spawned git processes.", gitProcesses.sum());
+    counter(out, "mgpm_git_processes_failed_total", "Spawned git processes with a non-zero exit code.", gitProcessesFailed.sum());
+    gauge(out, "mgpm_last_run_start_timestamp_seconds", "Start of the last run.", lastRunStartMillis / 1e3);
+    gauge(out, "mgpm_last_run_end_timestamp_seconds", "End of the last run.", lastRunEndMillis / 1e3);
+    gauge(out, "mgpm_last_successful_run_end_timestamp_seconds", "End of the last run without failed repositories.", lastSuccessfulRunEndMillis / 1e3);
+    gauge(out, "mgpm_last_run_duration_seconds", "Duration of the last run.", lastRunDurationNanos / 1e9);
+    gauge(out, "mgpm_last_run_repositories_failed", "Failed repositories in the last run.", lastRunFailed);
+
+    out.println("# HELP mgpm_phase_duration_seconds Duration of worker phases.");
+    out.println("# TYPE mgpm_phase_duration_seconds histogram");
+    for (Map.Entry<Phase, Histogram> entry : phaseDurations.entrySet()) {
+      String phase = entry.getKey().toString().toLowerCase();
+      Histogram histogram = entry.getValue();
+
+      synchronized (histogram) {
+        long cumulative = 0;
+        for (int index = 0; index < BUCKETS.length; index++) {
+          cumulative += histogram.buckets[index];
+          out.printf(Locale.ROOT, "mgpm_phase_duration_seconds_bucket{phase=\"%s\",le=\"%s\"} %d%n",
+              phase, Double.toString(BUCKETS[index]), cumulative);
+        }
+        out.printf(Locale.ROOT, "mgpm_phase_duration_seconds_bucket{phase=\"%s\",le=\"+Inf\"} %d%n", phase, histogram.count);
+        out.printf(Locale.ROOT, "mgpm_phase_duration_seconds_sum{phase=\"%s\"} %s%n", phase, Double.toString(histogram.sum));
+        out.printf(Locale.ROOT, "mgpm_phase_duration_seconds_count{phase=\"%s\"} %d%n", phase, histogram.count);
+      }
+    }
+
+    out.flush();
+  }
+
+  /**
+   * Write all metrics as a single JSON object.
+   */
+  public void writeJson(Writer writer) throws IOException {
+    JsonWriter json = new JsonWriter(writer);
+
+    json.beginObject()
+        .name("runs").value(runs.sum())
+        .name("repositoriesSynced").value(repositoriesSynced.sum())
+        .name("repositoriesFailed").value(repositoriesFailed.sum())
+        .name("repositoriesSkipped").value(repositoriesSkipped.sum())
+        .name("repositoriesHostUnavailable").value(repositoriesHostUnavailable.sum())
+        .name("branchesUpdated").value(branchesUpdated.sum())
+        .name("branchesConflicting").value(branchesConflicting.sum())
+        .name("commitsPulled").value(commitsPulled.sum())
+        .name("fetchedBytes").value(fetchedBytes.sum())
+        .name("gitProcesses").value(gitProcesses.sum())
+        .name("gitProcessesFailed").value(gitProcessesFailed.sum())
+        .name("lastRunStart").value(lastRunStartMillis)
+        .name("lastRunEnd").value(lastRunEndMillis)
+        .name("lastSuccessfulRunEnd").value(lastSuccessfulRunEndMillis)
+        .name("lastRunDurationMillis").value(lastRunDurationNanos / 1000000)
+        .name("lastRunRepositoriesFailed").value(lastRunFailed)
+        .name("phases").beginObject();
+
+    for (Map.Entry<Phase, Histogram> entry : phaseDurations.entrySet()) {
+      Histogram histogram = entry.getValue();
+
+      synchronized (histogram) {
+        json.name(entry.getKey().toString().toLowerCase())
+            .beginObject()
+            .name("count").value(histogram.count)
+            .name("sumSeconds").value(histogram.sum)
+            .endObject();
+      }
+    }
+
+    json.endObject().endObject().flush();
+  }
+
+  private static void counter(PrintWriter out, String name, String help, long value) {
+    out.printf("# HELP %s %s%n# TYPE %s counter%n%s %d%n", name, help, name, name, value);
+  }
+
+  private static void gauge(PrintWriter out, String name, String help, double value) {
+    out.printf(Locale.ROOT, "# HELP %s %s%n# TYPE %s gauge%n%s %s%n", name, help, name, name, Double.toString(value));
+  }
+
+  private static class Histogram {
+    private final long[] buckets = new long[BUCKETS.length];
+    private long count = 0;
+    private double sum = 0;
+
+    private synchronized void observe(double value) {
+      for (int index = 0; index < BUCKETS.length; index++) {
+        if (value <= BUCKETS[index]) {
+          buckets[index]++;
+          break;
+        }
+      }
+
+      count++;
+      sum += value;
+    }
+  }
+}
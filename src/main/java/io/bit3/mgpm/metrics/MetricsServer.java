@@ -0,0 +1,68 @@
+package io.bit3.mgpm.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serve the metrics on localhost, {@code /metrics} in Prometheus text format and {@code /metrics.json}.
+ */
+public class MetricsServer {
+  private final Logger logger = LoggerFactory.getLogger(MetricsServer.class);
+  private final MetricsRegistry registry;
+  private final int port;
+  private HttpServer server;
+
+  public MetricsServer(MetricsRegistry registry, int port) {
+    this.registry = registry;
+    this.port = port;
+  }
+
+  public void start() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    server.createContext("/metrics", this::handle);
+    server.start();
+    logger.info("serving metrics on http://localhost:{}/metrics", port);
+  }
+
+  public void stop() {
+    if (null != server) {
+      server.stop(0);
+      server = null;
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    boolean json = exchange.getRequestURI().getPath().endsWith(".json");
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    try (Writer writer = new OutputStreamWriter(buffer, StandardCharsets.UTF_8)) {
+      if (json) {
+        registry.writeJson(writer);
+      } else {
+        registry.writePrometheus(writer);
+      }
+    }
+
+    exchange.getResponseHeaders().set(
+        "Content-Type",
+        json ? "application/json" : "text/plain; version=0.0.4; charset=utf-8"
+    );
+    exchange.sendResponseHeaders(200, buffer.size());
+
+    try (OutputStream body = exchange.getResponseBody()) {
+      buffer.writeTo(body);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package io.bit3.mgpm.metrics;
+
+import io.bit3.mgpm.worker.AbstractWorkerObserver;
+import io.bit3.mgpm.worker.BranchResult;
+import io.bit3.mgpm.worker.PhaseTiming;
+import io.bit3.mgpm.worker.RepositoryResult;
+import io.bit3.mgpm.worker.Worker;
+
+import java.util.Map;
+
+/**
+ * Feed worker events into a {@link MetricsRegistry}.
+ */
+public class MetricsWorkerObserver extends AbstractWorkerObserver {
+  private final MetricsRegistry registry;
+
+  public MetricsWorkerObserver(MetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public void timing(PhaseTiming timing, Worker worker) {
+    int failedSpawns = 0;
+    for (Map.Entry<Integer, Integer> entry : timing.getExitCodes().entrySet()) {
+      if (0 != entry.getKey()) {
+        failedSpawns += entry.getValue();
+      }
+    }
+
+    registry.phase(timing.getPhase(), timing.getDurationNanos(), timing.getSpawns(), failedSpawns);
+  }
+
+  @Override
+  public void end(Worker worker) {
+    RepositoryResult result = worker.getResult();
+
+    if (result.isSucceed()) {
+      registry.repositorySynced();
+    } else if (worker.isHostUnavailable()) {
+      registry.repositoryHostUnavailable();
+    } else if (result.isSkipped()) {
+      registry.repositorySkipped();
+    } else {
+      registry.repositoryFailed();
+    }
+
+    registry.fetched(result.getFetchedBytes());
+
+    for (BranchResult branch : result.getBranches()) {
+      if (null == branch.getUpdate()) {
+        continue;
+      }
+
+      switch (branch.getUpdate()) {
+        case MERGED_FAST_FORWARD:
+        case REBASED:
+          Worker.Stats stats = branch.getStats();
+          registry.branchUpdated(null == stats ? 0 : stats.getCommitsBehind());
+          break;
+
+        case SKIP_CONFLICTING:
+          registry.branchConflicting();
+          break;
+      }
+    }
+  }
+}
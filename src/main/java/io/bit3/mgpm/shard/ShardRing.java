@@ -0,0 +1,171 @@
+package io.bit3.mgpm.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consistent hash ring that assigns repositories to the shards of a sync fleet.
+ *
+ * <p>Every shard owns a fixed set of virtual points on the ring, derived from its number only, so adding a shard
+ * moves only the repositories that fall onto its points, about 1/N. A repository belongs to the shard of the next
+ * point clockwise of its path name hash.</p>
+ *
+ * <p>With repository costs the loads are bounded: a shard above {@value #LOAD_FACTOR} times the average load sheds
+ * repositories, in the order of their path name hashes, until it is below again. A shed repository moves to the next
+ * shard clockwise that has room for it. Only the repositories of overloaded shards move, so growing the fleet moves
+ * slightly more than 1/N: the ones of the new shard and those whose shard sheds differently. All nodes compute the
+ * same assignment, as long as they use the same costs.</p>
+ */
+public class ShardRing {
+  private static final int VIRTUAL_POINTS = 160;
+  private static final double LOAD_FACTOR = 1.25;
+
+  private final int shards;
+  private final long[] points;
+  private final int[] owners;
+
+  /**
+   * @param shards Amount of shards, numbered from 1.
+   */
+  public ShardRing(int shards) {
+    this.shards = shards;
+
+    long[][] entries = new long[shards * VIRTUAL_POINTS][];
+    for (int shard = 1; shard <= shards; shard++) {
+      for (int point = 0; point < VIRTUAL_POINTS; point++) {
+        entries[(shard - 1) * VIRTUAL_POINTS + point] = new long[]{hash("shard-" + shard + "-" + point), shard};
+      }
+    }
+    Arrays.sort(entries, Comparator.<long[]>comparingLong(entry -> entry[0]).thenComparingLong(entry -> entry[1]));
+
+    points = new long[entries.length];
+    owners = new int[entries.length];
+    for (int index = 0; index < entries.length; index++) {
+      points[index] = entries[index][0];
+      owners[index] = (int) entries[index][1];
+    }
+  }
+
+  /**
+   * Assign every path name to a shard.
+   *
+   * @param costs The historical cost of the repositories by path name, repositories without history are assumed
+   *              to have the median cost. If empty, all repositories are weighted equally.
+   * @return The shard number by path name.
+   */
+  public Map<String, Integer> assign(Collection<String> pathNames, Map<String, Long> costs) {
+    long defaultCost = median(costs.values());
+    Map<String, Long> weights = new HashMap<>();
+    Map<String, Integer> assignment = new HashMap<>();
+    long[] loads = new long[shards + 1];
+    long totalCost = 0;
+
+    for (String pathName : pathNames) {
+      long cost = Math.max(1, costs.getOrDefault(pathName, defaultCost));
+      int shard = owners[position(pathName) % points.length];
+
+      weights.put(pathName, cost);
+      assignment.put(pathName, shard);
+      loads[shard] += cost;
+      totalCost += cost;
+    }
+
+    double capacity = LOAD_FACTOR * totalCost / shards;
+
+    // the order only depends on the path names, a shard sheds mostly the same repositories for any fleet size
+    List<String> order = new ArrayList<>(weights.keySet());
+    order.sort(Comparator.<String>comparingLong(ShardRing::hash).thenComparing(Comparator.naturalOrder()));
+
+    List<String> overflow = new ArrayList<>();
+    for (String pathName : order) {
+      int shard = assignment.get(pathName);
+
+      if (loads[shard] > capacity) {
+        loads[shard] -= weights.get(pathName);
+        overflow.add(pathName);
+      }
+    }
+
+    for (String pathName : overflow) {
+      long cost = weights.get(pathName);
+      int shard = place(pathName, cost, loads, capacity);
+
+      loads[shard] += cost;
+      assignment.put(pathName, shard);
+    }
+
+    return assignment;
+  }
+
+  /**
+   * Walk the ring clockwise from the path name to the first shard with room for the cost.
+   *
+   * @return The first shard with room, the least loaded shard if none has room.
+   */
+  private int place(String pathName, long cost, long[] loads, double capacity) {
+    int start = position(pathName);
+    boolean[] visited = new boolean[shards + 1];
+    int lightest = owners[start % points.length];
+
+    for (int step = 0, remaining = shards; step < points.length && 0 < remaining; step++) {
+      int shard = owners[(start + step) % points.length];
+
+      if (visited[shard]) {
+        continue;
+      }
+      visited[shard] = true;
+      remaining--;
+
+      if (loads[shard] + cost <= capacity) {
+        return shard;
+      }
+
+      if (loads[shard] < loads[lightest]) {
+        lightest = shard;
+      }
+    }
+
+    // the cost of this repository exceeds the slack of every shard
+    return lightest;
+  }
+
+  /**
+   * The index of the next point clockwise of the path name hash, the length of the ring if it wraps around.
+   */
+  private int position(String pathName) {
+    int index = Arrays.binarySearch(points, hash(pathName));
+    return 0 > index ? -index - 1 : index;
+  }
+
+  private static long median(Collection<Long> values) {
+    if (values.isEmpty()) {
+      return 1;
+    }
+
+    long[] sorted = values.stream().mapToLong(Long::longValue).sorted().toArray();
+    return sorted[sorted.length / 2];
+  }
+
+  private static long hash(String key) {
+    try {
+      byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+      long hash = 0;
+
+      for (int index = 0; index < 8; index++) {
+        hash = hash << 8 | (digest[index] & 0xff);
+      }
+
+      return hash;
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package io.bit3.mgpm.snapshot;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Changes of a single repository between two snapshots.
+ */
+public class RepositoryDiff {
+  private final String pathName;
+  private final Change change;
+  private final List<String> addedBranches = new LinkedList<>();
+  private final List<String> removedBranches = new LinkedList<>();
+  private final List<BehindChange> behindChanges = new LinkedList<>();
+  private final List<String> conflictingBranches = new LinkedList<>();
+  private final Map<String, List<String>> addedRemoteBranches = new TreeMap<>();
+  private final Map<String, List<String>> removedRemoteBranches = new TreeMap<>();
+
+  public RepositoryDiff(String pathName, Change change) {
+    this.pathName = pathName;
+    this.change = change;
+  }
+
+  public String getPathName() {
+    return pathName;
+  }
+
+  public Change getChange() {
+    return change;
+  }
+
+  /**
+   * Local branches, that did not exist in the previous run.
+   */
+  public List<String> getAddedBranches() {
+    return Collections.unmodifiableList(addedBranches);
+  }
+
+  public List<String> getRemovedBranches() {
+    return Collections.unmodifiableList(removedBranches);
+  }
+
+  /**
+   * Local branches, that fell further behind their upstream.
+   */
+  public List<BehindChange> getBehindChanges() {
+    return Collections.unmodifiableList(behindChanges);
+  }
+
+  /**
+   * Local branches, that could not be updated because of conflicts and could in the previous run.
+   */
+  public List<String> getConflictingBranches() {
+    return Collections.unmodifiableList(conflictingBranches);
+  }
+
+  public Map<String, List<String>> getAddedRemoteBranches() {
+    return Collections.unmodifiableMap(addedRemoteBranches);
+  }
+
+  public Map<String, List<String>> getRemovedRemoteBranches() {
+    return Collections.unmodifiableMap(removedRemoteBranches);
+  }
+
+  public boolean isEmpty() {
+    return Change.CHANGED == change
+        && addedBranches.isEmpty()
+        && removedBranches.isEmpty()
+        && behindChanges.isEmpty()
+        && conflictingBranches.isEmpty()
+        && addedRemoteBranches.isEmpty()
+        && removedRemoteBranches.isEmpty();
+  }
+
+  void addAddedBranch(String branchName) {
+    addedBranches.add(branchName);
+  }
+
+  void addRemovedBranch(String branchName) {
+    removedBranches.add(branchName);
+  }
+
+  void addBehindChange(BehindChange behindChange) {
+    behindChanges.add(behindChange);
+  }
+
+  void addConflictingBranch(String branchName) {
+    conflictingBranches.add(branchName);
+  }
+
+  void addAddedRemoteBranch(String remoteName, String branchName) {
+    addedRemoteBranches.computeIfAbsent(remoteName, key -> new LinkedList<>()).add(branchName);
+  }
+
+  void addRemovedRemoteBranch(String remoteName, String branchName) {
+    removedRemoteBranches.computeIfAbsent(remoteName, key -> new LinkedList<>()).add(branchName);
+  }
+
+  public enum Change {
+    ADDED,
+    REMOVED,
+    CHANGED
+  }
+
+  public static class BehindChange {
+    private final String branchName;
+    private final int before;
+    private final int after;
+
+    public BehindChange(String branchName, int before, int after) {
+      this.branchName = branchName;
+      this.before = before;
+      this.after = after;
+    }
+
+    public String getBranchName() {
+      return branchName;
+    }
+
+    public int getBefore() {
+      return before;
+    }
+
+    public int getAfter() {
+      return after;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package io.bit3.mgpm.snapshot;
+
+import io.bit3.mgpm.worker.BranchResult;
+import io.bit3.mgpm.worker.RepositoryResult;
+import io.bit3.mgpm.worker.Update;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Compare two snapshots in a single merge pass over their path name ordered repository tables.
+ */
+public class SnapshotDiff {
+  private final SnapshotReader from;
+  private final SnapshotReader to;
+
+  public SnapshotDiff(SnapshotReader from, SnapshotReader to) {
+    this.from = from;
+    this.to = to;
+  }
+
+  /**
+   * Pass every repository with changes to the consumer, in path name order.
+   */
+  public void forEach(Consumer<RepositoryDiff> consumer) {
+    int fromIndex = 0;
+    int toIndex = 0;
+
+    while (fromIndex < from.size() || toIndex < to.size()) {
+      int comparison;
+      if (fromIndex >= from.size()) {
+        comparison = 1;
+      } else if (toIndex >= to.size()) {
+        comparison = -1;
+      } else {
+        comparison = from.getPathName(fromIndex).compareTo(to.getPathName(toIndex));
+      }
+
+      RepositoryDiff diff;
+      if (comparison < 0) {
+        diff = new RepositoryDiff(from.getPathName(fromIndex++), RepositoryDiff.Change.REMOVED);
+      } else if (comparison > 0) {
+        diff = new RepositoryDiff(to.getPathName(toIndex++), RepositoryDiff.Change.ADDED);
+      } else {
+        diff = compare(from.read(fromIndex++), to.read(toIndex++));
+      }
+
+      if (!diff.isEmpty()) {
+        consumer.accept(diff);
+      }
+    }
+  }
+
+  private RepositoryDiff compare(RepositoryResult before, RepositoryResult after) {
+    RepositoryDiff diff = new RepositoryDiff(after.getPathName(), RepositoryDiff.Change.CHANGED);
+
+    // a repository that could not be synced has no branch information, comparing it would report noise
+    if (!before.isSucceed() || !after.isSucceed()) {
+      return diff;
+    }
+
+    Map<String, BranchResult> beforeBranches = new HashMap<>();
+    for (BranchResult branch : before.getBranches()) {
+      beforeBranches.put(branch.getName(), branch);
+    }
+
+    for (BranchResult branch : after.getBranches()) {
+      BranchResult previous = beforeBranches.remove(branch.getName());
+
+      if (null == previous) {
+        diff.addAddedBranch(branch.getName());
+        continue;
+      }
+
+      if (null != previous.getStats() && null != branch.getStats()
+          && branch.getStats().getCommitsBehind() > previous.getStats().getCommitsBehind()) {
+        diff.addBehindChange(new RepositoryDiff.BehindChange(
+            branch.getName(), previous.getStats().getCommitsBehind(), branch.getStats().getCommitsBehind()));
+      }
+
+      if (Update.SKIP_CONFLICTING == branch.getUpdate() && Update.SKIP_CONFLICTING != previous.getUpdate()) {
+        diff.addConflictingBranch(branch.getName());
+      }
+    }
+
+    for (BranchResult branch : before.getBranches()) {
+      if (beforeBranches.containsKey(branch.getName())) {
+        diff.addRemovedBranch(branch.getName());
+      }
+    }
+
+    compareRemoteBranches(before.getRemoteBranchNames(), after.getRemoteBranchNames(), diff);
+
+    return diff;
+  }
+
+  private void compareRemoteBranches(Map<String, List<String>> before, Map<String, List<String>> after,
+                                     RepositoryDiff diff) {
+    Set<String> remoteNames = new HashSet<>(before.keySet());
+    remoteNames.addAll(after.keySet());
+
+    for (String remoteName : remoteNames) {
+      List<String> beforeNames = before.getOrDefault(remoteName, Collections.emptyList());
+      List<String> afterNames = after.getOrDefault(remoteName, Collections.emptyList());
+      Set<String> beforeSet = new HashSet<>(beforeNames);
+      Set<String> afterSet = new HashSet<>(afterNames);
+
+      for (String branchName : afterNames) {
+        if (!beforeSet.contains(branchName)) {
+          diff.addAddedRemoteBranch(remoteName, branchName);
+        }
+      }
+
+      for (String branchName : beforeNames) {
+        if (!afterSet.contains(branchName)) {
+          diff.addRemovedRemoteBranch(remoteName, branchName);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package io.bit3.mgpm.snapshot;
+
+/**
+ * Layout of a workspace run snapshot.
+ *
+ * <pre>
+ * header      magic (int), version (int), created at millis (long), repository count (int),
+ *             dictionary size (int), dictionary offset (long), repository table offset (long)
+ * records     one record per repository, in the order they were written
+ * dictionary  every distinct string once: varint byte length, UTF-8 bytes
+ * table       per repository, sorted by path name: path name id (int), record offset (long)
+ * </pre>
+ *
+ * <p>Records reference strings by dictionary id, encode counters as unsigned varints and commit ids as raw bytes
+ * (20 bytes for SHA-1) instead of hex strings. Phases are referenced by name, their order is not stable. Updates are stored by their pinned
+ * code, 0 for none.</p>
+ */
+final class SnapshotFormat {
+  static final int MAGIC = 0x4d475053; // "MGPS"
+  static final int VERSION = 2;
+  static final int HEADER_SIZE = 40;
+  static final int TABLE_ENTRY_SIZE = 12;
+
+  static final int REPOSITORY_SUCCEED = 1;
+  static final int REPOSITORY_SKIPPED = 1 << 1;
+  static final int REPOSITORY_HEAD_SYMBOLIC_REF = 1 << 2;
+  static final int REPOSITORY_HEAD_COMMIT_REF = 1 << 3;
+  static final int REPOSITORY_TAG = 1 << 4;
+  static final int REPOSITORY_TAG_CHECKED_OUT = 1 << 5;
+
+  static final int BRANCH_UPSTREAM = 1;
+  static final int BRANCH_REBASE = 1 << 1;
+  static final int BRANCH_REMOTE_BRANCH = 1 << 2;
+  static final int BRANCH_STATS = 1 << 3;
+  static final int BRANCH_UPDATE_ISH = 1 << 4;
+
+  /**
+   * Marker for an object id, that is not a hex string and therefore stored as dictionary string.
+   */
+  static final int OBJECT_ID_STRING = 0;
+
+  private SnapshotFormat() {
+  }
+}
@@ -0,0 +1,73 @@
+package io.bit3.mgpm.snapshot;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The snapshots of the last runs, kept in {@code .mgpm/runs} of the working directory.
+ */
+public class SnapshotHistory {
+  public static final String DIRECTORY_NAME = ".mgpm";
+  private static final String SUFFIX = ".snapshot";
+
+  private final Path directory;
+
+  public SnapshotHistory() {
+    this(Paths.get(DIRECTORY_NAME, "runs").toAbsolutePath());
+  }
+
+  public SnapshotHistory(Path directory) {
+    this.directory = directory;
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /**
+   * File for the snapshot of a new run, file names sort in chronological order.
+   */
+  public Path createPath() {
+    String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+    return directory.resolve("run-" + timestamp + SUFFIX);
+  }
+
+  /**
+   * All snapshots, oldest first.
+   */
+  public List<Path> list() throws IOException {
+    List<Path> snapshots = new ArrayList<>();
+
+    if (!Files.isDirectory(directory)) {
+      return snapshots;
+    }
+
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "run-*" + SUFFIX)) {
+      for (Path path : stream) {
+        snapshots.add(path);
+      }
+    }
+
+    Collections.sort(snapshots);
+    return snapshots;
+  }
+
+  /**
+   * Delete all but the newest {@code keep} snapshots.
+   */
+  public void prune(int keep) throws IOException {
+    List<Path> snapshots = list();
+
+    for (int index = 0; index < snapshots.size() - keep; index++) {
+      Files.deleteIfExists(snapshots.get(index));
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package io.bit3.mgpm.snapshot;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Combine the snapshots of the shards of a run into one snapshot of the whole workspace.
+ *
+ * <p>The sources are merged along their path name order, without loading them into memory. A repository part of
+ * multiple sources is taken from the newest one.</p>
+ */
+public class SnapshotMerger {
+  private final List<Path> sources;
+
+  public SnapshotMerger(List<Path> sources) {
+    this.sources = sources;
+  }
+
+  /**
+   * Write the merged snapshot and return the amount of repositories in it.
+   */
+  public int merge(Path target) throws IOException {
+    List<SnapshotReader> readers = new ArrayList<>();
+
+    try {
+      for (Path source : sources) {
+        readers.add(new SnapshotReader(source));
+      }
+
+      // newest first, so the first reader with a path name wins
+      readers.sort(Comparator.comparingLong(SnapshotReader::getCreatedAt).reversed());
+
+      int[] positions = new int[readers.size()];
+      int count = 0;
+
+      try (SnapshotWriter writer = new SnapshotWriter(target)) {
+        while (true) {
+          String pathName = null;
+          int winner = -1;
+
+          for (int index = 0; index < readers.size(); index++) {
+            if (positions[index] >= readers.get(index).size()) {
+              continue;
+            }
+
+            String candidate = readers.get(index).getPathName(positions[index]);
+            if (null == pathName || 0 > candidate.compareTo(pathName)) {
+              pathName = candidate;
+              winner = index;
+            }
+          }
+
+          if (null == pathName) {
+            writer.complete();
+            return count;
+          }
+
+          writer.write(readers.get(winner).read(positions[winner]));
+          count++;
+
+          for (int index = 0; index < readers.size(); index++) {
+            if (positions[index] < readers.get(index).size()
+                && pathName.equals(readers.get(index).getPathName(positions[index]))) {
+              positions[index]++;
+            }
+          }
+        }
+      }
+    } finally {
+      for (SnapshotReader reader : readers) {
+        reader.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,302 @@
+package io.bit3.mgpm.snapshot;
+
+import io.bit3.mgpm.worker.BranchResult;
+import io.bit3.mgpm.worker.FromToIsh;
+import io.bit3.mgpm.worker.Phase;
+import io.bit3.mgpm.worker.PhaseTiming;
+import io.bit3.mgpm.worker.RepositoryResult;
+import io.bit3.mgpm.worker.TagResult;
+import io.bit3.mgpm.worker.Update;
+import io.bit3.mgpm.worker.Upstream;
+import io.bit3.mgpm.worker.Worker;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Memory-mapped, random access reader of a snapshot file.
+ *
+ * <p>Repositories are addressed by their index in path name order. Only the dictionary offsets are decoded up
+ * front, strings and records are decoded on demand.</p>
+ */
+public class SnapshotReader implements AutoCloseable {
+  private static final Map<String, Phase> PHASE_NAMES = new HashMap<>();
+
+  static {
+    for (Phase phase : Phase.values()) {
+      PHASE_NAMES.put(phase.name(), phase);
+    }
+  }
+
+  private final Path path;
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final long createdAt;
+  private final int repositoryCount;
+  private final int tableOffset;
+  private final int[] stringOffsets;
+  private final String[] strings;
+
+  public SnapshotReader(Path path) throws IOException {
+    this.path = path;
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+    try {
+      if (channel.size() < SnapshotFormat.HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+        throw new IOException(String.format("\"%s\" is not a valid snapshot", path));
+      }
+
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      if (SnapshotFormat.MAGIC != buffer.getInt(0)) {
+        throw new IOException(String.format("\"%s\" is not a snapshot", path));
+      }
+
+      if (SnapshotFormat.VERSION != buffer.getInt(4)) {
+        throw new IOException(String.format("\"%s\" has the unsupported version %d", path, buffer.getInt(4)));
+      }
+
+      createdAt = buffer.getLong(8);
+      repositoryCount = buffer.getInt(16);
+      int dictionarySize = buffer.getInt(20);
+      int dictionaryOffset = (int) buffer.getLong(24);
+      tableOffset = (int) buffer.getLong(32);
+
+      stringOffsets = new int[dictionarySize];
+      strings = new String[dictionarySize];
+      Cursor cursor = new Cursor(dictionaryOffset);
+      for (int index = 0; index < dictionarySize; index++) {
+        stringOffsets[index] = cursor.position;
+        int length = cursor.varInt();
+        cursor.position += length;
+      }
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public long getCreatedAt() {
+    return createdAt;
+  }
+
+  public int size() {
+    return repositoryCount;
+  }
+
+  /**
+   * Path name of the repository at the given index, in ascending order.
+   */
+  public String getPathName(int index) {
+    return string(buffer.getInt(tableOffset + index * SnapshotFormat.TABLE_ENTRY_SIZE));
+  }
+
+  public RepositoryResult read(int index) {
+    Cursor cursor = new Cursor((int) buffer.getLong(tableOffset + index * SnapshotFormat.TABLE_ENTRY_SIZE + 4));
+    return cursor.repository();
+  }
+
+  /**
+   * Binary search a repository by path name, return null if it is not part of the snapshot.
+   */
+  public RepositoryResult find(String pathName) {
+    int low = 0;
+    int high = repositoryCount - 1;
+
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int comparison = getPathName(middle).compareTo(pathName);
+
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        return read(middle);
+      }
+    }
+
+    return null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private synchronized String string(int id) {
+    String string = strings[id];
+
+    if (null == string) {
+      Cursor cursor = new Cursor(stringOffsets[id]);
+      int length = cursor.varInt();
+      byte[] bytes = new byte[length];
+      ByteBuffer slice = buffer.duplicate();
+      slice.position(cursor.position);
+      slice.get(bytes);
+      string = new String(bytes, StandardCharsets.UTF_8);
+      strings[id] = string;
+    }
+
+    return string;
+  }
+
+  private class Cursor {
+    private int position;
+
+    private Cursor(int position) {
+      this.position = position;
+    }
+
+    private RepositoryResult repository() {
+      String pathName = string(varInt());
+      File directory = new File(string(varInt()));
+      int flags = unsignedByte();
+      String headSymbolicRef = 0 != (flags & SnapshotFormat.REPOSITORY_HEAD_SYMBOLIC_REF) ? string(varInt()) : null;
+      String headCommitRef = 0 != (flags & SnapshotFormat.REPOSITORY_HEAD_COMMIT_REF) ? objectId() : null;
+      TagResult tag = null;
+      if (0 != (flags & SnapshotFormat.REPOSITORY_TAG)) {
+        tag = new TagResult(string(varInt()), objectId(), 0 != (flags & SnapshotFormat.REPOSITORY_TAG_CHECKED_OUT));
+      }
+      long durationNanos = varLong() * 1000;
+      long fetchedBytes = varLong();
+
+      int timingCount = varInt();
+      List<PhaseTiming> timings = new ArrayList<>(timingCount);
+      for (int index = 0; index < timingCount; index++) {
+        String phaseName = string(varInt());
+        long phaseNanos = varLong() * 1000;
+        long gitNanos = varLong() * 1000;
+        int spawns = varInt();
+        long bytesRead = varLong();
+
+        // phases are stored by name, phases that were removed since the snapshot was written are skipped
+        Phase phase = PHASE_NAMES.get(phaseName);
+        if (null != phase) {
+          timings.add(new PhaseTiming(phase, phaseNanos, gitNanos, spawns, bytesRead, Collections.emptyMap()));
+        }
+      }
+
+      int branchCount = varInt();
+      List<BranchResult> branches = new ArrayList<>(branchCount);
+      for (int index = 0; index < branchCount; index++) {
+        branches.add(branch());
+      }
+
+      Map<String, List<String>> remoteBranchNames = branchNames();
+      Map<String, List<String>> addedRemoteBranchNames = branchNames();
+      Map<String, List<String>> deletedRemoteBranchNames = branchNames();
+
+      int errorCount = varInt();
+      List<String> errors = new ArrayList<>(errorCount);
+      for (int index = 0; index < errorCount; index++) {
+        errors.add(string(varInt()));
+      }
+
+      return new RepositoryResult(pathName, directory,
+          0 != (flags & SnapshotFormat.REPOSITORY_SUCCEED), 0 != (flags & SnapshotFormat.REPOSITORY_SKIPPED),
+          headSymbolicRef, headCommitRef, durationNanos, fetchedBytes, branches,
+          remoteBranchNames, addedRemoteBranchNames, deletedRemoteBranchNames,
+          timings, errors, tag, Collections.emptyMap());
+    }
+
+    private BranchResult branch() {
+      String name = string(varInt());
+      int flags = unsignedByte();
+      Update update = Update.of(unsignedByte());
+
+      Upstream upstream = null;
+      if (0 != (flags & SnapshotFormat.BRANCH_UPSTREAM)) {
+        String remoteName = string(varInt());
+        String remoteBranch = 0 != (flags & SnapshotFormat.BRANCH_REMOTE_BRANCH) ? string(varInt()) : null;
+        String remoteRef = string(varInt());
+        upstream = new Upstream(remoteName, remoteBranch, remoteRef, 0 != (flags & SnapshotFormat.BRANCH_REBASE));
+      }
+
+      FromToIsh updateIsh = null;
+      if (0 != (flags & SnapshotFormat.BRANCH_UPDATE_ISH)) {
+        updateIsh = new FromToIsh(objectId(), objectId());
+      }
+
+      Worker.Stats stats = null;
+      if (0 != (flags & SnapshotFormat.BRANCH_STATS)) {
+        stats = new Worker.Stats(varInt(), varInt(), varInt(), varInt(), varInt(), varInt(), varInt(), varInt());
+      }
+
+      return new BranchResult(name, upstream, update, updateIsh, stats);
+    }
+
+    private Map<String, List<String>> branchNames() {
+      int remoteCount = varInt();
+      Map<String, List<String>> branchNames = new TreeMap<>();
+
+      for (int remoteIndex = 0; remoteIndex < remoteCount; remoteIndex++) {
+        String remoteName = string(varInt());
+        int branchCount = varInt();
+        List<String> branches = new ArrayList<>(branchCount);
+
+        for (int index = 0; index < branchCount; index++) {
+          branches.add(string(varInt()));
+        }
+
+        branchNames.put(remoteName, branches);
+      }
+
+      return branchNames;
+    }
+
+    private String objectId() {
+      int length = unsignedByte();
+
+      if (SnapshotFormat.OBJECT_ID_STRING == length) {
+        return string(varInt());
+      }
+
+      char[] hex = new char[2 * length];
+      for (int index = 0; index < length; index++) {
+        int value = unsignedByte();
+        hex[2 * index] = Character.forDigit(value >>> 4, 16);
+        hex[2 * index + 1] = Character.forDigit(value & 0xf, 16);
+      }
+      return new String(hex);
+    }
+
+    private int unsignedByte() {
+      return buffer.get(position++) & 0xff;
+    }
+
+    private int varInt() {
+      return (int) varLong();
+    }
+
+    private long varLong() {
+      long value = 0;
+      int shift = 0;
+      byte current;
+
+      do {
+        current = buffer.get(position++);
+        value |= (long) (current & 0x7f) << shift;
+        shift += 7;
+      } while (0 != (current & 0x80));
+
+      return value;
+    }
+  }
+}
@@ -0,0 +1,319 @@
+package io.bit3.mgpm.snapshot;
+
+import io.bit3.mgpm.worker.BranchResult;
+import io.bit3.mgpm.worker.FromToIsh;
+import io.bit3.mgpm.worker.PhaseTiming;
+import io.bit3.mgpm.worker.RepositoryResult;
+import io.bit3.mgpm.worker.Upstream;
+import io.bit3.mgpm.worker.Worker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stream {@link RepositoryResult}s into a snapshot file, see {@link SnapshotFormat} for the layout.
+ *
+ * <p>The file is written next to the target and moved in place on {@link #close()}, once the writer was marked
+ * {@link #complete()}. An incomplete snapshot is deleted instead, readers never see a partial snapshot.</p>
+ */
+public class SnapshotWriter implements AutoCloseable {
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Path target;
+  private final Path temporary;
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  private final Map<String, Integer> dictionary = new HashMap<>();
+  private final List<String> strings = new ArrayList<>();
+  private final List<long[]> table = new ArrayList<>();
+  private long position = SnapshotFormat.HEADER_SIZE;
+  private boolean completed = false;
+  private boolean closed = false;
+
+  public SnapshotWriter(Path target) throws IOException {
+    this.target = target.toAbsolutePath();
+    this.temporary = this.target.resolveSibling("." + this.target.getFileName() + ".tmp");
+
+    Files.createDirectories(this.target.getParent());
+    channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    channel.position(SnapshotFormat.HEADER_SIZE);
+  }
+
+  public void write(RepositoryResult result) throws IOException {
+    long offset = position + buffer.position();
+
+    putVarInt(intern(result.getPathName()));
+    putVarInt(intern(result.getDirectory().getPath()));
+
+    int flags = 0;
+    flags |= result.isSucceed() ? SnapshotFormat.REPOSITORY_SUCCEED : 0;
+    flags |= result.isSkipped() ? SnapshotFormat.REPOSITORY_SKIPPED : 0;
+    flags |= null != result.getHeadSymbolicRef() ? SnapshotFormat.REPOSITORY_HEAD_SYMBOLIC_REF : 0;
+    flags |= null != result.getHeadCommitRef() ? SnapshotFormat.REPOSITORY_HEAD_COMMIT_REF : 0;
+    flags |= null != result.getTag() ? SnapshotFormat.REPOSITORY_TAG : 0;
+    flags |= null != result.getTag() && result.getTag().isCheckedOut() ? SnapshotFormat.REPOSITORY_TAG_CHECKED_OUT : 0;
+    putByte(flags);
+
+    if (null != result.getHeadSymbolicRef()) {
+      putVarInt(intern(result.getHeadSymbolicRef()));
+    }
+    if (null != result.getHeadCommitRef()) {
+      putObjectId(result.getHeadCommitRef());
+    }
+    if (null != result.getTag()) {
+      putVarInt(intern(result.getTag().getName()));
+      putObjectId(result.getTag().getCommit());
+    }
+
+    putVarLong(result.getDurationNanos() / 1000);
+    putVarLong(result.getFetchedBytes());
+
+    putVarInt(result.getTimings().size());
+    for (PhaseTiming timing : result.getTimings()) {
+      putVarInt(intern(timing.getPhase().name()));
+      putVarLong(timing.getDurationNanos() / 1000);
+      putVarLong(timing.getGitNanos() / 1000);
+      putVarInt(timing.getSpawns());
+      putVarLong(timing.getBytesRead());
+    }
+
+    putVarInt(result.getBranches().size());
+    for (BranchResult branch : result.getBranches()) {
+      writeBranch(branch);
+    }
+
+    writeBranchNames(result.getRemoteBranchNames());
+    writeBranchNames(result.getAddedRemoteBranchNames());
+    writeBranchNames(result.getDeletedRemoteBranchNames());
+
+    putVarInt(result.getErrors().size());
+    for (String error : result.getErrors()) {
+      putVarInt(intern(error));
+    }
+
+    table.add(new long[]{intern(result.getPathName()), offset});
+  }
+
+  /**
+   * Mark all results as written, only a complete snapshot is moved in place on close.
+   */
+  public void complete() {
+    completed = true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    if (!completed) {
+      try {
+        channel.close();
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+      return;
+    }
+
+    try {
+      long dictionaryOffset = position + buffer.position();
+      for (String string : strings) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        putVarInt(bytes.length);
+        putBytes(bytes);
+      }
+
+      long tableOffset = position + buffer.position();
+      table.sort((left, right) -> strings.get((int) left[0]).compareTo(strings.get((int) right[0])));
+      for (long[] entry : table) {
+        ensure(SnapshotFormat.TABLE_ENTRY_SIZE);
+        buffer.putInt((int) entry[0]);
+        buffer.putLong(entry[1]);
+      }
+      flush();
+
+      ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.HEADER_SIZE);
+      header.putInt(SnapshotFormat.MAGIC);
+      header.putInt(SnapshotFormat.VERSION);
+      header.putLong(System.currentTimeMillis());
+      header.putInt(table.size());
+      header.putInt(strings.size());
+      header.putLong(dictionaryOffset);
+      header.putLong(tableOffset);
+      header.flip();
+      channel.write(header, 0);
+      channel.force(false);
+    } finally {
+      channel.close();
+    }
+
+    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private void writeBranch(BranchResult branch) throws IOException {
+    Upstream upstream = branch.getUpstream();
+    FromToIsh updateIsh = branch.getUpdateIsh();
+    Worker.Stats stats = branch.getStats();
+
+    int flags = 0;
+    if (null != upstream) {
+      flags |= SnapshotFormat.BRANCH_UPSTREAM;
+      flags |= upstream.isRebase() ? SnapshotFormat.BRANCH_REBASE : 0;
+      flags |= null != upstream.getRemoteBranch() ? SnapshotFormat.BRANCH_REMOTE_BRANCH : 0;
+    }
+    flags |= null != stats ? SnapshotFormat.BRANCH_STATS : 0;
+    flags |= null != updateIsh ? SnapshotFormat.BRANCH_UPDATE_ISH : 0;
+
+    putVarInt(intern(branch.getName()));
+    putByte(flags);
+    putByte(null == branch.getUpdate() ? 0 : branch.getUpdate().getCode());
+
+    if (null != upstream) {
+      putVarInt(intern(upstream.getRemoteName()));
+      if (null != upstream.getRemoteBranch()) {
+        putVarInt(intern(upstream.getRemoteBranch()));
+      }
+      putVarInt(intern(upstream.getRemoteRef()));
+    }
+
+    if (null != updateIsh) {
+      putObjectId(updateIsh.getFrom());
+      putObjectId(updateIsh.getTo());
+    }
+
+    if (null != stats) {
+      putVarInt(stats.getCommitsBehind());
+      putVarInt(stats.getCommitsAhead());
+      putVarInt(stats.getAdded());
+      putVarInt(stats.getModified());
+      putVarInt(stats.getRenamed());
+      putVarInt(stats.getCopied());
+      putVarInt(stats.getDeleted());
+      putVarInt(stats.getUnmerged());
+    }
+  }
+
+  private void writeBranchNames(Map<String, List<String>> branchNames) throws IOException {
+    putVarInt(branchNames.size());
+
+    for (Map.Entry<String, List<String>> entry : branchNames.entrySet()) {
+      putVarInt(intern(entry.getKey()));
+      putVarInt(entry.getValue().size());
+
+      for (String branchName : entry.getValue()) {
+        putVarInt(intern(branchName));
+      }
+    }
+  }
+
+  private int intern(String string) {
+    Integer id = dictionary.get(string);
+
+    if (null == id) {
+      id = strings.size();
+      strings.add(string);
+      dictionary.put(string, id);
+    }
+
+    return id;
+  }
+
+  /**
+   * Write a hex object id as length prefixed raw bytes.
+   */
+  private void putObjectId(String objectId) throws IOException {
+    if (!isHexObjectId(objectId)) {
+      putByte(SnapshotFormat.OBJECT_ID_STRING);
+      putVarInt(intern(objectId));
+      return;
+    }
+
+    int length = objectId.length() / 2;
+    ensure(1 + length);
+    buffer.put((byte) length);
+
+    for (int index = 0; index < length; index++) {
+      buffer.put((byte) ((Character.digit(objectId.charAt(2 * index), 16) << 4)
+          | Character.digit(objectId.charAt(2 * index + 1), 16)));
+    }
+  }
+
+  private static boolean isHexObjectId(String objectId) {
+    int length = objectId.length();
+
+    if (0 == length || 0 != length % 2 || length > 2 * 127) {
+      return false;
+    }
+
+    for (int index = 0; index < length; index++) {
+      if (0 > Character.digit(objectId.charAt(index), 16) || Character.isUpperCase(objectId.charAt(index))) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private void putByte(int value) throws IOException {
+    ensure(1);
+    buffer.put((byte) value);
+  }
+
+  private void putVarInt(int value) throws IOException {
+    putVarLong(value & 0xffffffffL);
+  }
+
+  private void putVarLong(long value) throws IOException {
+    ensure(10);
+
+    while (0 != (value & ~0x7fL)) {
+      buffer.put((byte) ((value & 0x7f) | 0x80));
+      value >>>= 7;
+    }
+
+    buffer.put((byte) value);
+  }
+
+  private void putBytes(byte[] bytes) throws IOException {
+    if (bytes.length > buffer.capacity()) {
+      flush();
+      ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+      while (wrapped.hasRemaining()) {
+        position += channel.write(wrapped);
+      }
+      return;
+    }
+
+    ensure(bytes.length);
+    buffer.put(bytes);
+  }
+
+  private void ensure(int bytes) throws IOException {
+    if (buffer.remaining() < bytes) {
+      flush();
+    }
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer);
+    }
+
+    buffer.clear();
+  }
+}
@@ -11,6 +11,11 @@ public abstract class AbstractWorkerObserver implements WorkerObserver {
     // no op
   }
 
+  @Override
+  public void timing(PhaseTiming timing, Worker worker) {
+    // no op
+  }
+
   @Override
   public void end(Worker worker) {
     // no op
@@ -7,17 +7,24 @@ public enum Action {
   CLONE_REPOSITORY(LogLevel.WARN),
   STASH(LogLevel.DEBUG),
   UPDATE_REMOTE_URL(LogLevel.DEBUG),
+  ADD_REMOTE(LogLevel.DEBUG),
   UNSTASH(LogLevel.DEBUG),
   PARSE_LOCAL_BRANCHES(LogLevel.DEBUG),
   PARSE_REMOTE_BRANCHES(LogLevel.DEBUG),
   DETERMINE_UPSTREAMS(LogLevel.DEBUG),
+  PLAN_UPDATES(LogLevel.DEBUG),
   FETCH_REMOTES(LogLevel.DEBUG),
-  CHECKOUT(LogLevel.DEBUG),
+  UPDATE_MIRROR(LogLevel.DEBUG),
+  RETRY(LogLevel.WARN),
+  WRITE_COMMIT_GRAPH(LogLevel.DEBUG),
   REBASE(LogLevel.DEBUG),
   REBASE_ABORT(LogLevel.WARN),
   MERGE(LogLevel.DEBUG),
   MERGE_ABORT(LogLevel.WARN),
-  RESTORE_HEAD(LogLevel.DEBUG),
+  UPDATE_REF(LogLevel.DEBUG),
+  CHECKOUT_TAG(LogLevel.DEBUG),
+  NO_MATCHING_TAG(LogLevel.WARN),
+  SKIP_DIRTY_TAG(LogLevel.WARN),
   UPDATE_SUBMODULES(LogLevel.DEBUG),
   EXCEPTION_OCCURRED(LogLevel.ERROR);
 
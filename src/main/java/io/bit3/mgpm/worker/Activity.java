@@ -3,10 +3,16 @@ package io.bit3.mgpm.worker;
 public class Activity {
   private final Action action;
   private final String message;
+  private final String branchName;
 
   public Activity(Action action, String message) {
+    this(action, message, null);
+  }
+
+  public Activity(Action action, String message, String branchName) {
     this.action = action;
     this.message = message;
+    this.branchName = branchName;
   }
 
   public Action getAction() {
@@ -16,4 +22,11 @@ public class Activity {
   public String getMessage() {
     return message;
   }
+
+  /**
+   * The branch the activity works on, null if it concerns the whole repository.
+   */
+  public String getBranchName() {
+    return branchName;
+  }
 }
@@ -0,0 +1,52 @@
+package io.bit3.mgpm.worker;
+
+/**
+ * Final state of a single local branch.
+ */
+public class BranchResult {
+  private final String name;
+  private final Upstream upstream;
+  private final Update update;
+  private final FromToIsh updateIsh;
+  private final Worker.Stats stats;
+
+  public BranchResult(String name, Upstream upstream, Update update, FromToIsh updateIsh, Worker.Stats stats) {
+    this.name = name;
+    this.upstream = upstream;
+    this.update = update;
+    this.updateIsh = updateIsh;
+    this.stats = stats;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * The upstream, or null if the branch does not track a remote branch.
+   */
+  public Upstream getUpstream() {
+    return upstream;
+  }
+
+  /**
+   * The update result, or null if the branch was not updated.
+   */
+  public Update getUpdate() {
+    return update;
+  }
+
+  /**
+   * The commits before and after the update, or null if the branch was not moved.
+   */
+  public FromToIsh getUpdateIsh() {
+    return updateIsh;
+  }
+
+  /**
+   * The stats, or null if the upstream is not available.
+   */
+  public Worker.Stats getStats() {
+    return stats;
+  }
+}
@@ -0,0 +1,417 @@
+package io.bit3.mgpm.worker;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read-only view of the commit-graph of a repository, to walk the history without spawning git.
+ *
+ * <p>The graph files, a single {@code objects/info/commit-graph} or the layers of a split
+ * {@code objects/info/commit-graphs} chain, are memory mapped. The parents and topological levels of all commits are
+ * decoded into primitive arrays once, object ids are looked up in the mapped files.</p>
+ *
+ * <p>Not thread safe, the walk state is reused between walks.</p>
+ */
+public class CommitGraph {
+  private static final int SIGNATURE = 0x43475048; // CGPH
+  private static final int CHUNK_FANOUT = 0x4f494446; // OIDF
+  private static final int CHUNK_LOOKUP = 0x4f49444c; // OIDL
+  private static final int CHUNK_DATA = 0x43444154; // CDAT
+  private static final int CHUNK_EXTRA_EDGES = 0x45444745; // EDGE
+  private static final int PARENT_NONE = 0x70000000;
+  private static final int PARENT_EXTRA_EDGES = 0x80000000;
+  private static final int PARENT_MASK = 0x7fffffff;
+  private static final byte LEFT = 1;
+  private static final byte RIGHT = 2;
+  private static final byte BOTH = LEFT | RIGHT;
+
+  private final List<Layer> layers;
+  private final int size;
+  private final int[] parentOffsets;
+  private final int[] parents;
+  private final int[] generations;
+  private final byte[] flags;
+
+  private CommitGraph(List<Layer> layers) throws IOException {
+    this.layers = layers;
+
+    int size = 0;
+    for (Layer layer : layers) {
+      size += layer.size;
+    }
+    this.size = size;
+
+    parentOffsets = new int[size + 1];
+    generations = new int[size];
+    flags = new byte[size];
+
+    int[] parents = new int[size];
+    int parentCount = 0;
+    int position = 0;
+
+    for (Layer layer : layers) {
+      for (int index = 0; index < layer.size; index++, position++) {
+        int offset = layer.data + index * (layer.hashLength + 16) + layer.hashLength;
+        int firstParent = layer.buffer.getInt(offset);
+        int secondParent = layer.buffer.getInt(offset + 4);
+
+        // the upper 30 bits hold the topological level
+        generations[position] = layer.buffer.getInt(offset + 8) >>> 2;
+        parentOffsets[position] = parentCount;
+
+        if (PARENT_NONE != firstParent) {
+          parents = grow(parents, parentCount + 1);
+          parents[parentCount++] = firstParent;
+        }
+
+        if (PARENT_NONE == secondParent) {
+          continue;
+        }
+
+        if (0 == (secondParent & PARENT_EXTRA_EDGES)) {
+          parents = grow(parents, parentCount + 1);
+          parents[parentCount++] = secondParent;
+          continue;
+        }
+
+        if (0 > layer.extraEdges) {
+          throw new IOException("commit-graph references extra edges, but has no EDGE chunk");
+        }
+
+        // octopus merge, the list of further parents ends with the marked one
+        int edge = layer.extraEdges + 4 * (secondParent & PARENT_MASK);
+        int parent;
+        do {
+          parent = layer.buffer.getInt(edge);
+          edge += 4;
+          parents = grow(parents, parentCount + 1);
+          parents[parentCount++] = parent & PARENT_MASK;
+        } while (0 == (parent & PARENT_EXTRA_EDGES));
+      }
+    }
+
+    parentOffsets[size] = parentCount;
+    this.parents = parents;
+
+    for (int index = 0; index < parentCount; index++) {
+      if (0 > parents[index] || parents[index] >= size) {
+        throw new IOException("commit-graph references a parent out of range");
+      }
+    }
+  }
+
+  /**
+   * Load the commit-graph of a repository, null if it has none.
+   */
+  public static CommitGraph load(File gitDirectory) throws IOException {
+    Path info = gitDirectory.toPath().resolve("objects/info");
+    Path chain = info.resolve("commit-graphs/commit-graph-chain");
+    List<Layer> layers = new ArrayList<>();
+
+    if (Files.isRegularFile(chain)) {
+      // the chain lists the base layer first
+      for (String hash : Files.readAllLines(chain, StandardCharsets.US_ASCII)) {
+        if (!hash.isEmpty()) {
+          layers.add(new Layer(info.resolve("commit-graphs/graph-" + hash.trim() + ".graph")));
+        }
+      }
+    } else if (Files.isRegularFile(info.resolve("commit-graph"))) {
+      layers.add(new Layer(info.resolve("commit-graph")));
+    } else {
+      return null;
+    }
+
+    return new CommitGraph(layers);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Position of a commit within the graph, -1 if it is not part of it.
+   */
+  public int position(String objectId) {
+    byte[] hash = parseHex(objectId);
+
+    if (null == hash) {
+      return -1;
+    }
+
+    int offset = 0;
+    for (Layer layer : layers) {
+      int index = layer.find(hash);
+
+      if (0 <= index) {
+        return offset + index;
+      }
+
+      offset += layer.size;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Count the commits only reachable from the left, and only reachable from the right commit.
+   *
+   * <p>Commits are visited in descending topological level, so all children of a commit are visited before it and
+   * its flags are final. The walk ends as soon as only commits reachable from both sides are left.</p>
+   *
+   * @return The ahead (left) and behind (right) count.
+   */
+  public int[] countAheadBehind(int left, int right) {
+    int[] counts = new int[2];
+
+    if (left == right) {
+      return counts;
+    }
+
+    GenerationQueue queue = new GenerationQueue();
+    int pending = 2;
+
+    flags[left] = LEFT;
+    flags[right] = RIGHT;
+    queue.push(left);
+    queue.push(right);
+
+    while (0 < pending) {
+      int commit = queue.pop();
+      byte flag = flags[commit];
+
+      if (BOTH == flag) {
+        for (int index = parentOffsets[commit]; index < parentOffsets[commit + 1]; index++) {
+          int parent = parents[index];
+
+          if (0 == flags[parent]) {
+            queue.push(parent);
+          } else if (BOTH != flags[parent]) {
+            pending--;
+          }
+          flags[parent] = BOTH;
+        }
+        continue;
+      }
+
+      pending--;
+      counts[LEFT == flag ? 0 : 1]++;
+
+      for (int index = parentOffsets[commit]; index < parentOffsets[commit + 1]; index++) {
+        int parent = parents[index];
+        byte parentFlag = flags[parent];
+
+        if (0 == parentFlag) {
+          queue.push(parent);
+          pending++;
+        } else if (BOTH != parentFlag && parentFlag != flag) {
+          pending--;
+        }
+        flags[parent] |= flag;
+      }
+    }
+
+    queue.reset();
+    return counts;
+  }
+
+  private static int[] grow(int[] array, int minimumLength) {
+    if (array.length >= minimumLength) {
+      return array;
+    }
+
+    return Arrays.copyOf(array, Math.max(minimumLength, array.length + (array.length >> 1) + 16));
+  }
+
+  private static byte[] parseHex(String objectId) {
+    if (0 != objectId.length() % 2) {
+      return null;
+    }
+
+    byte[] bytes = new byte[objectId.length() / 2];
+    for (int index = 0; index < bytes.length; index++) {
+      int high = Character.digit(objectId.charAt(2 * index), 16);
+      int low = Character.digit(objectId.charAt(2 * index + 1), 16);
+
+      if (0 > high || 0 > low) {
+        return null;
+      }
+
+      bytes[index] = (byte) (high << 4 | low);
+    }
+    return bytes;
+  }
+
+  /**
+   * A binary max-heap of commit positions, ordered by topological level.
+   */
+  private class GenerationQueue {
+    private int[] heap = new int[64];
+    private int length = 0;
+    private int[] pushed = new int[64];
+    private int pushedLength = 0;
+
+    void push(int commit) {
+      heap = grow(heap, length + 1);
+      pushed = grow(pushed, pushedLength + 1);
+      pushed[pushedLength++] = commit;
+
+      int index = length++;
+      while (0 < index) {
+        int parentIndex = (index - 1) >>> 1;
+
+        if (generations[heap[parentIndex]] >= generations[commit]) {
+          break;
+        }
+
+        heap[index] = heap[parentIndex];
+        index = parentIndex;
+      }
+      heap[index] = commit;
+    }
+
+    int pop() {
+      int top = heap[0];
+      int last = heap[--length];
+      int index = 0;
+
+      while (true) {
+        int child = 2 * index + 1;
+
+        if (child >= length) {
+          break;
+        }
+
+        if (child + 1 < length && generations[heap[child + 1]] > generations[heap[child]]) {
+          child++;
+        }
+
+        if (generations[last] >= generations[heap[child]]) {
+          break;
+        }
+
+        heap[index] = heap[child];
+        index = child;
+      }
+      heap[index] = last;
+
+      return top;
+    }
+
+    /**
+     * Clear the flags of all commits touched by the walk.
+     */
+    void reset() {
+      for (int index = 0; index < pushedLength; index++) {
+        flags[pushed[index]] = 0;
+      }
+    }
+  }
+
+  private static class Layer {
+    private final MappedByteBuffer buffer;
+    private final int hashLength;
+    private final int size;
+    private final int fanout;
+    private final int lookup;
+    private final int data;
+    private final int extraEdges;
+
+    private Layer(Path path) throws IOException {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      }
+
+      if (8 > buffer.limit() || SIGNATURE != buffer.getInt(0) || 1 != buffer.get(4)) {
+        throw new IOException(String.format("\"%s\" is not a supported commit-graph", path));
+      }
+
+      hashLength = 2 == buffer.get(5) ? 32 : 20;
+      int chunks = buffer.get(6) & 0xff;
+      int fanout = -1;
+      int lookup = -1;
+      int data = -1;
+      int extraEdges = -1;
+
+      for (int index = 0; index < chunks; index++) {
+        int entry = 8 + 12 * index;
+        int id = buffer.getInt(entry);
+        int offset = (int) buffer.getLong(entry + 4);
+
+        switch (id) {
+          case CHUNK_FANOUT:
+            fanout = offset;
+            break;
+          case CHUNK_LOOKUP:
+            lookup = offset;
+            break;
+          case CHUNK_DATA:
+            data = offset;
+            break;
+          case CHUNK_EXTRA_EDGES:
+            extraEdges = offset;
+            break;
+          default:
+            // bloom filters, generation data and base graphs are not needed
+        }
+      }
+
+      if (0 > fanout || 0 > lookup || 0 > data) {
+        throw new IOException(String.format("\"%s\" misses a required chunk", path));
+      }
+
+      this.fanout = fanout;
+      this.lookup = lookup;
+      this.data = data;
+      this.extraEdges = extraEdges;
+      this.size = buffer.getInt(fanout + 4 * 255);
+    }
+
+    int find(byte[] hash) {
+      if (hash.length != hashLength) {
+        return -1;
+      }
+
+      int first = hash[0] & 0xff;
+      int low = 0 == first ? 0 : buffer.getInt(fanout + 4 * (first - 1));
+      int high = buffer.getInt(fanout + 4 * first) - 1;
+
+      while (low <= high) {
+        int middle = (low + high) >>> 1;
+        int comparison = compare(middle, hash);
+
+        if (0 == comparison) {
+          return middle;
+        } else if (0 > comparison) {
+          low = middle + 1;
+        } else {
+          high = middle - 1;
+        }
+      }
+
+      return -1;
+    }
+
+    private int compare(int index, byte[] hash) {
+      int offset = lookup + index * hashLength;
+
+      for (int position = 0; position < hashLength; position++) {
+        int comparison = Integer.compare(buffer.get(offset + position) & 0xff, hash[position] & 0xff);
+
+        if (0 != comparison) {
+          return comparison;
+        }
+      }
+
+      return 0;
+    }
+  }
+}
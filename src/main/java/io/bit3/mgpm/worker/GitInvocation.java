@@ -0,0 +1,49 @@
+package io.bit3.mgpm.worker;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Measurement of a single git process.
+ */
+public class GitInvocation {
+  private final File directory;
+  private final List<String> arguments;
+  private final long durationNanos;
+  private final int exitCode;
+  private final long bytesRead;
+
+  public GitInvocation(File directory, List<String> arguments, long durationNanos, int exitCode, long bytesRead) {
+    this.directory = directory;
+    this.arguments = arguments;
+    this.durationNanos = durationNanos;
+    this.exitCode = exitCode;
+    this.bytesRead = bytesRead;
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  public List<String> getArguments() {
+    return arguments;
+  }
+
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  /**
+   * The exit code of the process, -1 if the process could not be started or was interrupted.
+   */
+  public int getExitCode() {
+    return exitCode;
+  }
+
+  /**
+   * Bytes read from stdout and stderr.
+   */
+  public long getBytesRead() {
+    return bytesRead;
+  }
+}
@@ -0,0 +1,5 @@
+package io.bit3.mgpm.worker;
+
+public interface GitInvocationListener {
+  void invoked(GitInvocation invocation);
+}
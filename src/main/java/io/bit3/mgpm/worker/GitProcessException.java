@@ -1,6 +1,8 @@
 package io.bit3.mgpm.worker;
 
 public class GitProcessException extends Exception {
+  private int exitCode = -1;
+
   public GitProcessException() {
   }
 
@@ -8,6 +10,11 @@ public class GitProcessException extends Exception {
     super(message);
   }
 
+  public GitProcessException(String message, int exitCode) {
+    super(message);
+    this.exitCode = exitCode;
+  }
+
   public GitProcessException(String message, Throwable cause) {
     super(message, cause);
   }
@@ -19,4 +26,11 @@ public class GitProcessException extends Exception {
   public GitProcessException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
     super(message, cause, enableSuppression, writableStackTrace);
   }
+
+  /**
+   * Exit code of the git process, -1 if the process could not be executed.
+   */
+  public int getExitCode() {
+    return exitCode;
+  }
 }
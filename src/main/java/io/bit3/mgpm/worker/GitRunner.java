@@ -0,0 +1,117 @@
+package io.bit3.mgpm.worker;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spawns git processes and collects their output.
+ */
+public class GitRunner {
+  private static final AtomicLong spawnedProcesses = new AtomicLong();
+  private final Logger logger = LoggerFactory.getLogger(GitRunner.class);
+  private final String binary;
+  private final GitInvocationListener listener;
+
+  public GitRunner(String binary) {
+    this(binary, null);
+  }
+
+  public GitRunner(String binary, GitInvocationListener listener) {
+    this.binary = binary;
+    this.listener = listener;
+  }
+
+  /**
+   * Total amount of git processes spawned by this JVM.
+   */
+  public static long getSpawnedProcesses() {
+    return spawnedProcesses.get();
+  }
+
+  public String getBinary() {
+    return binary;
+  }
+
+  public String git(File directory, List<String> arguments) throws GitProcessException {
+    return git(directory, arguments.toArray(new String[arguments.size()]));
+  }
+
+  public String git(File directory, String... arguments) throws GitProcessException {
+    List<String> command = new LinkedList<>();
+    command.add(binary);
+    command.addAll(Arrays.asList(arguments));
+
+    logger.debug("[{}] > {}", directory, String.join(" ", command));
+
+    long start = System.nanoTime();
+    int exitCode = -1;
+    long bytesRead = 0;
+
+    try {
+      spawnedProcesses.incrementAndGet();
+      Process process = new ProcessBuilder()
+          .directory(directory)
+          .command(command)
+          .start();
+      process.getOutputStream().close();
+
+      // drain both pipes before waiting, otherwise the process blocks as soon as one pipe buffer is full
+      ByteArrayOutputStream errorBuffer = new ByteArrayOutputStream();
+      Thread errorReader = new Thread(() -> {
+        try {
+          IOUtils.copy(process.getErrorStream(), errorBuffer);
+        } catch (IOException e) {
+          logger.debug("[{}] could not read stderr: {}", directory, e.getMessage());
+        }
+      }, "git-stderr");
+      errorReader.setDaemon(true);
+      errorReader.start();
+
+      byte[] output = IOUtils.toByteArray(process.getInputStream());
+      errorReader.join();
+      byte[] error = errorBuffer.toByteArray();
+      bytesRead = output.length + error.length;
+      exitCode = process.waitFor();
+
+      if (0 != exitCode) {
+        String errorMessage = new String(error, StandardCharsets.UTF_8).trim();
+
+        if (StringUtils.isEmpty(errorMessage)) {
+          errorMessage = new String(output, StandardCharsets.UTF_8).trim();
+        }
+
+        String message = String.format(
+            "execution of \"%s\" in \"%s\" failed with exit code %d: %s",
+            String.join(" ", command),
+            directory.getAbsolutePath(),
+            exitCode,
+            errorMessage
+        );
+
+        throw new GitProcessException(message, exitCode);
+      }
+
+      return new String(output, StandardCharsets.UTF_8).replaceAll("\\s+$", "");
+    } catch (IOException | InterruptedException e) {
+      throw new GitProcessException(e);
+    } finally {
+      long duration = System.nanoTime() - start;
+      logger.debug("[{}] < {} exited with {} after {} ms", directory, String.join(" ", command), exitCode, duration / 1000000);
+
+      if (null != listener) {
+        listener.invoked(new GitInvocation(directory, Arrays.asList(arguments), duration, exitCode, bytesRead));
+      }
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package io.bit3.mgpm.worker;
+
+/**
+ * The circuit of a remote host is open, the network operation was not attempted.
+ */
+public class HostUnavailableException extends WorkerException {
+  private final String host;
+
+  public HostUnavailableException(String host) {
+    super(String.format("skipped, host \"%s\" is unavailable", host));
+    this.host = host;
+  }
+
+  public String getHost() {
+    return host;
+  }
+}
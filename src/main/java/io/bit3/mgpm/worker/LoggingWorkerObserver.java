@@ -1,5 +1,6 @@
 package io.bit3.mgpm.worker;
 
+import io.bit3.mgpm.cli.AnsiBuffer;
 import io.bit3.mgpm.cli.AnsiOutput;
 import io.bit3.mgpm.cli.Color;
 
@@ -48,13 +49,12 @@ public class LoggingWorkerObserver extends AbstractWorkerObserver {
         return;
     }
 
-    synchronized (output) {
-      output
-          .print("[LOG] ")
-          .print(worker.getRepositoryConfig().getPathName())
-          .print(Color.YELLOW, " [%s] ", activity.getAction().toString())
-          .print(activity.getMessage())
-          .println();
-    }
+    AnsiBuffer buffer = output.block()
+        .print("[LOG] ")
+        .print(worker.getRepositoryConfig().getPathName())
+        .print(Color.YELLOW, " [%s] ", activity.getAction().toString())
+        .print(activity.getMessage())
+        .println();
+    output.write(buffer);
   }
 }
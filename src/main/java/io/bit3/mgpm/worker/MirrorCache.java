@@ -0,0 +1,134 @@
+package io.bit3.mgpm.worker;
+
+import io.bit3.mgpm.config.ConfigInputs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bare mirrors of repository remotes in a directory shared by all workspaces of a host.
+ *
+ * <p>Each remote is fetched from upstream at most once per interval, no matter how many workspaces or processes
+ * use the cache. A lock file per remote serializes the processes, the ones waiting for a fetch find the mirror
+ * fresh afterwards.</p>
+ */
+public class MirrorCache {
+  private static final String FETCHED_FILE_NAME = "mgpm-fetched";
+
+  private final File directory;
+  private final long intervalMillis;
+  private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+  /**
+   * @param interval Minimum amount of seconds between two upstream fetches of the same remote.
+   */
+  public MirrorCache(File directory, int interval) {
+    this.directory = directory;
+    this.intervalMillis = TimeUnit.SECONDS.toMillis(interval);
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  /**
+   * The mirror of the given remote, it may not exist yet.
+   */
+  public File mirrorOf(String url) {
+    return new File(directory, hash(url) + ".git");
+  }
+
+  /**
+   * Clone the mirror of the given remote, or fetch it if the last fetch is older than the interval.
+   *
+   * @return True if upstream was fetched, false if the mirror was fresh.
+   */
+  public boolean refresh(String url, GitRunner gitRunner) throws GitProcessException {
+    File mirror = mirrorOf(url);
+
+    // the file lock is held by the process, the threads of this process are serialized in front of it
+    synchronized (locks.computeIfAbsent(url, key -> new Object())) {
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+        throw new GitProcessException(String.format("could not create directory \"%s\"", directory));
+      }
+
+      File lockFile = new File(directory, hash(url) + ".lock");
+      try (FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE)) {
+        FileLock lock = channel.lock();
+
+        try {
+          File fetched = new File(mirror, FETCHED_FILE_NAME);
+
+          if (fetched.isFile() && System.currentTimeMillis() - fetched.lastModified() < intervalMillis) {
+            return false;
+          }
+
+          if (new File(mirror, "HEAD").isFile()) {
+            gitRunner.git(mirror, "fetch", "--prune", "origin");
+          } else {
+            cloneMirror(url, mirror, gitRunner);
+          }
+
+          Files.write(fetched.toPath(), new byte[0]);
+          if (!fetched.setLastModified(System.currentTimeMillis())) {
+            throw new IOException(String.format("could not touch \"%s\"", fetched));
+          }
+
+          return true;
+        } finally {
+          lock.release();
+        }
+      } catch (IOException e) {
+        throw new GitProcessException(String.format("could not mirror %s: %s", url, e.getMessage()), e);
+      }
+    }
+  }
+
+  /**
+   * Clone into a temporary directory first, an interrupted clone never looks like a mirror. Shared with the
+   * submodule mirrors.
+   */
+  static void cloneMirror(String url, File mirror, GitRunner gitRunner) throws GitProcessException, IOException {
+    File directory = mirror.getParentFile();
+    File temporary = new File(directory, mirror.getName() + ".tmp");
+
+    if (temporary.exists()) {
+      // left behind by an interrupted clone
+      try (Stream<Path> paths = Files.walk(temporary.toPath())) {
+        for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+          Files.delete(path);
+        }
+      }
+    }
+
+    gitRunner.git(directory, "clone", "--mirror", "--quiet", url, temporary.getAbsolutePath());
+    Files.move(temporary.toPath(), mirror.toPath(), StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * The name of the mirror of a remote, shared with the submodule mirrors.
+   */
+  static String hash(String url) {
+    try {
+      return ConfigInputs.toHex(MessageDigest.getInstance("SHA-1").digest(url.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
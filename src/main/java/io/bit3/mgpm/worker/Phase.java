@@ -0,0 +1,18 @@
+package io.bit3.mgpm.worker;
+
+public enum Phase {
+  CLONE_OR_RECONFIGURE,
+  DETERMINE_HEAD,
+  PARSE_OLD_REMOTE_BRANCHES,
+  FETCH_REMOTES,
+  UPDATE_COMMIT_GRAPH,
+  PARSE_REMOTE_BRANCHES,
+  CALCULATE_REMOTE_BRANCH_CHANGES,
+  DETERMINE_LOCAL_BRANCHES_AND_UPSTREAMS,
+  DETERMINE_STATS,
+  CHECKOUT_TAG,
+  PLAN_UPDATES,
+  STASH,
+  UPDATE_BRANCHES,
+  UNSTASH
+}
@@ -0,0 +1,75 @@
+package io.bit3.mgpm.worker;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Timing of a single worker phase, including all git processes spawned within the phase.
+ */
+public class PhaseTiming {
+  private final Phase phase;
+  private final Map<Integer, Integer> exitCodes = new TreeMap<>();
+  private long durationNanos = 0;
+  private long gitNanos = 0;
+  private int spawns = 0;
+  private long bytesRead = 0;
+
+  public PhaseTiming(Phase phase) {
+    this.phase = phase;
+  }
+
+  public PhaseTiming(Phase phase, long durationNanos, long gitNanos, int spawns, long bytesRead,
+              Map<Integer, Integer> exitCodes) {
+    this.phase = phase;
+    this.durationNanos = durationNanos;
+    this.gitNanos = gitNanos;
+    this.spawns = spawns;
+    this.bytesRead = bytesRead;
+    this.exitCodes.putAll(exitCodes);
+  }
+
+  public Phase getPhase() {
+    return phase;
+  }
+
+  /**
+   * Monotonic wall time of the whole phase.
+   */
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  /**
+   * Accumulated wall time of all git processes within the phase.
+   */
+  public long getGitNanos() {
+    return gitNanos;
+  }
+
+  public int getSpawns() {
+    return spawns;
+  }
+
+  public long getBytesRead() {
+    return bytesRead;
+  }
+
+  /**
+   * Amount of git processes per exit code.
+   */
+  public Map<Integer, Integer> getExitCodes() {
+    return Collections.unmodifiableMap(exitCodes);
+  }
+
+  synchronized void record(GitInvocation invocation) {
+    spawns++;
+    gitNanos += invocation.getDurationNanos();
+    bytesRead += invocation.getBytesRead();
+    exitCodes.merge(invocation.getExitCode(), 1, Integer::sum);
+  }
+
+  void finish(long durationNanos) {
+    this.durationNanos = durationNanos;
+  }
+}
@@ -0,0 +1,195 @@
+package io.bit3.mgpm.worker;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Retry network git operations with jittered exponential backoff and break the circuit of unreachable hosts.
+ *
+ * <p>A host trips after {@link #FAILURE_THRESHOLD} consecutive transient failures, all further operations against
+ * it fail immediately. After {@link #OPEN_MILLIS} a single operation is let through to probe the host again.</p>
+ */
+public class RemoteHostGuard {
+  private static final int FAILURE_THRESHOLD = 3;
+  private static final long OPEN_MILLIS = TimeUnit.MINUTES.toMillis(1);
+  private static final long BACKOFF_BASE_MILLIS = 1000;
+  private static final long BACKOFF_MAX_MILLIS = 16000;
+  private static final Pattern URL_PATTERN = Pattern.compile("^[a-zA-Z][a-zA-Z0-9+.-]*://.*");
+  private static final Pattern SCP_PATTERN = Pattern.compile("^(?:[^@/]+@)?([^:/]{2,}):.*");
+  private static final Pattern TRANSIENT_ERROR_PATTERN = Pattern.compile(
+      "Could not resolve host|Temporary failure in name resolution|Connection timed out|Operation timed out"
+          + "|Connection refused|Connection reset|Connection closed by|ssh: connect to host|Failed to connect to"
+          + "|Couldn't connect to server"
+          + "|the remote end hung up unexpectedly|early EOF|RPC failed|transfer closed"
+          + "|The requested URL returned error: (5\\d\\d|429)|gnutls_handshake|SSL_ERROR|TLS connection",
+      Pattern.CASE_INSENSITIVE
+  );
+
+  private final int retries;
+  private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+  /**
+   * @param retries Amount of retries after a transient failure.
+   */
+  public RemoteHostGuard(int retries) {
+    this.retries = retries;
+  }
+
+  /**
+   * Run a network operation against the remote url.
+   *
+   * @throws HostUnavailableException If the circuit of the host is open.
+   * @throws GitProcessException      If the last attempt failed.
+   */
+  public <T> T run(String url, GitOperation<T> operation, RetryListener listener)
+      throws GitProcessException, HostUnavailableException {
+    String host = determineHost(url);
+
+    // local remotes are neither retried nor guarded
+    if (null == host) {
+      return operation.run();
+    }
+
+    CircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(host, key -> new CircuitBreaker());
+
+    for (int attempt = 0; ; attempt++) {
+      if (!circuitBreaker.tryAcquire()) {
+        throw new HostUnavailableException(host);
+      }
+
+      boolean settled = false;
+
+      try {
+        T result = operation.run();
+        settled = true;
+        circuitBreaker.succeeded();
+        return result;
+      } catch (GitProcessException e) {
+        settled = true;
+
+        if (!isTransient(e)) {
+          // the host answered
+          circuitBreaker.succeeded();
+          throw e;
+        }
+
+        circuitBreaker.failed();
+
+        if (attempt >= retries) {
+          throw e;
+        }
+
+        long delayMillis = backoff(attempt);
+        listener.retrying(attempt + 1, delayMillis, e);
+
+        try {
+          Thread.sleep(delayMillis);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          throw e;
+        }
+      } finally {
+        if (!settled) {
+          // the operation broke without an answer of the host, a probe must not keep the circuit open forever
+          circuitBreaker.abandoned();
+        }
+      }
+    }
+  }
+
+  /**
+   * Determine if the failure is caused by the network or the remote host and may succeed on retry.
+   */
+  public static boolean isTransient(GitProcessException exception) {
+    String message = exception.getMessage();
+
+    // the process could not be executed at all
+    if (-1 == exception.getExitCode() || null == message) {
+      return false;
+    }
+
+    return TRANSIENT_ERROR_PATTERN.matcher(message).find();
+  }
+
+  /**
+   * Determine the host of a remote url, null for local remotes.
+   */
+  public static String determineHost(String url) {
+    if (URL_PATTERN.matcher(url).matches()) {
+      try {
+        return new URI(url).getHost();
+      } catch (URISyntaxException e) {
+        return null;
+      }
+    }
+
+    Matcher matcher = SCP_PATTERN.matcher(url);
+    if (matcher.matches()) {
+      return matcher.group(1);
+    }
+
+    return null;
+  }
+
+  /**
+   * Equal jitter, a random delay between half and all of the exponentially growing ceiling.
+   */
+  private static long backoff(int attempt) {
+    long ceiling = Math.min(BACKOFF_MAX_MILLIS, BACKOFF_BASE_MILLIS << Math.min(attempt, 16));
+    return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+  }
+
+  @FunctionalInterface
+  public interface GitOperation<T> {
+    T run() throws GitProcessException;
+  }
+
+  @FunctionalInterface
+  public interface RetryListener {
+    void retrying(int retry, long delayMillis, GitProcessException cause);
+  }
+
+  private static class CircuitBreaker {
+    private int consecutiveFailures = 0;
+    private long openUntil = 0;
+    private boolean probing = false;
+
+    synchronized boolean tryAcquire() {
+      if (FAILURE_THRESHOLD > consecutiveFailures) {
+        return true;
+      }
+
+      // half open, let a single probe through
+      if (System.currentTimeMillis() < openUntil || probing) {
+        return false;
+      }
+
+      probing = true;
+      return true;
+    }
+
+    synchronized void succeeded() {
+      consecutiveFailures = 0;
+      probing = false;
+    }
+
+    synchronized void abandoned() {
+      probing = false;
+    }
+
+    synchronized void failed() {
+      consecutiveFailures++;
+      probing = false;
+
+      if (FAILURE_THRESHOLD <= consecutiveFailures) {
+        openUntil = System.currentTimeMillis() + OPEN_MILLIS;
+      }
+    }
+  }
+}
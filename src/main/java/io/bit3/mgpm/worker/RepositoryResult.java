@@ -0,0 +1,136 @@
+package io.bit3.mgpm.worker;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable summary of a worker run.
+ *
+ * <p>The worker hands this summary to its observers and releases all other state afterwards, so observers must not
+ * keep a reference to the worker itself.</p>
+ */
+public class RepositoryResult {
+  private final String pathName;
+  private final File directory;
+  private final boolean succeed;
+  private final boolean skipped;
+  private final String headSymbolicRef;
+  private final String headCommitRef;
+  private final long durationNanos;
+  private final long fetchedBytes;
+  private final List<BranchResult> branches;
+  private final Map<String, List<String>> remoteBranchNames;
+  private final Map<String, List<String>> addedRemoteBranchNames;
+  private final Map<String, List<String>> deletedRemoteBranchNames;
+  private final List<PhaseTiming> timings;
+  private final List<String> errors;
+  private final TagResult tag;
+  private final Map<String, Long> remoteFetchNanos;
+
+  public RepositoryResult(String pathName, File directory, boolean succeed, boolean skipped,
+                          String headSymbolicRef, String headCommitRef, long durationNanos, long fetchedBytes,
+                          List<BranchResult> branches,
+                          Map<String, List<String>> remoteBranchNames,
+                          Map<String, List<String>> addedRemoteBranchNames,
+                          Map<String, List<String>> deletedRemoteBranchNames,
+                          List<PhaseTiming> timings, List<String> errors, TagResult tag,
+                          Map<String, Long> remoteFetchNanos) {
+    this.pathName = pathName;
+    this.directory = directory;
+    this.succeed = succeed;
+    this.skipped = skipped;
+    this.headSymbolicRef = headSymbolicRef;
+    this.headCommitRef = headCommitRef;
+    this.durationNanos = durationNanos;
+    this.fetchedBytes = fetchedBytes;
+    this.branches = Collections.unmodifiableList(branches);
+    this.remoteBranchNames = Collections.unmodifiableMap(remoteBranchNames);
+    this.addedRemoteBranchNames = Collections.unmodifiableMap(addedRemoteBranchNames);
+    this.deletedRemoteBranchNames = Collections.unmodifiableMap(deletedRemoteBranchNames);
+    this.timings = Collections.unmodifiableList(timings);
+    this.errors = Collections.unmodifiableList(errors);
+    this.tag = tag;
+    this.remoteFetchNanos = Collections.unmodifiableMap(remoteFetchNanos);
+  }
+
+  public String getPathName() {
+    return pathName;
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  public boolean isSucceed() {
+    return succeed;
+  }
+
+  public boolean isSkipped() {
+    return skipped;
+  }
+
+  public String getHeadSymbolicRef() {
+    return headSymbolicRef;
+  }
+
+  public String getHeadCommitRef() {
+    return headCommitRef;
+  }
+
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  /**
+   * Growth of the object database by the fetch, see {@link Worker#getFetchedBytes()}.
+   */
+  public long getFetchedBytes() {
+    return fetchedBytes;
+  }
+
+  /**
+   * All local branches, sorted by name.
+   */
+  public List<BranchResult> getBranches() {
+    return branches;
+  }
+
+  public Map<String, List<String>> getRemoteBranchNames() {
+    return remoteBranchNames;
+  }
+
+  public Map<String, List<String>> getAddedRemoteBranchNames() {
+    return addedRemoteBranchNames;
+  }
+
+  public Map<String, List<String>> getDeletedRemoteBranchNames() {
+    return deletedRemoteBranchNames;
+  }
+
+  public List<PhaseTiming> getTimings() {
+    return timings;
+  }
+
+  /**
+   * Messages of failures and aborts.
+   */
+  public List<String> getErrors() {
+    return errors;
+  }
+
+  /**
+   * The pinned tag, null unless the repository uses the tag strategy.
+   */
+  public TagResult getTag() {
+    return tag;
+  }
+
+  /**
+   * Duration of the fetch of each remote, the remotes are fetched concurrently.
+   */
+  public Map<String, Long> getRemoteFetchNanos() {
+    return remoteFetchNanos;
+  }
+}
@@ -0,0 +1,276 @@
+package io.bit3.mgpm.worker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Append-only temporary file of {@link RepositoryResult}s.
+ *
+ * <p>Results are spilled to disk as soon as a worker ends, end-of-run reports stream them back one by one, so the
+ * heap does not grow with the amount of repositories.</p>
+ */
+public class ResultSpool implements AutoCloseable {
+  private static final int MAX_STRING_LENGTH = 16 * 1024;
+  private static final Phase[] PHASES = Phase.values();
+  private static final Update[] UPDATES = Update.values();
+
+  private final File file;
+  private final DataOutputStream output;
+  private int size = 0;
+
+  public ResultSpool() throws IOException {
+    file = File.createTempFile("mgpm-results", ".spool");
+    file.deleteOnExit();
+    output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  public synchronized void append(RepositoryResult result) {
+    try {
+      write(result);
+      size++;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Stream all results in the order they were appended.
+   */
+  public synchronized void forEach(Consumer<RepositoryResult> consumer) throws IOException {
+    output.flush();
+
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+      for (int index = 0; index < size; index++) {
+        consumer.accept(read(input));
+      }
+    } catch (EOFException e) {
+      throw new IOException("spool file " + file + " is truncated", e);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    output.close();
+    Files.deleteIfExists(file.toPath());
+  }
+
+  private void write(RepositoryResult result) throws IOException {
+    writeString(result.getPathName());
+    writeString(result.getDirectory().getPath());
+    output.writeBoolean(result.isSucceed());
+    output.writeBoolean(result.isSkipped());
+    writeString(result.getHeadSymbolicRef());
+    writeString(result.getHeadCommitRef());
+    output.writeLong(result.getDurationNanos());
+    output.writeLong(result.getFetchedBytes());
+
+    output.writeInt(result.getBranches().size());
+    for (BranchResult branch : result.getBranches()) {
+      writeString(branch.getName());
+
+      Upstream upstream = branch.getUpstream();
+      output.writeBoolean(null != upstream);
+      if (null != upstream) {
+        writeString(upstream.getRemoteName());
+        writeString(upstream.getRemoteBranch());
+        writeString(upstream.getRemoteRef());
+        output.writeBoolean(upstream.isRebase());
+      }
+
+      output.writeByte(null == branch.getUpdate() ? -1 : branch.getUpdate().ordinal());
+
+      FromToIsh updateIsh = branch.getUpdateIsh();
+      output.writeBoolean(null != updateIsh);
+      if (null != updateIsh) {
+        writeString(updateIsh.getFrom());
+        writeString(updateIsh.getTo());
+      }
+
+      Worker.Stats stats = branch.getStats();
+      output.writeBoolean(null != stats);
+      if (null != stats) {
+        output.writeInt(stats.getCommitsBehind());
+        output.writeInt(stats.getCommitsAhead());
+        output.writeInt(stats.getAdded());
+        output.writeInt(stats.getModified());
+        output.writeInt(stats.getRenamed());
+        output.writeInt(stats.getCopied());
+        output.writeInt(stats.getDeleted());
+        output.writeInt(stats.getUnmerged());
+      }
+    }
+
+    writeBranchNames(result.getRemoteBranchNames());
+    writeBranchNames(result.getAddedRemoteBranchNames());
+    writeBranchNames(result.getDeletedRemoteBranchNames());
+
+    output.writeInt(result.getTimings().size());
+    for (PhaseTiming timing : result.getTimings()) {
+      output.writeByte(timing.getPhase().ordinal());
+      output.writeLong(timing.getDurationNanos());
+      output.writeLong(timing.getGitNanos());
+      output.writeInt(timing.getSpawns());
+      output.writeLong(timing.getBytesRead());
+      output.writeInt(timing.getExitCodes().size());
+      for (Map.Entry<Integer, Integer> entry : timing.getExitCodes().entrySet()) {
+        output.writeInt(entry.getKey());
+        output.writeInt(entry.getValue());
+      }
+    }
+
+    output.writeInt(result.getErrors().size());
+    for (String error : result.getErrors()) {
+      writeString(error);
+    }
+
+    TagResult tag = result.getTag();
+    output.writeBoolean(null != tag);
+    if (null != tag) {
+      writeString(tag.getName());
+      writeString(tag.getCommit());
+      output.writeBoolean(tag.isCheckedOut());
+    }
+
+    output.writeInt(result.getRemoteFetchNanos().size());
+    for (Map.Entry<String, Long> entry : result.getRemoteFetchNanos().entrySet()) {
+      writeString(entry.getKey());
+      output.writeLong(entry.getValue());
+    }
+  }
+
+  private RepositoryResult read(DataInputStream input) throws IOException {
+    String pathName = readString(input);
+    File directory = new File(readString(input));
+    boolean succeed = input.readBoolean();
+    boolean skipped = input.readBoolean();
+    String headSymbolicRef = readString(input);
+    String headCommitRef = readString(input);
+    long durationNanos = input.readLong();
+    long fetchedBytes = input.readLong();
+
+    int branchCount = input.readInt();
+    List<BranchResult> branches = new ArrayList<>(branchCount);
+    for (int index = 0; index < branchCount; index++) {
+      String name = readString(input);
+
+      Upstream upstream = null;
+      if (input.readBoolean()) {
+        upstream = new Upstream(readString(input), readString(input), readString(input), input.readBoolean());
+      }
+
+      byte updateOrdinal = input.readByte();
+      Update update = 0 > updateOrdinal ? null : UPDATES[updateOrdinal];
+
+      FromToIsh updateIsh = null;
+      if (input.readBoolean()) {
+        updateIsh = new FromToIsh(readString(input), readString(input));
+      }
+
+      Worker.Stats stats = null;
+      if (input.readBoolean()) {
+        stats = new Worker.Stats(input.readInt(), input.readInt(), input.readInt(), input.readInt(),
+            input.readInt(), input.readInt(), input.readInt(), input.readInt());
+      }
+
+      branches.add(new BranchResult(name, upstream, update, updateIsh, stats));
+    }
+
+    Map<String, List<String>> remoteBranchNames = readBranchNames(input);
+    Map<String, List<String>> addedRemoteBranchNames = readBranchNames(input);
+    Map<String, List<String>> deletedRemoteBranchNames = readBranchNames(input);
+
+    int timingCount = input.readInt();
+    List<PhaseTiming> timings = new ArrayList<>(timingCount);
+    for (int index = 0; index < timingCount; index++) {
+      Phase phase = PHASES[input.readByte()];
+      long phaseDurationNanos = input.readLong();
+      long gitNanos = input.readLong();
+      int spawns = input.readInt();
+      long bytesRead = input.readLong();
+      int exitCodeCount = input.readInt();
+      Map<Integer, Integer> exitCodes = new LinkedHashMap<>();
+      for (int exitCodeIndex = 0; exitCodeIndex < exitCodeCount; exitCodeIndex++) {
+        exitCodes.put(input.readInt(), input.readInt());
+      }
+      timings.add(new PhaseTiming(phase, phaseDurationNanos, gitNanos, spawns, bytesRead, exitCodes));
+    }
+
+    int errorCount = input.readInt();
+    List<String> errors = new ArrayList<>(errorCount);
+    for (int index = 0; index < errorCount; index++) {
+      errors.add(readString(input));
+    }
+
+    TagResult tag = null;
+    if (input.readBoolean()) {
+      tag = new TagResult(readString(input), readString(input), input.readBoolean());
+    }
+
+    int remoteCount = input.readInt();
+    Map<String, Long> remoteFetchNanos = new TreeMap<>();
+    for (int index = 0; index < remoteCount; index++) {
+      remoteFetchNanos.put(readString(input), input.readLong());
+    }
+
+    return new RepositoryResult(pathName, directory, succeed, skipped, headSymbolicRef, headCommitRef,
+        durationNanos, fetchedBytes, branches, remoteBranchNames, addedRemoteBranchNames, deletedRemoteBranchNames,
+        timings, errors, tag, remoteFetchNanos);
+  }
+
+  private void writeBranchNames(Map<String, List<String>> branchNames) throws IOException {
+    output.writeInt(branchNames.size());
+    for (Map.Entry<String, List<String>> entry : branchNames.entrySet()) {
+      writeString(entry.getKey());
+      output.writeInt(entry.getValue().size());
+      for (String branchName : entry.getValue()) {
+        writeString(branchName);
+      }
+    }
+  }
+
+  private Map<String, List<String>> readBranchNames(DataInputStream input) throws IOException {
+    int remoteCount = input.readInt();
+    Map<String, List<String>> branchNames = new TreeMap<>();
+    for (int remoteIndex = 0; remoteIndex < remoteCount; remoteIndex++) {
+      String remoteName = readString(input);
+      int branchCount = input.readInt();
+      List<String> branches = new ArrayList<>(branchCount);
+      for (int index = 0; index < branchCount; index++) {
+        branches.add(readString(input));
+      }
+      branchNames.put(remoteName, branches);
+    }
+    return branchNames;
+  }
+
+  private void writeString(String string) throws IOException {
+    output.writeBoolean(null != string);
+
+    if (null != string) {
+      output.writeUTF(string.length() > MAX_STRING_LENGTH ? string.substring(0, MAX_STRING_LENGTH) : string);
+    }
+  }
+
+  private static String readString(DataInputStream input) throws IOException {
+    return input.readBoolean() ? input.readUTF() : null;
+  }
+}
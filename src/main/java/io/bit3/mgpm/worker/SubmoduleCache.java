@@ -0,0 +1,54 @@
+package io.bit3.mgpm.worker;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bare mirrors of submodule remotes, shared by all workers of a run.
+ *
+ * <p>Many repositories share the same submodules, each remote is fetched at most once per run and the workers
+ * fetch from the local mirror instead.</p>
+ */
+public class SubmoduleCache {
+  private final File directory;
+  private final Map<String, Object> locks = new ConcurrentHashMap<>();
+  private final Set<String> fetchedUrls = ConcurrentHashMap.newKeySet();
+
+  public SubmoduleCache(File directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Return the mirror of the given remote, clone or fetch it first if this did not happen in this run yet.
+   */
+  public File mirror(String url, GitRunner gitRunner) throws GitProcessException {
+    File mirror = new File(directory, MirrorCache.hash(url) + ".git");
+
+    synchronized (locks.computeIfAbsent(url, key -> new Object())) {
+      if (fetchedUrls.contains(url)) {
+        return mirror;
+      }
+
+      if (new File(mirror, "HEAD").isFile()) {
+        gitRunner.git(mirror, "fetch", "--prune", "origin");
+      } else {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+          throw new GitProcessException(String.format("could not create directory \"%s\"", directory));
+        }
+
+        try {
+          MirrorCache.cloneMirror(url, mirror, gitRunner);
+        } catch (IOException e) {
+          throw new GitProcessException(String.format("could not mirror %s: %s", url, e.getMessage()), e);
+        }
+      }
+
+      fetchedUrls.add(url);
+    }
+
+    return mirror;
+  }
+}
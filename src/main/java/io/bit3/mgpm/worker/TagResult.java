@@ -0,0 +1,31 @@
+package io.bit3.mgpm.worker;
+
+/**
+ * The tag a repository with {@link io.bit3.mgpm.config.Strategy#TAG} is pinned to.
+ */
+public class TagResult {
+  private final String name;
+  private final String commit;
+  private final boolean checkedOut;
+
+  public TagResult(String name, String commit, boolean checkedOut) {
+    this.name = name;
+    this.commit = commit;
+    this.checkedOut = checkedOut;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getCommit() {
+    return commit;
+  }
+
+  /**
+   * Whether the tag was checked out in this run, false if HEAD already was at the tag.
+   */
+  public boolean isCheckedOut() {
+    return checkedOut;
+  }
+}
@@ -0,0 +1,98 @@
+package io.bit3.mgpm.worker;
+
+import java.util.Comparator;
+
+/**
+ * Order tag names by semantic version, e.g. {@code v1.2.0-rc.1 < v1.2.0 < v1.10.0}.
+ *
+ * <p>A leading {@code v} and build metadata are ignored, numeric identifiers are compared numerically, a pre-release
+ * is lower than its release. Tags that are no versions at all are compared lexically part by part.</p>
+ */
+public class TagVersionComparator implements Comparator<String> {
+  @Override
+  public int compare(String left, String right) {
+    String[] leftVersion = split(left);
+    String[] rightVersion = split(right);
+
+    int comparison = compareIdentifiers(leftVersion[0], rightVersion[0]);
+    if (0 != comparison) {
+      return comparison;
+    }
+
+    // a version without pre-release is higher than the same version with pre-release
+    if (null == leftVersion[1] || null == rightVersion[1]) {
+      return null == leftVersion[1] ? (null == rightVersion[1] ? 0 : 1) : -1;
+    }
+
+    return compareIdentifiers(leftVersion[1], rightVersion[1]);
+  }
+
+  private static String[] split(String tag) {
+    String version = tag.startsWith("v") || tag.startsWith("V") ? tag.substring(1) : tag;
+
+    int plus = version.indexOf('+');
+    if (0 <= plus) {
+      version = version.substring(0, plus);
+    }
+
+    int dash = version.indexOf('-');
+    if (0 > dash) {
+      return new String[]{version, null};
+    }
+
+    return new String[]{version.substring(0, dash), version.substring(dash + 1)};
+  }
+
+  private static int compareIdentifiers(String left, String right) {
+    String[] leftParts = left.split("\\.");
+    String[] rightParts = right.split("\\.");
+
+    for (int index = 0; index < Math.min(leftParts.length, rightParts.length); index++) {
+      int comparison = compareIdentifier(leftParts[index], rightParts[index]);
+
+      if (0 != comparison) {
+        return comparison;
+      }
+    }
+
+    return Integer.compare(leftParts.length, rightParts.length);
+  }
+
+  private static int compareIdentifier(String left, String right) {
+    boolean leftNumeric = isNumeric(left);
+    boolean rightNumeric = isNumeric(right);
+
+    if (leftNumeric && rightNumeric) {
+      // compare by length first, numbers may exceed the range of long
+      String leftNumber = left.replaceFirst("^0+(?=.)", "");
+      String rightNumber = right.replaceFirst("^0+(?=.)", "");
+
+      if (leftNumber.length() != rightNumber.length()) {
+        return Integer.compare(leftNumber.length(), rightNumber.length());
+      }
+
+      return leftNumber.compareTo(rightNumber);
+    }
+
+    // numeric identifiers have lower precedence than alphanumeric ones
+    if (leftNumeric != rightNumeric) {
+      return leftNumeric ? -1 : 1;
+    }
+
+    return left.compareTo(right);
+  }
+
+  private static boolean isNumeric(String identifier) {
+    if (identifier.isEmpty()) {
+      return false;
+    }
+
+    for (int index = 0; index < identifier.length(); index++) {
+      if (!Character.isDigit(identifier.charAt(index))) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+}
@@ -1,10 +1,38 @@
 package io.bit3.mgpm.worker;
 
+/**
+ * Outcome of the update of a branch.
+ *
+ * <p>The codes are stored in snapshots, they must never change or be reused.</p>
+ */
 public enum Update {
-  SKIP_NO_UPSTREAM,
-  SKIP_UPSTREAM_DELETED,
-  UP_TO_DATE,
-  MERGED_FAST_FORWARD,
-  REBASED,
-  SKIP_CONFLICTING
+  SKIP_NO_UPSTREAM(1),
+  SKIP_UPSTREAM_DELETED(2),
+  UP_TO_DATE(3),
+  MERGED_FAST_FORWARD(4),
+  REBASED(5),
+  SKIP_CONFLICTING(6);
+
+  private final int code;
+
+  Update(int code) {
+    this.code = code;
+  }
+
+  public int getCode() {
+    return code;
+  }
+
+  /**
+   * The update with the given code, null if it is unknown, e.g. written by a newer version.
+   */
+  public static Update of(int code) {
+    for (Update update : values()) {
+      if (update.code == code) {
+        return update;
+      }
+    }
+
+    return null;
+  }
 }
@@ -0,0 +1,73 @@
+package io.bit3.mgpm.worker;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * The updates of all local branches, computed before anything is changed.
+ */
+class UpdatePlan {
+  private final List<BranchUpdate> branchUpdates = new LinkedList<>();
+
+  void add(BranchUpdate branchUpdate) {
+    branchUpdates.add(branchUpdate);
+  }
+
+  List<BranchUpdate> getBranchUpdates() {
+    return Collections.unmodifiableList(branchUpdates);
+  }
+
+  /**
+   * Whether the working tree will change, which is only the case if the checked out branch moves.
+   */
+  boolean isWorkingTreeChange() {
+    return branchUpdates.stream().anyMatch(branchUpdate -> Step.UPDATE_CHECKED_OUT == branchUpdate.getStep());
+  }
+
+  enum Step {
+    SKIP_NO_UPSTREAM,
+    SKIP_UPSTREAM_DELETED,
+    UP_TO_DATE,
+    DIVERGED,
+    UPDATE_CHECKED_OUT,
+    FAST_FORWARD_REF,
+    REBASE_IN_WORKTREE
+  }
+
+  static class BranchUpdate {
+    private final String branchName;
+    private final Upstream upstream;
+    private final String fromIsh;
+    private final String toIsh;
+    private final Step step;
+
+    BranchUpdate(String branchName, Upstream upstream, String fromIsh, String toIsh, Step step) {
+      this.branchName = branchName;
+      this.upstream = upstream;
+      this.fromIsh = fromIsh;
+      this.toIsh = toIsh;
+      this.step = step;
+    }
+
+    String getBranchName() {
+      return branchName;
+    }
+
+    Upstream getUpstream() {
+      return upstream;
+    }
+
+    String getFromIsh() {
+      return fromIsh;
+    }
+
+    String getToIsh() {
+      return toIsh;
+    }
+
+    Step getStep() {
+      return step;
+    }
+  }
+}
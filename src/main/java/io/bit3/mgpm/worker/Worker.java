@@ -2,8 +2,8 @@ package io.bit3.mgpm.worker;
 
 import io.bit3.mgpm.config.Config;
 import io.bit3.mgpm.config.RepositoryConfig;
+import io.bit3.mgpm.config.Strategy;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,37 +11,98 @@ import org.slf4j.helpers.MessageFormatter;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class Worker implements Runnable {
+  public static final String STASH_MESSAGE = "Stash before mgpm update";
+  public static final String WORKTREE_PREFIX = "mgpm-worktree-";
+  private static final int MAX_CONCURRENT_BRANCH_UPDATES = 4;
+  private static final int MAX_CONCURRENT_FETCHES = 4;
+
   private final Logger logger = LoggerFactory.getLogger(Worker.class);
   private final List<WorkerObserver> observers = new LinkedList<>();
   private final List<Activity> journal = new LinkedList<>();
   private final Config config;
   private final RepositoryConfig repositoryConfig;
+  private final GitRunner gitRunner;
   private final boolean cloneIfNotExists;
-  private final Set<String> remoteNames = new HashSet<>();
+  private final SubmoduleCache submoduleCache;
+  private final RemoteHostGuard remoteHostGuard;
+  private final MirrorCache mirrorCache;
+  private final Map<String, String> remoteUrls = new HashMap<>();
+  private final Map<String, Long> remoteFetchNanos = new ConcurrentHashMap<>();
   private final List<String> localBranchNames = new LinkedList<>();
   private final Map<String, List<String>> oldRemoteBranchNames = new HashMap<>();
   private final Map<String, List<String>> remoteBranchNames = new HashMap<>();
   private final Map<String, List<String>> deletedRemoteBranchNames = new HashMap<>();
   private final Map<String, List<String>> addedRemoteBranchNames = new HashMap<>();
   private final Map<String, Upstream> branchUpstreamMap = new HashMap<>();
-  private final Map<String, Update> branchUpdateStatus = new HashMap<>();
-  private final Map<String, FromToIsh> branchUpdateIsh = new HashMap<>();
+  private final Map<String, Update> branchUpdateStatus = new ConcurrentHashMap<>();
+  private final Map<String, FromToIsh> branchUpdateIsh = new ConcurrentHashMap<>();
   private final Map<String, Stats> branchStats = new HashMap<>();
+  private final List<PhaseTiming> timings = new LinkedList<>();
+  private UpdatePlan updatePlan = new UpdatePlan();
+  private volatile PhaseTiming currentTiming;
+  private long durationNanos = 0;
   private String headSymbolicRef;
   private String headCommitRef;
   private boolean updateExisting;
-  private boolean hasStashed = false;
+  private String stashCommit;
   private boolean succeed = false;
+  private boolean skipped = false;
+  private boolean hostUnavailable = false;
+  private long fetchedBytes = 0;
+  private boolean commitGraphOutdated = false;
+  private boolean cloned = false;
+  private TagResult tag;
+  private RepositoryResult result;
 
   public Worker(Config config, RepositoryConfig repositoryConfig, boolean cloneIfNotExists, boolean updateExisting) {
+    this(config, repositoryConfig, cloneIfNotExists, updateExisting, null);
+  }
+
+  /**
+   * @param submoduleCache The mirrors of submodule remotes shared within the run, submodules are fetched from
+   *                       their remotes directly if null.
+   */
+  public Worker(Config config, RepositoryConfig repositoryConfig, boolean cloneIfNotExists, boolean updateExisting,
+                SubmoduleCache submoduleCache) {
+    this(config, repositoryConfig, cloneIfNotExists, updateExisting, submoduleCache, null);
+  }
+
+  /**
+   * @param remoteHostGuard The retry and circuit breaker state of the remote hosts, shared across runs, network
+   *                        operations are run once and unguarded if null.
+   */
+  public Worker(Config config, RepositoryConfig repositoryConfig, boolean cloneIfNotExists, boolean updateExisting,
+                SubmoduleCache submoduleCache, RemoteHostGuard remoteHostGuard) {
+    this(config, repositoryConfig, cloneIfNotExists, updateExisting, submoduleCache, remoteHostGuard, null);
+  }
+
+  /**
+   * @param mirrorCache The bare mirrors shared by all workspaces, remotes are cloned and fetched through them, or
+   *                    directly if null.
+   */
+  public Worker(Config config, RepositoryConfig repositoryConfig, boolean cloneIfNotExists, boolean updateExisting,
+                SubmoduleCache submoduleCache, RemoteHostGuard remoteHostGuard, MirrorCache mirrorCache) {
     this.config = config;
     this.repositoryConfig = repositoryConfig;
+    this.gitRunner = new GitRunner(config.getGitConfig().getBinary(), this::recordGitInvocation);
     this.cloneIfNotExists = cloneIfNotExists;
     this.updateExisting = updateExisting;
+    this.submoduleCache = submoduleCache;
+    this.remoteHostGuard = remoteHostGuard;
+    this.mirrorCache = mirrorCache;
   }
 
   public void registerObserver(WorkerObserver observer) {
@@ -108,39 +169,201 @@ public class Worker implements Runnable {
     return headCommitRef;
   }
 
+  /**
+   * The commit of the stash created before the update, null if nothing was stashed.
+   */
+  public String getStashCommit() {
+    return stashCommit;
+  }
+
   public boolean isSucceed() {
     return succeed;
   }
 
+  /**
+   * The repository was skipped, because it does not exist yet and cloning was not requested, or its host is
+   * unavailable.
+   */
+  public boolean isSkipped() {
+    return skipped;
+  }
+
+  /**
+   * The repository was skipped, because the circuit of its remote host is open.
+   */
+  public boolean isHostUnavailable() {
+    return hostUnavailable;
+  }
+
+  /**
+   * Growth of the object database by the fetch: the new packs plus the new loose objects, as stored on disk.
+   *
+   * <p>Small fetches below {@code fetch.unpackLimit} are stored as loose objects. This approximates the fetched data,
+   * it is not the amount of bytes transferred over the network.</p>
+   */
+  public long getFetchedBytes() {
+    return fetchedBytes;
+  }
+
+  public List<PhaseTiming> getTimings() {
+    return timings;
+  }
+
+  /**
+   * Monotonic wall time of the whole run.
+   */
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
   @Override
   public void run() {
+    long start = System.nanoTime();
+
     for (WorkerObserver observer : observers) {
       observer.start(this);
     }
 
     try {
-      if (cloneOrReconfigureRepository()) {
-        determineHead();
-        determineRemoteBranches(oldRemoteBranchNames);
-        fetchRemotes();
-        determineRemoteBranches(remoteBranchNames);
-        calculateRemoteBranchNameChanges();
-        determineLocalBranchesAndUpstreams();
-        determineStats();
-        stashChanges();
-        updateBranches();
-        restoreHead();
-        unstashChanges();
+      if (phase(Phase.CLONE_OR_RECONFIGURE, this::cloneOrReconfigureRepository)) {
+        phase(Phase.DETERMINE_HEAD, this::determineHead);
+        phase(Phase.PARSE_OLD_REMOTE_BRANCHES, () -> determineRemoteBranches(oldRemoteBranchNames));
+        phase(Phase.FETCH_REMOTES, this::fetchRemotes);
+        phase(Phase.UPDATE_COMMIT_GRAPH, this::updateCommitGraph);
+        phase(Phase.PARSE_REMOTE_BRANCHES, () -> determineRemoteBranches(remoteBranchNames));
+        phase(Phase.CALCULATE_REMOTE_BRANCH_CHANGES, this::calculateRemoteBranchNameChanges);
+        phase(Phase.DETERMINE_LOCAL_BRANCHES_AND_UPSTREAMS, this::determineLocalBranchesAndUpstreams);
+        phase(Phase.DETERMINE_STATS, () -> determineStats());
+        if (Strategy.TAG == repositoryConfig.getStrategy()) {
+          phase(Phase.CHECKOUT_TAG, this::checkoutTag);
+        } else {
+          phase(Phase.PLAN_UPDATES, this::planUpdates);
+          phase(Phase.STASH, this::stashChanges);
+          phase(Phase.UPDATE_BRANCHES, this::updateBranches);
+          phase(Phase.UNSTASH, this::unstashChanges);
+        }
         succeed = true;
       }
+    } catch (HostUnavailableException exception) {
+      skipped = true;
+      hostUnavailable = true;
+      activity(Action.ABORT, exception.getMessage());
     } catch (Exception exception) {
       logger.error(exception.getMessage(), exception);
       journal.add(new Activity(Action.EXCEPTION_OCCURRED, exception.getMessage()));
     }
 
+    durationNanos = System.nanoTime() - start;
+    result = createResult();
+
     for (WorkerObserver observer : observers) {
       observer.end(this);
     }
+
+    release();
+  }
+
+  /**
+   * The summary of the run, available from {@link WorkerObserver#end(Worker)} on.
+   */
+  public RepositoryResult getResult() {
+    return result;
+  }
+
+  private RepositoryResult createResult() {
+    List<BranchResult> branches = new ArrayList<>(localBranchNames.size());
+    for (String branchName : localBranchNames) {
+      branches.add(new BranchResult(
+          branchName,
+          branchUpstreamMap.get(branchName),
+          branchUpdateStatus.get(branchName),
+          branchUpdateIsh.get(branchName),
+          branchStats.get(branchName)
+      ));
+    }
+
+    List<String> errors = new ArrayList<>();
+    for (Activity activity : journal) {
+      if (Action.EXCEPTION_OCCURRED == activity.getAction() || Action.ABORT == activity.getAction()) {
+        errors.add(activity.getMessage());
+      }
+    }
+
+    return new RepositoryResult(
+        repositoryConfig.getPathName(),
+        repositoryConfig.getDirectory(),
+        succeed,
+        skipped,
+        headSymbolicRef,
+        headCommitRef,
+        durationNanos,
+        fetchedBytes,
+        branches,
+        new TreeMap<>(remoteBranchNames),
+        new TreeMap<>(addedRemoteBranchNames),
+        new TreeMap<>(deletedRemoteBranchNames),
+        new ArrayList<>(timings),
+        errors,
+        tag,
+        new TreeMap<>(remoteFetchNanos)
+    );
+  }
+
+  /**
+   * Drop all intermediate state, only the result is kept.
+   */
+  private void release() {
+    observers.clear();
+    journal.clear();
+    remoteUrls.clear();
+    remoteFetchNanos.clear();
+    localBranchNames.clear();
+    oldRemoteBranchNames.clear();
+    remoteBranchNames.clear();
+    deletedRemoteBranchNames.clear();
+    addedRemoteBranchNames.clear();
+    branchUpstreamMap.clear();
+    branchUpdateStatus.clear();
+    branchUpdateIsh.clear();
+    branchStats.clear();
+    timings.clear();
+    updatePlan = new UpdatePlan();
+  }
+
+  /**
+   * Run a phase and report its timing to the observers, even if the phase failed.
+   */
+  private <T> T phase(Phase phase, PhaseCallable<T> callable) throws Exception {
+    PhaseTiming timing = new PhaseTiming(phase);
+    currentTiming = timing;
+    long start = System.nanoTime();
+
+    try {
+      return callable.call();
+    } finally {
+      timing.finish(System.nanoTime() - start);
+      currentTiming = null;
+      timings.add(timing);
+
+      for (WorkerObserver observer : observers) {
+        observer.timing(timing, this);
+      }
+    }
+  }
+
+  private void phase(Phase phase, PhaseRunnable runnable) throws Exception {
+    phase(phase, () -> {
+      runnable.run();
+      return null;
+    });
+  }
+
+  private void recordGitInvocation(GitInvocation invocation) {
+    PhaseTiming timing = currentTiming;
+
+    if (null != timing) {
+      timing.record(invocation);
+    }
   }
 
   /**
@@ -155,14 +378,7 @@ public class Worker implements Runnable {
       }
 
       if (new File(directory, ".git").isDirectory()) {
-        String actualUrl = git("config", "--local", "--get", "remote.origin.url");
-        String expectedUrl = repositoryConfig.getUrl();
-
-        if (!expectedUrl.equals(actualUrl)) {
-          activity(Action.UPDATE_REMOTE_URL, "[{}] update remote url", directory);
-          git("remote", "set-url", "origin", expectedUrl);
-        }
-
+        reconfigureRemotes();
         return true;
       }
 
@@ -180,22 +396,92 @@ public class Worker implements Runnable {
 
     if (!cloneIfNotExists) {
       activity(Action.ABORT, "not cloned yet");
+      skipped = true;
       return false;
     }
 
-    if (!directory.mkdirs()) {
+    // an empty directory is left behind by a failed clone
+    if (!directory.isDirectory() && !directory.mkdirs()) {
       activity(Action.ABORT, "could not create directory");
       return false;
     }
 
-    git(directory.getParentFile(), "clone", repositoryConfig.getUrl(), directory.toString());
-    git("submodule", "init");
-    git("submodule", "update");
+    List<String> command = new LinkedList<>(throughMirror(repositoryConfig.getUrl()));
+    command.addAll(Arrays.asList("clone", repositoryConfig.getUrl(), directory.toString()));
+
+    if (null == mirrorCache) {
+      network(repositoryConfig.getUrl(), () -> git(directory.getParentFile(), command));
+    } else {
+      git(directory.getParentFile(), command);
+    }
+    cloned = true;
+    reconfigureRemotes();
+
+    if (new File(directory, ".gitmodules").isFile()) {
+      updateSubmodules(Collections.emptySet());
+    }
 
     updateExisting = false;
     return true;
   }
 
+  /**
+   * Point origin and all configured remotes to their configured urls, other remotes are left alone.
+   */
+  private void reconfigureRemotes() throws GitProcessException {
+    Map<String, String> actualUrls;
+    try {
+      actualUrls = parseRemoteUrls(git("config", "--local", "--get-regexp", "^remote\\..*\\.url$"));
+    } catch (GitProcessException e) {
+      if (1 != e.getExitCode()) {
+        throw e;
+      }
+      // no remote is configured at all
+      actualUrls = new HashMap<>();
+    }
+
+    Map<String, String> expectedUrls = new LinkedHashMap<>();
+    expectedUrls.put("origin", repositoryConfig.getUrl());
+    expectedUrls.putAll(repositoryConfig.getRemotes());
+
+    for (Map.Entry<String, String> entry : expectedUrls.entrySet()) {
+      String remoteName = entry.getKey();
+      String actualUrl = actualUrls.get(remoteName);
+
+      if (null == actualUrl) {
+        activity(Action.ADD_REMOTE, "add remote {}", remoteName);
+        git("remote", "add", remoteName, entry.getValue());
+      } else if (!entry.getValue().equals(actualUrl)) {
+        activity(Action.UPDATE_REMOTE_URL, "[{}] update url of remote {}", repositoryConfig.getDirectory(),
+            remoteName);
+        git("remote", "set-url", remoteName, entry.getValue());
+      }
+    }
+
+    remoteUrls.putAll(actualUrls);
+    remoteUrls.putAll(expectedUrls);
+  }
+
+  /**
+   * Parse the {@code remote.<name>.url <url>} lines of {@code git config --get-regexp}.
+   */
+  static Map<String, String> parseRemoteUrls(String gitOutput) {
+    Map<String, String> remoteUrls = new HashMap<>();
+
+    for (String line : gitOutput.split("\n")) {
+      int space = line.indexOf(' ');
+
+      if (0 > space) {
+        continue;
+      }
+
+      String key = line.substring(0, space);
+      remoteUrls.put(key.substring("remote.".length(), key.length() - ".url".length()), line.substring(space + 1));
+    }
+
+    return remoteUrls;
+  }
+
   /**
    * Determine the current HEAD state.
    */
@@ -217,20 +503,25 @@ public class Worker implements Runnable {
    * Stash changes, if necessary.
    */
   private void stashChanges() throws GitProcessException {
+    if (!updatePlan.isWorkingTreeChange()) {
+      return;
+    }
+
     if (StringUtils.isEmpty(git("status", "--porcelain", "--ignore-submodules"))) {
       return;
     }
 
+    // ignored files are never touched by a merge or rebase, there is no need to stash them
     activity(Action.STASH, "stash changes");
-    git("stash", "save", "--include-untracked", "--all", "Stash before mgpm update");
-    hasStashed = true;
+    git("stash", "save", "--include-untracked", STASH_MESSAGE);
+    stashCommit = git("rev-parse", "refs/stash");
   }
 
   /**
    * Unstash changes, if necessary.
    */
   private void unstashChanges() throws GitProcessException {
-    if (!hasStashed) {
+    if (null == stashCommit) {
       return;
     }
 
@@ -329,29 +620,183 @@ public class Worker implements Runnable {
         remoteRef = remoteName + "/" + remoteRef;
       }
 
-      remoteNames.add(remoteName);
       branchUpstreamMap.put(branchName, new Upstream(remoteName, remoteBranch, remoteRef, "true".equals(rebase)));
     }
   }
 
   /**
-   * Fetch all tracked remotes.
+   * Fetch all remotes of the repository, multiple remotes concurrently.
+   *
+   * <p>The fetches neither write FETCH_HEAD nor start an auto-gc, concurrent fetches would race for both. The
+   * repository is auto-gc'ed once after all fetches.</p>
    */
-  private void fetchRemotes() throws GitProcessException {
-    activity(Action.FETCH_REMOTES, "fetch remotes {}", String.join(", ", remoteNames));
+  private void fetchRemotes() throws Exception {
+    // origin and the configured remotes, as well as remotes added by the user, e.g. as upstream of a branch
+    Set<String> fetchRemoteNames = new TreeSet<>(remoteUrls.keySet());
+
+    activity(Action.FETCH_REMOTES, "fetch remotes {}", String.join(", ", fetchRemoteNames));
+
+    long objectBytes = determineObjectBytes();
+
+    if (1 == fetchRemoteNames.size()) {
+      fetchRemote(fetchRemoteNames.iterator().next(), true);
+      fetchedBytes = Math.max(0, determineObjectBytes() - objectBytes);
+      autoGc();
+      return;
+    }
+
+    // concurrent fetches would compete for the commit-graph lock, the graph is updated once afterwards
+    commitGraphOutdated = true;
+
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(fetchRemoteNames.size(), MAX_CONCURRENT_FETCHES));
+    List<Future<Void>> futures = new LinkedList<>();
+
+    try {
+      for (String remoteName : fetchRemoteNames) {
+        futures.add(executor.submit(() -> {
+          fetchRemote(remoteName, false);
+          return null;
+        }));
+      }
+
+      Exception failure = null;
+      for (Future<Void> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          if (null == failure) {
+            failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+          }
+        }
+      }
+
+      if (null != failure) {
+        throw failure;
+      }
+    } finally {
+      executor.shutdown();
+      fetchedBytes = Math.max(0, determineObjectBytes() - objectBytes);
+    }
+
+    autoGc();
+  }
+
+  private void autoGc() {
+    try {
+      git("gc", "--auto", "--quiet");
+    } catch (GitProcessException e) {
+      logger.warn("[{}] auto-gc failed: {}", repositoryConfig.getDirectory(), e.getMessage());
+    }
+  }
+
+  private void fetchRemote(String remoteName, boolean writeCommitGraph)
+      throws GitProcessException, HostUnavailableException {
+    String url = remoteUrls.getOrDefault(remoteName, repositoryConfig.getUrl());
+    long start = System.nanoTime();
+
+    // submodules are fetched on update only, if their gitlinks changed,
+    // fetched commits are appended to the commit-graph as a new split layer
+    List<String> command = new LinkedList<>(throughMirror(url));
+    command.addAll(Arrays.asList(
+        "-c", "fetch.writeCommitGraph=" + writeCommitGraph, "fetch", "--prune", "--no-recurse-submodules",
+        "--no-write-fetch-head", "--no-auto-gc"
+    ));
+    if (Strategy.TAG == repositoryConfig.getStrategy()) {
+      command.add("--tags");
+    }
+    command.add(remoteName);
+
+    try {
+      if (null == mirrorCache) {
+        network(url, () -> git(command));
+      } else {
+        git(command);
+      }
+    } finally {
+      remoteFetchNanos.put(remoteName, System.nanoTime() - start);
+    }
+  }
+
+
+  /**
+   * Ensure the commit-graph and, with multiple packs, the multi-pack-index exist, the stats walks depend on them.
+   */
+  private void updateCommitGraph() throws GitProcessException {
+    File objects = new File(repositoryConfig.getDirectory(), ".git/objects");
+    boolean hasCommitGraph = new File(objects, "info/commit-graph").isFile()
+        || new File(objects, "info/commit-graphs/commit-graph-chain").isFile();
+    boolean hasMultiPackIndex = new File(objects, "pack/multi-pack-index").isFile();
+    File[] packs = new File(objects, "pack").listFiles((dir, name) -> name.endsWith(".pack"));
+    boolean writeMultiPackIndex = null != packs && 1 < packs.length && (!hasMultiPackIndex || 0 < fetchedBytes);
+
+    if (hasCommitGraph && !commitGraphOutdated && !writeMultiPackIndex) {
+      return;
+    }
+
+    activity(Action.WRITE_COMMIT_GRAPH, "write commit-graph and multi-pack-index");
+
+    if (!hasCommitGraph || commitGraphOutdated) {
+      git("commit-graph", "write", "--reachable", "--split");
+    }
+
+    if (writeMultiPackIndex) {
+      git("multi-pack-index", "write");
+    }
+  }
+
+  /**
+   * Size of the packs and loose objects, indexes are not counted.
+   */
+  private long determineObjectBytes() {
+    File objects = new File(repositoryConfig.getDirectory(), ".git/objects");
+    long bytes = 0;
+
+    File[] packs = new File(objects, "pack").listFiles((dir, name) -> name.endsWith(".pack"));
+    if (null != packs) {
+      for (File pack : packs) {
+        bytes += pack.length();
+      }
+    }
+
+    File[] fanout = objects.listFiles((dir, name) -> name.matches("[0-9a-f]{2}"));
+    if (null != fanout) {
+      for (File directory : fanout) {
+        File[] looseObjects = directory.listFiles();
+
+        if (null != looseObjects) {
+          for (File looseObject : looseObjects) {
+            bytes += looseObject.length();
+          }
+        }
+      }
+    }
 
-    List<String> command = new LinkedList<>(Arrays.asList("fetch", "--prune", "--multiple"));
-    command.addAll(remoteNames);
-    git(command);
+    return bytes;
   }
 
   private void determineStats() throws GitProcessException {
+    // resolve all refs at once and count in the commit-graph, git is only spawned for commits missing in the graph
+    Map<String, String> refs = parseRefs(git("for-each-ref", "--format=%(refname)%09%(objectname)",
+        "refs/heads", "refs/remotes"));
+    CommitGraph commitGraph = loadCommitGraph();
+
     for (String branchName : localBranchNames) {
-      determineStats(branchName);
+      determineStats(branchName, refs, commitGraph);
+    }
+  }
+
+  private CommitGraph loadCommitGraph() {
+    try {
+      return CommitGraph.load(new File(repositoryConfig.getDirectory(), ".git"));
+    } catch (IOException e) {
+      logger.warn("[{}] could not read commit-graph: {}", repositoryConfig.getPathName(), e.getMessage());
+      return null;
     }
   }
 
-  private void determineStats(String branchName) throws GitProcessException {
+  private void determineStats(String branchName, Map<String, String> refs, CommitGraph commitGraph)
+      throws GitProcessException {
     Upstream upstream = branchUpstreamMap.get(branchName);
 
     if (!determineUpstreamIsAvailable(upstream)) {
@@ -360,37 +805,68 @@ public class Worker implements Runnable {
 
     Stats stats = new Stats();
 
-    String localRef = git("rev-parse", branchName);
-    String remoteRef = git("rev-parse", upstream.getRemoteRef());
+    String localRef = refs.get("refs/heads/" + branchName);
+    String remoteRef = refs.get("refs/remotes/" + upstream.getRemoteRef());
+    if (null == localRef || null == remoteRef) {
+      String[] revisions = git("rev-parse", branchName, upstream.getRemoteRef()).split("\n");
+      localRef = revisions[0];
+      remoteRef = revisions[1];
+    }
 
-    stats.commitsBehind = Integer.parseInt(
-        git("rev-list", "--count", String.format("%s..%s", localRef, remoteRef))
-    );
+    int localPosition = null == commitGraph ? -1 : commitGraph.position(localRef);
+    int remotePosition = null == commitGraph ? -1 : commitGraph.position(remoteRef);
 
-    stats.commitsAhead = Integer.parseInt(
-        git("rev-list", "--count", String.format("%s..%s", remoteRef, localRef))
-    );
+    if (0 <= localPosition && 0 <= remotePosition) {
+      int[] counts = commitGraph.countAheadBehind(localPosition, remotePosition);
+      stats.commitsAhead = counts[0];
+      stats.commitsBehind = counts[1];
+    } else {
+      // a single walk counts both sides of the symmetric difference, left is ahead and right is behind
+      String[] counts = git("rev-list", "--left-right", "--count", String.format("%s...%s", localRef, remoteRef))
+          .split("\t");
+      stats.commitsAhead = Integer.parseInt(counts[0]);
+      stats.commitsBehind = Integer.parseInt(counts[1]);
+    }
 
     if (Objects.equals(headCommitRef, localRef)) {
-      String status = git("status", "--porcelain");
+      parseStatus(git("status", "--porcelain"), stats);
+    }
 
-      Arrays.asList(status.split("\n"))
-          .parallelStream()
-          .map(String::trim)
-          .filter(StringUtils::isNotEmpty)
-          .forEach(line -> {
-            char index = line.charAt(0);
-            char workTree = line.charAt(1);
+    branchStats.put(branchName, stats);
+  }
+
+  /**
+   * Parse the {@code refname<TAB>objectname} lines of {@code git for-each-ref}.
+   */
+  static Map<String, String> parseRefs(String gitOutput) {
+    Map<String, String> refs = new HashMap<>();
 
-            updateStats(stats, index);
-            updateStats(stats, workTree);
-          });
+    for (String line : gitOutput.split("\n")) {
+      String[] columns = line.split("\t");
+
+      if (2 == columns.length) {
+        refs.put(columns[0], columns[1]);
+      }
     }
 
-    branchStats.put(branchName, stats);
+    return refs;
   }
 
-  private void updateStats(Stats stats, char status) {
+  static void parseStatus(String status, Stats stats) {
+    Arrays.asList(status.split("\n"))
+        .parallelStream()
+        .map(String::trim)
+        .filter(StringUtils::isNotEmpty)
+        .forEach(line -> {
+          char index = line.charAt(0);
+          char workTree = line.charAt(1);
+
+          updateStats(stats, index);
+          updateStats(stats, workTree);
+        });
+  }
+
+  private static void updateStats(Stats stats, char status) {
     synchronized (stats) {
       switch (status) {
         case 'M':
@@ -421,50 +897,252 @@ public class Worker implements Runnable {
   }
 
   /**
-   * Update all branches.
+   * Check out the newest tag matching the tag pattern as detached HEAD, unless the working tree has local changes.
    */
-  private void updateBranches() throws GitProcessException {
+  private void checkoutTag() throws GitProcessException {
+    if (!updateExisting && !cloned) {
+      return;
+    }
+
+    // resolve all tags with a single git process, annotated tags are peeled to their commit
+    Map<String, String> tagCommits = parseTagRefs(git(
+        "for-each-ref", "--format=%(refname:strip=2)%09%(objectname)%09%(*objectname)", "refs/tags"
+    ));
+    String tagName = selectTag(tagCommits.keySet(), Pattern.compile(repositoryConfig.getTagPattern()));
+
+    if (null == tagName) {
+      activity(Action.NO_MATCHING_TAG, "no tag matches {}", repositoryConfig.getTagPattern());
+      return;
+    }
+
+    String tagCommit = tagCommits.get(tagName);
+
+    if (tagCommit.equals(headCommitRef)) {
+      // already pinned, the working tree is not touched at all
+      tag = new TagResult(tagName, tagCommit, false);
+      return;
+    }
+
+    // a pinned checkout is not expected to carry local changes, they are kept instead of being stashed away
+    if (null != headCommitRef
+        && !StringUtils.isEmpty(git("status", "--porcelain", "--ignore-submodules", "--untracked-files=no"))) {
+      activity(Action.SKIP_DIRTY_TAG, "local changes, tag {} not checked out", tagName);
+      return;
+    }
+
+    activity(Action.CHECKOUT_TAG, "checkout tag {}", tagName);
+    git("-c", "advice.detachedHead=false", "checkout", "--quiet", "--detach", "refs/tags/" + tagName);
+    tag = new TagResult(tagName, tagCommit, true);
+
+    if (null == headCommitRef) {
+      if (new File(repositoryConfig.getDirectory(), ".gitmodules").isFile()) {
+        updateSubmodules(Collections.emptySet());
+      }
+    } else {
+      updateChangedSubmodules(headCommitRef, tagCommit);
+    }
+  }
+
+  /**
+   * Select the highest version among all tags matching the pattern.
+   */
+  static String selectTag(Collection<String> tagNames, Pattern pattern) {
+    return tagNames
+        .stream()
+        .filter(tagName -> pattern.matcher(tagName).matches())
+        .max(new TagVersionComparator())
+        .orElse(null);
+  }
+
+  /**
+   * Parse the tag name to commit mapping from {@code git for-each-ref}, using the peeled object if available.
+   */
+  static Map<String, String> parseTagRefs(String gitOutput) {
+    Map<String, String> tagCommits = new HashMap<>();
+
+    for (String line : gitOutput.split("\n")) {
+      String[] columns = line.split("\t");
+
+      if (2 > columns.length || columns[0].isEmpty()) {
+        continue;
+      }
+
+      boolean annotated = 3 <= columns.length && !columns[2].isEmpty();
+      tagCommits.put(columns[0], annotated ? columns[2] : columns[1]);
+    }
+
+    return tagCommits;
+  }
+
+  /**
+   * Plan the update of all branches, before any branch or the working tree is touched.
+   */
+  private void planUpdates() throws GitProcessException {
     if (!updateExisting) {
       return;
     }
 
+    activity(Action.PLAN_UPDATES, "plan branch updates");
+
+    // resolve all local and upstream refs with a single git process
+    List<String> plannedBranchNames = new LinkedList<>();
+    List<String> revisions = new LinkedList<>();
+    revisions.add("rev-parse");
+
     for (String branchName : localBranchNames) {
-      updateBranch(branchName);
+      Upstream upstream = branchUpstreamMap.get(branchName);
+
+      if (null == upstream) {
+        updatePlan.add(new UpdatePlan.BranchUpdate(branchName, null, null, null, UpdatePlan.Step.SKIP_NO_UPSTREAM));
+      } else if (!determineUpstreamIsAvailable(upstream)) {
+        updatePlan.add(
+            new UpdatePlan.BranchUpdate(branchName, upstream, null, null, UpdatePlan.Step.SKIP_UPSTREAM_DELETED)
+        );
+      } else {
+        plannedBranchNames.add(branchName);
+        revisions.add("refs/heads/" + branchName);
+        revisions.add(upstream.getRemoteRef());
+      }
+    }
+
+    if (plannedBranchNames.isEmpty()) {
+      return;
+    }
+
+    Iterator<String> objectIds = Arrays.asList(git(revisions).split("\n")).iterator();
+
+    for (String branchName : plannedBranchNames) {
+      Upstream upstream = branchUpstreamMap.get(branchName);
+      String fromIsh = objectIds.next().trim();
+      String toIsh = objectIds.next().trim();
+      UpdatePlan.Step step;
+
+      if (StringUtils.equals(fromIsh, toIsh) || isAncestor(toIsh, fromIsh)) {
+        // the upstream is already contained, the local branch may be ahead
+        step = UpdatePlan.Step.UP_TO_DATE;
+      } else if (!upstream.isRebase() && !isAncestor(fromIsh, toIsh)) {
+        step = UpdatePlan.Step.DIVERGED;
+      } else if (branchName.equals(headSymbolicRef)) {
+        step = UpdatePlan.Step.UPDATE_CHECKED_OUT;
+      } else if (upstream.isRebase()) {
+        step = UpdatePlan.Step.REBASE_IN_WORKTREE;
+      } else {
+        step = UpdatePlan.Step.FAST_FORWARD_REF;
+      }
+
+      updatePlan.add(new UpdatePlan.BranchUpdate(branchName, upstream, fromIsh, toIsh, step));
     }
   }
 
-  private void updateBranch(String branchName) throws GitProcessException {
+  /**
+   * Update all branches, as planned.
+   *
+   * <p>The checked out branch is updated in place, all other branches are updated without touching the working
+   * tree and concurrently.</p>
+   */
+  private void updateBranches() throws Exception {
     if (!updateExisting) {
       return;
     }
 
-    Upstream upstream = branchUpstreamMap.get(branchName);
+    List<UpdatePlan.BranchUpdate> otherBranchUpdates = new LinkedList<>();
+    for (UpdatePlan.BranchUpdate branchUpdate : updatePlan.getBranchUpdates()) {
+      if (UpdatePlan.Step.REBASE_IN_WORKTREE == branchUpdate.getStep()
+          || UpdatePlan.Step.FAST_FORWARD_REF == branchUpdate.getStep()) {
+        otherBranchUpdates.add(branchUpdate);
+      } else {
+        updateBranch(branchUpdate);
+      }
+    }
 
-    if (null == upstream) {
-      branchUpdateStatus.put(branchName, Update.SKIP_NO_UPSTREAM);
+    if (2 > otherBranchUpdates.size()) {
+      for (UpdatePlan.BranchUpdate branchUpdate : otherBranchUpdates) {
+        updateBranch(branchUpdate);
+      }
       return;
     }
 
-    if (!determineUpstreamIsAvailable(upstream)) {
-      branchUpdateStatus.put(branchName, Update.SKIP_UPSTREAM_DELETED);
-      return;
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(otherBranchUpdates.size(), MAX_CONCURRENT_BRANCH_UPDATES));
+    List<Future<Void>> futures = new LinkedList<>();
+
+    try {
+      for (UpdatePlan.BranchUpdate branchUpdate : otherBranchUpdates) {
+        futures.add(executor.submit(() -> {
+          updateBranch(branchUpdate);
+          return null;
+        }));
+      }
+
+      Exception failure = null;
+      for (Future<Void> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          if (null == failure) {
+            failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+          }
+        }
+      }
+
+      if (null != failure) {
+        throw failure;
+      }
+    } finally {
+      executor.shutdown();
     }
+  }
 
-    activity(Action.CHECKOUT, "checkout branch {}", branchName);
-    git("checkout", branchName);
+  private void updateBranch(UpdatePlan.BranchUpdate branchUpdate) throws GitProcessException {
+    String branchName = branchUpdate.getBranchName();
+    Upstream upstream = branchUpdate.getUpstream();
+    String fromIsh = branchUpdate.getFromIsh();
+    String toIsh = branchUpdate.getToIsh();
 
-    String fromIsh = git("rev-parse", branchName);
-    String toIsh = git("rev-parse", upstream.getRemoteRef());
+    switch (branchUpdate.getStep()) {
+      case SKIP_NO_UPSTREAM:
+        branchUpdateStatus.put(branchName, Update.SKIP_NO_UPSTREAM);
+        return;
 
-    if (StringUtils.equals(fromIsh, toIsh)) {
-      branchUpdateStatus.put(branchName, Update.UP_TO_DATE);
-      return;
+      case SKIP_UPSTREAM_DELETED:
+        branchUpdateStatus.put(branchName, Update.SKIP_UPSTREAM_DELETED);
+        return;
+
+      case UP_TO_DATE:
+        branchUpdateStatus.put(branchName, Update.UP_TO_DATE);
+        return;
+
+      case DIVERGED:
+        activity(Action.MERGE_ABORT, "{} cannot be fast-forwarded to {}", branchName, upstream.getRemoteRef());
+        branchUpdateIsh.put(branchName, new FromToIsh(fromIsh, toIsh));
+        branchUpdateStatus.put(branchName, Update.SKIP_CONFLICTING);
+        return;
+
+      default:
+        branchUpdateIsh.put(branchName, new FromToIsh(fromIsh, toIsh));
     }
 
-    branchUpdateIsh.put(branchName, new FromToIsh(fromIsh, toIsh));
+    switch (branchUpdate.getStep()) {
+      case UPDATE_CHECKED_OUT:
+        updateCheckedOutBranch(branchName, upstream, fromIsh);
+        break;
+
+      case REBASE_IN_WORKTREE:
+        rebaseInWorktree(branchName, upstream, fromIsh);
+        break;
+
+      default:
+        fastForwardRef(branchName, upstream, fromIsh, toIsh);
+    }
+  }
 
+  /**
+   * Update the checked out branch in place, the working tree follows the branch.
+   */
+  private void updateCheckedOutBranch(String branchName, Upstream upstream, String fromIsh)
+      throws GitProcessException {
     if (upstream.isRebase()) {
-      activity(Action.REBASE, "rebase onto {}", upstream.getRemoteRef());
+      activity(branchName, Action.REBASE, "rebase {} onto {}", branchName, upstream.getRemoteRef());
 
       try {
         git("rebase", upstream.getRemoteRef());
@@ -475,7 +1153,7 @@ public class Worker implements Runnable {
         branchUpdateStatus.put(branchName, Update.SKIP_CONFLICTING);
       }
     } else {
-      activity(Action.MERGE, "merge branch {}", upstream.getRemoteRef());
+      activity(branchName, Action.MERGE, "merge branch {}", upstream.getRemoteRef());
 
       try {
         git("merge", "--ff-only", upstream.getRemoteRef());
@@ -487,33 +1165,260 @@ public class Worker implements Runnable {
       }
     }
 
-    if (new File(repositoryConfig.getDirectory(), ".gitmodules").isFile()) {
-      activity(Action.UPDATE_SUBMODULES, "update submodules");
+    if (Update.SKIP_CONFLICTING != branchUpdateStatus.get(branchName)) {
+      updateChangedSubmodules(fromIsh, "HEAD");
+    }
+  }
+
+  /**
+   * Update the submodules, whose gitlinks changed between both commits.
+   */
+  private void updateChangedSubmodules(String fromIsh, String toIsh) throws GitProcessException {
+    if (!new File(repositoryConfig.getDirectory(), ".gitmodules").isFile()) {
+      return;
+    }
+
+    String rawDiff = git("diff", "--raw", "--no-renames", fromIsh, toIsh);
+    Set<String> paths = parseChangedGitlinks(rawDiff);
+
+    if (rawDiff.contains("\t.gitmodules\n") || rawDiff.endsWith("\t.gitmodules")) {
       git("submodule", "sync");
-      git("submodule", "update");
+    }
+
+    if (!paths.isEmpty()) {
+      updateSubmodules(paths);
     }
   }
 
-  private boolean determineUpstreamIsAvailable(Upstream upstream) {
-    if (null == upstream) {
-      return false;
+  /**
+   * Update the submodules at the given paths, or all submodules if empty.
+   */
+  private void updateSubmodules(Set<String> paths) throws GitProcessException {
+    activity(Action.UPDATE_SUBMODULES, "update submodules");
+
+    List<String> arguments = new LinkedList<>(Arrays.asList("submodule", "init", "--"));
+    arguments.addAll(paths);
+    git(arguments);
+
+    if (null != submoduleCache) {
+      fetchSubmodulesFromCache(paths);
     }
 
-    List<String> branchNames = remoteBranchNames.get(upstream.getRemoteName());
+    arguments = new LinkedList<>(Arrays.asList(
+        "submodule", "update", "--jobs", Integer.toString(config.getGitConfig().getSubmoduleJobs()), "--"
+    ));
+    arguments.addAll(paths);
+    git(arguments);
+  }
 
-    return null != branchNames && branchNames.contains(upstream.getRemoteBranch());
+  /**
+   * Fetch the submodules from the run wide mirrors, the following submodule update does not need to fetch.
+   *
+   * <p>The mirrors are refreshed and the cloned submodules fetched concurrently, up to the configured submodule jobs.
+   * Submodules not cloned yet are cloned one after another afterwards, the clones write the superproject config.</p>
+   */
+  private void fetchSubmodulesFromCache(Set<String> paths) throws GitProcessException {
+    String submodulePaths;
+    try {
+      submodulePaths = git("config", "--file", ".gitmodules", "--get-regexp", "^submodule\\..*\\.path$");
+    } catch (GitProcessException e) {
+      // exception means, there are no submodules
+      return;
+    }
+
+    Map<String, String> submoduleUrls = new LinkedHashMap<>();
+    for (Map.Entry<String, String> entry : parseSubmodulePaths(submodulePaths).entrySet()) {
+      String name = entry.getKey();
+      String path = entry.getValue();
+
+      if (!paths.isEmpty() && !paths.contains(path)) {
+        continue;
+      }
+
+      try {
+        submoduleUrls.put(path, git("config", "--local", "--get", String.format("submodule.%s.url", name)));
+      } catch (GitProcessException e) {
+        // exception means, the submodule is not initialized
+      }
+    }
+
+    if (submoduleUrls.isEmpty()) {
+      return;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(submoduleUrls.size(), Math.max(1, config.getGitConfig().getSubmoduleJobs())));
+    Map<String, Future<File>> clones = new LinkedHashMap<>();
+
+    try {
+      for (Map.Entry<String, String> entry : submoduleUrls.entrySet()) {
+        clones.put(entry.getKey(), executor.submit(() -> fetchSubmoduleFromCache(entry.getKey(), entry.getValue())));
+      }
+
+      GitProcessException failure = null;
+      Map<String, File> references = new LinkedHashMap<>();
+      for (Map.Entry<String, Future<File>> entry : clones.entrySet()) {
+        try {
+          File reference = entry.getValue().get();
+
+          if (null != reference) {
+            references.put(entry.getKey(), reference);
+          }
+        } catch (ExecutionException e) {
+          if (null == failure) {
+            failure = e.getCause() instanceof GitProcessException
+                ? (GitProcessException) e.getCause()
+                : new GitProcessException(e.getCause());
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new GitProcessException(e);
+        }
+      }
+
+      if (null != failure) {
+        throw failure;
+      }
+
+      for (Map.Entry<String, File> entry : references.entrySet()) {
+        git("submodule", "update", "--reference", entry.getValue().getAbsolutePath(), "--dissociate", "--",
+            entry.getKey());
+      }
+    } finally {
+      executor.shutdown();
+    }
   }
 
   /**
-   * Restore original HEAD state.
+   * Refresh the mirror of a submodule and fetch from it, if the submodule is cloned already.
+   *
+   * @return The mirror to clone the submodule with, null if it is cloned already or not mirrored.
+   */
+  private File fetchSubmoduleFromCache(String path, String url) throws GitProcessException {
+    File mirror;
+    try {
+      mirror = submoduleCache.mirror(url, gitRunner);
+    } catch (GitProcessException e) {
+      logger.warn("[{}] could not mirror submodule {}: {}", repositoryConfig.getPathName(), url, e.getMessage());
+      return null;
+    }
+
+    File submoduleDirectory = new File(repositoryConfig.getDirectory(), path);
+    if (!new File(submoduleDirectory, ".git").exists()) {
+      return mirror;
+    }
+
+    git(submoduleDirectory, "fetch", "--tags", mirror.getAbsolutePath(), "+refs/heads/*:refs/remotes/origin/*");
+    return null;
+  }
+
+  /**
+   * Fast-forward a branch that is not checked out by moving its ref, the ancestry was checked by the planner.
    */
-  private void restoreHead() throws GitProcessException {
-    if (null == headSymbolicRef) {
+  private void fastForwardRef(String branchName, Upstream upstream, String fromIsh, String toIsh)
+      throws GitProcessException {
+    activity(Action.UPDATE_REF, "fast-forward {} to {}", branchName, upstream.getRemoteRef());
+    // passing the old value makes the update fail, if the branch was moved in the meantime
+    git("update-ref", "-m", "mgpm: fast-forward to " + upstream.getRemoteRef(),
+        "refs/heads/" + branchName, toIsh, fromIsh);
+    branchUpdateStatus.put(branchName, Update.MERGED_FAST_FORWARD);
+  }
+
+  /**
+   * Rebase a branch that is not checked out in a temporary detached worktree, then move its ref.
+   */
+  private void rebaseInWorktree(String branchName, Upstream upstream, String fromIsh) throws GitProcessException {
+    File worktree;
+    try {
+      worktree = Files.createTempDirectory(WORKTREE_PREFIX).toFile();
+    } catch (IOException e) {
+      throw new GitProcessException("could not create temporary worktree directory", e);
+    }
+
+    activity(branchName, Action.REBASE, "rebase {} onto {}", branchName, upstream.getRemoteRef());
+    boolean added = false;
+    Throwable failure = null;
+
+    try {
+      git("worktree", "add", "--detach", worktree.getAbsolutePath(), fromIsh);
+      added = true;
+
+      try {
+        git(worktree, "rebase", upstream.getRemoteRef());
+      } catch (GitProcessException exception) {
+        activity(Action.REBASE_ABORT, "rebase of {} aborted", branchName);
+        git(worktree, "rebase", "--abort");
+        branchUpdateStatus.put(branchName, Update.SKIP_CONFLICTING);
+        return;
+      }
+
+      String rebasedIsh = git(worktree, "rev-parse", "HEAD");
+      git("update-ref", "-m", "mgpm: rebase onto " + upstream.getRemoteRef(),
+          "refs/heads/" + branchName, rebasedIsh, fromIsh);
+      branchUpdateIsh.put(branchName, new FromToIsh(fromIsh, rebasedIsh));
+      branchUpdateStatus.put(branchName, Update.REBASED);
+    } catch (GitProcessException | RuntimeException exception) {
+      failure = exception;
+      throw exception;
+    } finally {
+      removeWorktree(worktree, added, failure);
+    }
+  }
+
+  /**
+   * Remove the temporary worktree and its directory, a failure is added to the failure of the rebase if any.
+   */
+  private void removeWorktree(File worktree, boolean added, Throwable failure) throws GitProcessException {
+    GitProcessException removeFailure = null;
+
+    if (added) {
+      try {
+        git("worktree", "remove", "--force", worktree.getAbsolutePath());
+      } catch (GitProcessException exception) {
+        removeFailure = exception;
+      }
+    }
+
+    if (worktree.exists()) {
+      try (Stream<Path> paths = Files.walk(worktree.toPath())) {
+        paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+      } catch (IOException exception) {
+        logger.warn("[{}] could not delete temporary worktree {}: {}", repositoryConfig.getDirectory(), worktree,
+            exception.getMessage());
+      }
+    }
+
+    if (null == removeFailure) {
       return;
     }
 
-    activity(Action.RESTORE_HEAD, "restore {}", headSymbolicRef);
-    git("checkout", headSymbolicRef);
+    if (null != failure) {
+      failure.addSuppressed(removeFailure);
+    } else {
+      throw removeFailure;
+    }
+  }
+
+  private boolean isAncestor(String ancestorIsh, String descendantIsh) throws GitProcessException {
+    try {
+      git("merge-base", "--is-ancestor", ancestorIsh, descendantIsh);
+      return true;
+    } catch (GitProcessException exception) {
+      if (1 == exception.getExitCode()) {
+        return false;
+      }
+      throw exception;
+    }
+  }
+
+  private boolean determineUpstreamIsAvailable(Upstream upstream) {
+    if (null == upstream) {
+      return false;
+    }
+
+    List<String> branchNames = remoteBranchNames.get(upstream.getRemoteName());
+
+    return null != branchNames && branchNames.contains(upstream.getRemoteBranch());
   }
 
   /**
@@ -524,16 +1429,59 @@ public class Worker implements Runnable {
    * @param arguments Multiple message arguments.
    */
   private void activity(Action action, String message, Object... arguments) {
+    activity(null, action, message, arguments);
+  }
+
+  /**
+   * @param branchName The branch the activity works on, null if it concerns the whole repository.
+   */
+  private void activity(String branchName, Action action, String message, Object... arguments) {
     message = MessageFormatter.arrayFormat(message, arguments).getMessage();
     logger.debug("[{}] {}: {}", repositoryConfig.getPathName(), action, message);
-    Activity activity = new Activity(action, message);
-    journal.add(activity);
+    Activity activity = new Activity(action, message, branchName);
+
+    synchronized (this) {
+      journal.add(activity);
+    }
 
+    // observers may block, e.g. on a journal sync, concurrent branch updates must not wait for each other
     for (WorkerObserver observer : observers) {
       observer.activity(activity, this);
     }
   }
 
+  /**
+   * Refresh the mirror of a remote url and return the arguments that redirect git to it, none without mirrors.
+   *
+   * <p>The url is only rewritten for this invocation, the remote keeps its upstream url, so pushes and manual
+   * fetches of the user are not affected.</p>
+   */
+  private List<String> throughMirror(String url) throws GitProcessException, HostUnavailableException {
+    if (null == mirrorCache) {
+      return Collections.emptyList();
+    }
+
+    File mirror = mirrorCache.mirrorOf(url);
+    if (network(url, () -> mirrorCache.refresh(url, gitRunner))) {
+      activity(Action.UPDATE_MIRROR, "fetched mirror of {}", url);
+    }
+
+    return Arrays.asList("-c", String.format("url.%s.insteadOf=%s", mirror.getAbsolutePath(), url));
+  }
+
+  /**
+   * Run a network operation against a remote url, retried and guarded by the remote host guard.
+   */
+  private <T> T network(String url, RemoteHostGuard.GitOperation<T> operation)
+      throws GitProcessException, HostUnavailableException {
+    if (null == remoteHostGuard) {
+      return operation.run();
+    }
+
+    return remoteHostGuard.run(url, operation, (retry, delayMillis, cause) ->
+        activity(Action.RETRY, "transient failure, retry {} in {} ms: {}", retry, delayMillis, cause.getMessage()));
+  }
+
   private String git(List<String> arguments) throws GitProcessException {
     return git(repositoryConfig.getDirectory(), arguments);
   }
@@ -543,59 +1491,66 @@ public class Worker implements Runnable {
   }
 
   private String git(File directory, List<String> arguments) throws GitProcessException {
-    return git(arguments.toArray(new String[arguments.size()]));
+    return gitRunner.git(directory, arguments);
   }
 
   private String git(File directory, String... arguments) throws GitProcessException {
-    List<String> command = new LinkedList<>();
-    command.add(config.getGitConfig().getBinary());
-    command.addAll(Arrays.asList(arguments));
+    return gitRunner.git(directory, arguments);
+  }
 
-    logger.debug("[{}] > {}", directory, String.join(" ", command));
+  /**
+   * Parse the paths of all added, changed or removed gitlinks from a {@code git diff --raw}.
+   */
+  static Set<String> parseChangedGitlinks(String rawDiff) {
+    Set<String> paths = new TreeSet<>();
 
-    try {
-      Process process = new ProcessBuilder()
-          .directory(directory)
-          .command(command)
-          .start();
-      process.getOutputStream().close();
-      int exitCode = process.waitFor();
-
-      if (0 != exitCode) {
-        String error = IOUtils.toString(process.getErrorStream()).trim();
-
-        if (StringUtils.isEmpty(error)) {
-          error = IOUtils.toString(process.getInputStream()).trim();
-        }
+    for (String line : rawDiff.split("\n")) {
+      int tab = line.indexOf('\t');
 
-        String message = String.format(
-            "execution of \"%s\" in \"%s\" failed with exit code %d: %s",
-            String.join(" ", command),
-            directory.getAbsolutePath(),
-            exitCode,
-            error
-        );
+      if (!line.startsWith(":") || 0 > tab) {
+        continue;
+      }
+
+      String[] modes = line.substring(1, tab).split(" ");
+      if ("160000".equals(modes[0]) || (1 < modes.length && "160000".equals(modes[1]))) {
+        paths.add(line.substring(tab + 1));
+      }
+    }
+
+    return paths;
+  }
+
+  /**
+   * Parse the submodule name to path mapping from {@code git config --get-regexp ^submodule\..*\.path$}.
+   */
+  static Map<String, String> parseSubmodulePaths(String gitOutput) {
+    Map<String, String> paths = new LinkedHashMap<>();
 
-        throw new GitProcessException(message);
+    for (String line : gitOutput.split("\n")) {
+      int space = line.indexOf(' ');
+
+      if (!line.startsWith("submodule.") || 0 > space || !line.substring(0, space).endsWith(".path")) {
+        continue;
       }
 
-      return IOUtils.toString(process.getInputStream()).replaceAll("\\s+$", "");
-    } catch (IOException | InterruptedException e) {
-      throw new GitProcessException(e);
+      paths.put(line.substring("submodule.".length(), space - ".path".length()), line.substring(space + 1));
     }
+
+    return paths;
   }
 
-  private List<String> parseLocalBranches(String gitOutput) {
+  static List<String> parseLocalBranches(String gitOutput) {
     String[] lines = gitOutput.split("\n");
     return Arrays.asList(lines)
         .stream()
         .map(branch -> branch.replaceFirst("^\\*", "").trim())
-        .filter(branch -> !branch.isEmpty())
+        // a detached HEAD is listed as "(HEAD detached at ...)"
+        .filter(branch -> !branch.isEmpty() && !branch.startsWith("("))
         .sorted()
         .collect(Collectors.toList());
   }
 
-  private Map<String, List<String>> parseRemoteBranches(String gitOutput) {
+  static Map<String, List<String>> parseRemoteBranches(String gitOutput) {
     String[] lines = gitOutput.split("\n");
     return Arrays.asList(lines)
         .stream()
@@ -613,6 +1568,14 @@ public class Worker implements Runnable {
         ));
   }
 
+  private interface PhaseCallable<T> {
+    T call() throws Exception;
+  }
+
+  private interface PhaseRunnable {
+    void run() throws Exception;
+  }
+
   public static class Stats {
     private int commitsBehind = 0;
     private int commitsAhead = 0;
@@ -623,6 +1586,21 @@ public class Worker implements Runnable {
     private int deleted = 0;
     private int unmerged = 0;
 
+    public Stats() {
+    }
+
+    public Stats(int commitsBehind, int commitsAhead, int added, int modified, int renamed, int copied, int deleted,
+          int unmerged) {
+      this.commitsBehind = commitsBehind;
+      this.commitsAhead = commitsAhead;
+      this.added = added;
+      this.modified = modified;
+      this.renamed = renamed;
+      this.copied = copied;
+      this.deleted = deleted;
+      this.unmerged = unmerged;
+    }
+
     public int getCommitsBehind() {
       return commitsBehind;
     }
@@ -5,5 +5,7 @@ public interface WorkerObserver {
 
   void activity(Activity activity, Worker worker);
 
+  void timing(PhaseTiming timing, Worker worker);
+
   void end(Worker worker);
 }